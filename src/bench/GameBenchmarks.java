@@ -0,0 +1,482 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+import logic.GameMode;
+import logic.PopulationConfig;
+import model.Animal;
+import model.ApexPredator;
+import model.Entity;
+import model.Food;
+import model.Grid;
+import model.GridStorage;
+import model.Predator;
+import model.Prey;
+import util.CheckpointJournal;
+import util.FileManager;
+import util.FoodChainCatalog;
+import util.GameLogger;
+import util.GameRandom;
+
+/**
+ * JMH benchmark suite for the hot paths of the game.
+ * Covers AI decisions, move validation, round processing and save/load
+ * on different board sizes and entity densities.
+ *
+ * Must be run from the project folder so that the food chain files are found.
+ * Usage: gradle jmh [-PjmhArgs="filter -p size=100,1000 -p density=0.05"]
+ *   size, density     board size and fraction of occupied cells
+ *   era               era of the animals
+ *   preyCount         prey counts of the population benchmarks
+ *   threads           decision threads of the two-phase round benchmark
+ * The jmh task runs with the GC profiler, so every result also shows bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmarks {
+	
+	private static final long SEED = 42;
+	
+	
+	//////////////////////// STATES ///////////////////////////////
+	
+	/**
+	 * Board parameters shared by the board benchmarks.
+	 */
+	@State(Scope.Benchmark)
+	public static class BoardParams {
+		@Param({"PRESENT"})
+		public GameMode era;
+		
+		@Param({"10", "20", "100", "1000"})
+		public int size;
+		
+		@Param({"0.01", "0.05"})
+		public double density;
+	}
+	
+	/**
+	 * A filled board with a prey in the middle.
+	 */
+	public static class PreyBoard extends BoardParams {
+		Grid grid;
+		Prey prey;
+		
+		@Setup
+		public void setup() {
+			quiet();
+			grid = buildBoard(size, density, era);
+			prey = new Prey(0, 0, "Bunny", era);
+			placeAtCenter(grid, prey);
+		}
+	}
+	
+	/**
+	 * A filled board with an apex predator in the middle.
+	 */
+	public static class ApexBoard extends BoardParams {
+		Grid grid;
+		ApexPredator apex;
+		
+		@Setup
+		public void setup() {
+			quiet();
+			grid = buildBoard(size, density, era);
+			apex = new ApexPredator(0, 0, "Lion", era);
+			placeAtCenter(grid, apex);
+		}
+	}
+	
+	/**
+	 * A filled board with the player predator in the middle.
+	 */
+	public static class PlayerBoard extends BoardParams {
+		Grid grid;
+		Predator player;
+		int counter;
+		
+		@Setup
+		public void setup() {
+			quiet();
+			grid = buildBoard(size, density, era);
+			player = new Predator(0, 0, "Wolf", era);
+			placeAtCenter(grid, player);
+		}
+	}
+	
+	/**
+	 * An engine with a filled board, and temp files for its binary and text saves.
+	 */
+	public static class EngineBoard extends BoardParams {
+		GameEngine engine;
+		File binary;
+		File text;
+		int expectedEntities;
+		
+		@Setup
+		public void setup() throws IOException, GameLoadException {
+			quiet();
+			engine = buildEngine(size, density, era);
+			binary = File.createTempFile("bench_save", ".bin");
+			text = File.createTempFile("bench_save", ".txt");
+			
+			// buildEngine bazı hayvanları sadece grid'e koyuyor, onlar kaydedilmiyor; ilk yüklemeden sonra sayı sabit
+			int animals = engine.getAnimals().size();
+			FileManager.saveGame(engine, binary);
+			FileManager.loadGame(engine, binary);
+			if (engine.getAnimals().size() != animals) {
+				throw new IllegalStateException("Round trip lost animals: " + animals + " -> " + engine.getAnimals().size());
+			}
+			expectedEntities = engine.getGrid().getEntityCount();
+			FileManager.exportText(engine, text);
+		}
+		
+		@TearDown
+		public void tearDown() {
+			binary.delete();
+			text.delete();
+		}
+	}
+	
+	/**
+	 * A large population game. The board grows with the population so that 5% of the cells hold an animal.
+	 */
+	@State(Scope.Benchmark)
+	public static class Population {
+		@Param({"PRESENT"})
+		public GameMode era;
+		
+		@Param({"1000", "4000", "16000"})
+		public int preyCount;
+		
+		GameEngine engine;
+		
+		@Setup
+		public void setup() {
+			quiet();
+			PopulationConfig population = new PopulationConfig(Math.max(1, preyCount / 50), Math.max(1, preyCount / 10), preyCount, 0.02);
+			int size = (int) Math.ceil(Math.sqrt(population.getAnimalCount() / 0.05));
+			engine = new GameEngine(era.name(), size, Integer.MAX_VALUE, GridStorage.DENSE, SEED, population);
+			engine.setSnapshotsEnabled(false);
+		}
+	}
+	
+	/**
+	 * A large population game played in two-phase mode on a pool of threads.
+	 */
+	public static class TwoPhasePopulation extends Population {
+		@Param({"1", "2", "4"})
+		public int threads;
+		
+		ForkJoinPool pool;
+		
+		@Setup
+		public void setupPool() {
+			pool = new ForkJoinPool(threads);
+			engine.setDecisionPool(pool);
+		}
+		
+		@TearDown
+		public void tearDown() {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * A large population game with a checkpoint file, and a random generator for the animal steps.
+	 */
+	public static class CheckpointedPopulation extends Population {
+		Random random;
+		File file;
+		CheckpointJournal journal;
+		
+		@Setup
+		public void setupFile() throws IOException {
+			random = new Random(SEED);
+			file = File.createTempFile("bench_checkpoint", ".journal");
+			file.delete();
+			journal = new CheckpointJournal(file);
+		}
+		
+		@TearDown
+		public void tearDown() throws IOException {
+			journal.close();
+			file.delete();
+		}
+	}
+	
+	/**
+	 * The food chain catalog with every era loaded.
+	 */
+	@State(Scope.Benchmark)
+	public static class Catalog {
+		@Param({"PRESENT"})
+		public GameMode era;
+		
+		FoodChainCatalog catalog;
+		GameRandom random;
+		
+		@Setup
+		public void setup() throws GameLoadException {
+			quiet();
+			catalog = FoodChainCatalog.getDefault();
+			catalog.preload();
+			random = new GameRandom(SEED);
+		}
+	}
+	
+	
+	//////////////////////// BENCHMARKS ///////////////////////////////
+	
+	@Benchmark
+	public int preyMakeMove(PreyBoard s) {
+		s.prey.makeMove(s.grid);
+		return s.prey.getX();
+	}
+	
+	@Benchmark
+	public int apexMakeMove(ApexBoard s) {
+		s.apex.makeMove(s.grid);
+		return s.apex.getX();
+	}
+	
+	@Benchmark
+	public int predatorAvailableMoves(PlayerBoard s) {
+		return s.player.getAvailableMoves(s.grid).size();
+	}
+	
+	@Benchmark
+	public boolean predatorIsValidMove(PlayerBoard s) {
+		int i = s.counter++;
+		int targetX = s.player.getX() + (i % 5) - 2;
+		int targetY = s.player.getY() + ((i / 5) % 5) - 2;
+		return s.player.isValidMove(s.grid, targetX, targetY);
+	}
+	
+	@Benchmark
+	public boolean engineProcessTurn(EngineBoard s) {
+		Predator player = s.engine.getPredatorPlayer();
+		return s.engine.processTurnWhenCliked(player.getX(), player.getY());
+	}
+	
+	@Benchmark
+	public long saveGame(EngineBoard s) throws IOException {
+		FileManager.saveGame(s.engine, s.binary);
+		return s.binary.length();
+	}
+	
+	@Benchmark
+	public int loadGame(EngineBoard s) throws IOException, GameLoadException {
+		FileManager.loadGame(s.engine, s.binary);
+		return s.engine.getAnimals().size();
+	}
+	
+	@Benchmark
+	public long exportText(EngineBoard s) throws IOException {
+		FileManager.exportText(s.engine, s.text);
+		return s.text.length();
+	}
+	
+	@Benchmark
+	public int loadText(EngineBoard s) throws IOException, GameLoadException {
+		FileManager.loadGame(s.engine, s.text);
+		return s.engine.getAnimals().size();
+	}
+	
+	/**
+	 * Saves and loads the same game, then checks that nothing was lost.
+	 */
+	@Benchmark
+	public long roundTrip(EngineBoard s) throws IOException, GameLoadException {
+		FileManager.saveGame(s.engine, s.binary);
+		FileManager.loadGame(s.engine, s.binary);
+		if (s.engine.getGrid().getEntityCount() != s.expectedEntities) {
+			throw new IllegalStateException("Round trip lost entities: " + s.expectedEntities + " -> " + s.engine.getGrid().getEntityCount());
+		}
+		return s.binary.length();
+	}
+	
+	/**
+	 * One full round with a large population.
+	 * Time per round should grow about linearly with the prey count.
+	 */
+	@Benchmark
+	public boolean populationRound(Population s) {
+		Predator player = s.engine.getPredatorPlayer();
+		return s.engine.processTurnWhenCliked(player.getX(), player.getY());
+	}
+	
+	/**
+	 * One full round with a large population, bots decide in parallel.
+	 */
+	@Benchmark
+	public boolean twoPhaseRound(TwoPhasePopulation s) {
+		Predator player = s.engine.getPredatorPlayer();
+		return s.engine.processTurnWhenCliked(player.getX(), player.getY());
+	}
+	
+	/**
+	 * Picks the food chain of a new game, which used to open and parse the era file every time.
+	 */
+	@Benchmark
+	public int randomChain(Catalog s) throws GameLoadException {
+		return s.catalog.randomChain(s.era, s.random).length;
+	}
+	
+	/**
+	 * Checkpoint of a large population game after every round into a CheckpointJournal, like long automated runs do.
+	 * A real round costs much more than the checkpoint, so every animal just takes one random step instead.
+	 */
+	@Benchmark
+	public long checkpoint(CheckpointedPopulation s) throws IOException {
+		stepAnimals(s.engine, s.random);
+		s.journal.checkpoint(s.engine);
+		return s.journal.getSize();
+	}
+	
+	/**
+	 * Same as checkpoint(), but the whole game is saved again every round.
+	 */
+	@Benchmark
+	public long saveEveryRound(CheckpointedPopulation s) throws IOException {
+		stepAnimals(s.engine, s.random);
+		FileManager.saveGame(s.engine, s.file);
+		return s.file.length();
+	}
+	
+	
+	//////////////////////// BOARD SETUP ///////////////////////////////
+	
+	/**
+	 * Turns the console and file log off, benchmarks must not measure logging.
+	 */
+	private static void quiet() {
+		GameLogger.setConsoleEnabled(false);
+		GameLogger.setFileEnabled(false);
+	}
+	
+	/**
+	 * Moves every animal of the engine one random step if the cell is empty.
+	 * @param engine The engine
+	 * @param random Random generator
+	 */
+	private static void stepAnimals(GameEngine engine, Random random) {
+		Grid grid = engine.getGrid();
+		for (Animal animal : engine.getAnimals()) {
+			int x = animal.getX() + random.nextInt(3) - 1;
+			int y = animal.getY() + random.nextInt(3) - 1;
+			if (grid.isValidPosition(x, y) && grid.isEmpty(x, y) && grid.getEntity(animal.getX(), animal.getY()) == animal) {
+				grid.removeEntity(animal.getX(), animal.getY());
+				grid.putEntity(animal, x, y);
+			}
+		}
+	}
+	
+	/**
+	 * Creates a grid filled with a mix of entities.
+	 * 40% food, 40% prey, 15% predators and 5% apex predators.
+	 * @param size Size of the grid
+	 * @param density Fraction of occupied cells
+	 * @param era Era of the animals
+	 * @return The filled grid.
+	 */
+	static Grid buildBoard(int size, double density, GameMode era) {
+		Grid grid = new Grid(size, size);
+		fill(grid, density, era, null);
+		return grid;
+	}
+	
+	/**
+	 * Creates a game engine and fills its grid like buildBoard().
+	 * Extra prey are added to the engine so they move every round.
+	 * @param size Size of the grid
+	 * @param density Fraction of occupied cells
+	 * @param era Era of the animals
+	 * @return The engine.
+	 */
+	static GameEngine buildEngine(int size, double density, GameMode era) {
+		GameEngine engine = new GameEngine(era.name(), size, Integer.MAX_VALUE);
+		fill(engine.getGrid(), density, era, engine);
+		return engine;
+	}
+	
+	/**
+	 * Puts random entities on empty cells until the density is reached.
+	 * @param grid Grid to fill
+	 * @param density Fraction of occupied cells
+	 * @param era Era of the animals
+	 * @param engine If not null, animals are also added to this engine
+	 */
+	private static void fill(Grid grid, double density, GameMode era, GameEngine engine) {
+		Random random = new Random(SEED);
+		int size = grid.getCols();
+		int count = (int) ((long) size * grid.getRows() * density);
+		
+		for (int i = 0; i < count; i++) {
+			int x = random.nextInt(size);
+			int y = random.nextInt(grid.getRows());
+			if (!grid.isEmpty(x, y)) {
+				continue;
+			}
+			
+			int kind = random.nextInt(100);
+			Entity e;
+			if (kind < 40) {
+				e = new Food(x, y, "Grass");
+			}
+			else if (kind < 80) {
+				e = new Prey(x, y, "Bunny", era);
+			}
+			else if (kind < 95) {
+				e = new Predator(x, y, "Wolf", era);
+			}
+			else {
+				e = new ApexPredator(x, y, "Lion", era);
+			}
+			
+			if (engine != null && e instanceof Prey) {
+				engine.addLoadedAnimal((Animal) e);
+			}
+			else if (engine != null && e instanceof Food) {
+				engine.addLoadedFood((Food) e);
+			}
+			else {
+				grid.putEntity(e, x, y);
+			}
+		}
+	}
+	
+	/**
+	 * Places the entity in the middle of the grid, replacing what is there.
+	 * @param grid The grid
+	 * @param e Entity to place
+	 */
+	private static void placeAtCenter(Grid grid, Entity e) {
+		int center = grid.getCols() / 2;
+		grid.removeEntity(center, center);
+		grid.putEntity(e, center, center);
+	}
+
+}
@@ -0,0 +1,198 @@
+package bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+import logic.GameMode;
+import logic.GreedyPredatorPolicy;
+import logic.PopulationConfig;
+import logic.PredatorPolicy;
+import model.Animal;
+import model.Entity;
+import model.Grid;
+import model.GridStorage;
+import model.Predator;
+import util.GameLogger;
+import util.ReplayPlayer;
+import util.ReplayRecorder;
+
+/**
+ * Checks that a replay gives the recorded game, and that seeking to a keyframe gives the same board as playing forward.
+ * Records seeded games in every era, on a full board where respawns fail and on a crowded two-phase board,
+ * then plays each replay forward and seeks back through it round by round. Exits with status 1 at the first difference.
+ *
+ * Run by `gradle check`, or by hand from the project folder so that the food chain files are found.
+ * Usage: ReplayCheck [rounds] [keyframeInterval]
+ */
+public class ReplayCheck {
+
+	private static final long SEED = 42;
+	
+	/**
+	 * Runs the check.
+	 * @param args Rounds per game and the rounds between two keyframes.
+	 * @throws IOException Throws if a replay file cannot be written or read.
+	 */
+	public static void main(String[] args) throws IOException {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		int interval = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		
+		GameLogger.setConsoleEnabled(false);
+		GameLogger.setFileEnabled(false);
+		
+		// 3x3 tahta dolu, yenen hayvan yeniden doğamıyor
+		PopulationConfig full = new PopulationConfig(1, 2, 6, 0);
+		PopulationConfig crowded = new PopulationConfig(4, 6, 60, 20);
+		
+		boolean same = true;
+		File file = File.createTempFile("replay-check", ".fctr");
+		try {
+			for (GameMode era : GameMode.values()) {
+				same &= check(era, 3, full, false, rounds, interval, file);
+				same &= check(era, 10, PopulationConfig.SINGLE, false, rounds, interval, file);
+				same &= check(era, 12, crowded, true, rounds, interval, file);
+			}
+		}
+		finally {
+			file.delete();
+		}
+		
+		if (!same) {
+			System.exit(1);
+		}
+		System.out.println("Replays and keyframes give the recorded games.");
+	}
+	
+	/**
+	 * Records one game, then compares the replay with it, forward and by seeking back.
+	 * @param era Era of the game
+	 * @param size Size of the grid
+	 * @param population Animals and foods of the game
+	 * @param twoPhase true to play the game with a decision pool
+	 * @param rounds Rounds to play
+	 * @param interval Rounds between two keyframes of the replay
+	 * @param file Replay file to use
+	 * @return true if every board matched.
+	 * @throws IOException Throws if the replay file cannot be written or read.
+	 */
+	private static boolean check(GameMode era, int size, PopulationConfig population, boolean twoPhase,
+			int rounds, int interval, File file) throws IOException {
+		String game = "era=" + era + " size=" + size + " " + population + (twoPhase ? " two-phase" : "");
+		long[] recorded = new long[rounds + 1];
+		int offGrid = record(era, size, population, twoPhase, rounds, file, recorded);
+		
+		try {
+			ReplayPlayer player = new ReplayPlayer(file);
+			player.setKeyframeInterval(interval);
+			int start = player.getStartRound();
+			
+			for (int r = 0; r <= rounds; r++) {
+				if (r > 0 && !player.step()) {
+					System.out.println("DIFFERENT: " + game + " replay ends at round " + r);
+					return false;
+				}
+				if (fingerprint(player.getEngine()) != recorded[r]) {
+					System.out.println("DIFFERENT: " + game + " replay differs from the game after round " + r);
+					return false;
+				}
+			}
+			
+			// geriye doğru her raunt bir anahtar kareden başlıyor
+			for (int r = rounds; r >= 0; r--) {
+				player.seek(start + r);
+				if (fingerprint(player.getEngine()) != recorded[r]) {
+					System.out.println("DIFFERENT: " + game + " seeking back differs from the game after round " + r);
+					return false;
+				}
+			}
+		}
+		catch (GameLoadException e) {
+			System.out.println("DIFFERENT: " + game + " " + e.getMessage());
+			return false;
+		}
+		System.out.println("same: " + game + " rounds=" + rounds + " rounds with animals off the grid=" + offGrid);
+		return true;
+	}
+	
+	/**
+	 * Plays and records a game, the player is moved by the greedy policy.
+	 * @param era Era of the game
+	 * @param size Size of the grid
+	 * @param population Animals and foods of the game
+	 * @param twoPhase true to play the game with a decision pool
+	 * @param rounds Rounds to play
+	 * @param file Replay file, overwritten
+	 * @param prints Filled with the fingerprint of the game at the start and after every round
+	 * @return Number of rounds that ended with an animal off the grid.
+	 * @throws IOException Throws if the replay file cannot be written.
+	 */
+	private static int record(GameMode era, int size, PopulationConfig population, boolean twoPhase,
+			int rounds, File file, long[] prints) throws IOException {
+		GameEngine engine = new GameEngine(era.name(), size, rounds, GridStorage.DENSE, SEED, population);
+		engine.setSnapshotsEnabled(false);
+		if (twoPhase) {
+			engine.setDecisionPool(ForkJoinPool.commonPool());
+		}
+		
+		PredatorPolicy policy = new GreedyPredatorPolicy();
+		int offGrid = 0;
+		try (ReplayRecorder recorder = ReplayRecorder.start(engine, file)) {
+			prints[0] = fingerprint(engine);
+			for (int r = 1; r <= rounds; r++) {
+				Predator player = engine.getPredatorPlayer();
+				int[] move = policy.chooseMove(engine.getGrid(), player);
+				if (move == null || !engine.processTurnWhenCliked(move[0], move[1])) {
+					engine.processTurnWhenCliked(player.getX(), player.getY());
+				}
+				prints[r] = fingerprint(engine);
+				if (hasOffGrid(engine)) {
+					offGrid++;
+				}
+			}
+		}
+		return offGrid;
+	}
+	
+	private static boolean hasOffGrid(GameEngine engine) {
+		for (Animal a : engine.getAnimals()) {
+			if (engine.getGrid().getEntity(a.getX(), a.getY()) != a) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Hashes every entity on the board, then every animal with its position, score,
+	 * cooldown and whether it is on the grid, since animals off the grid still play.
+	 * @param engine The engine
+	 * @return The fingerprint.
+	 */
+	private static long fingerprint(GameEngine engine) {
+		Grid grid = engine.getGrid();
+		long h = 17;
+		for (int y = 0; y < grid.getRows(); y++) {
+			for (int x = 0; x < grid.getCols(); x++) {
+				Entity e = grid.getEntity(x, y);
+				if (e == null) {
+					continue;
+				}
+				h = h * 31 + (long) y * grid.getCols() + x;
+				h = h * 31 + e.getClass().getSimpleName().hashCode();
+				h = h * 31 + e.getName().hashCode();
+			}
+		}
+		for (Animal a : engine.getAnimals()) {
+			h = h * 31 + (long) a.getY() * grid.getCols() + a.getX();
+			h = h * 31 + a.getScore();
+			h = h * 31 + a.getAbilityCooldown();
+			h = h * 31 + (grid.getEntity(a.getX(), a.getY()) == a ? 1 : 0);
+		}
+		h = h * 31 + engine.getCurrentRaund();
+		return h;
+	}
+
+}
@@ -0,0 +1,155 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import logic.GameEngine;
+import logic.GameMode;
+import logic.GreedyPredatorPolicy;
+import logic.PopulationConfig;
+import logic.PredatorPolicy;
+import model.Animal;
+import model.Entity;
+import model.Grid;
+import model.GridStorage;
+import model.Predator;
+import util.GameLogger;
+
+/**
+ * Checks that the two-phase round mode plays the same game for any number of decision threads.
+ * Plays the same seeded game in every era on pools of different sizes and compares
+ * a fingerprint of the whole board after every round. Exits with status 1 at the first difference.
+ *
+ * Run by `gradle check`, or by hand from the project folder so that the food chain files are found.
+ * Usage: TwoPhaseCheck [rounds] [preyCount] [threads...]
+ */
+public class TwoPhaseCheck {
+	
+	private static final long SEED = 42;
+	
+	/**
+	 * Runs the check.
+	 * @param args Rounds per game, prey count of the large game and the pool sizes to compare.
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		int preyCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int[] threads = {1, 2, 4, 8};
+		if (args.length > 2) {
+			threads = new int[args.length - 2];
+			for (int i = 2; i < args.length; i++) {
+				threads[i - 2] = Integer.parseInt(args[i]);
+			}
+		}
+		
+		GameLogger.setConsoleEnabled(false);
+		GameLogger.setFileEnabled(false);
+		
+		PopulationConfig large = new PopulationConfig(Math.max(1, preyCount / 50), Math.max(1, preyCount / 10), preyCount, 0.02);
+		int largeSize = (int) Math.ceil(Math.sqrt(large.getAnimalCount() / 0.05));
+		// kalabalık tahtada planlar sık sık çakışıyor
+		PopulationConfig crowded = new PopulationConfig(4, 6, 60, 20);
+		
+		boolean same = true;
+		for (GameMode era : GameMode.values()) {
+			same &= check(era, 10, PopulationConfig.SINGLE, rounds, threads);
+			same &= check(era, 12, crowded, rounds, threads);
+			same &= check(era, largeSize, large, rounds, threads);
+		}
+		
+		if (!same) {
+			System.exit(1);
+		}
+		System.out.println("Two-phase games are the same for threads " + Arrays.toString(threads) + ".");
+	}
+	
+	/**
+	 * Plays one game on every pool size and compares the boards round by round with the first pool.
+	 * @param era Era of the game
+	 * @param size Size of the grid
+	 * @param population Animals and foods of the game
+	 * @param rounds Rounds to play
+	 * @param threads Pool sizes to compare
+	 * @return true if every game matched.
+	 */
+	private static boolean check(GameMode era, int size, PopulationConfig population, int rounds, int[] threads) {
+		long[] expected = null;
+		for (int t : threads) {
+			ForkJoinPool pool = new ForkJoinPool(t);
+			long[] prints;
+			try {
+				prints = play(era, size, population, rounds, pool);
+			}
+			finally {
+				pool.shutdown();
+			}
+			
+			if (expected == null) {
+				expected = prints;
+				continue;
+			}
+			for (int r = 0; r < expected.length; r++) {
+				if (prints[r] != expected[r]) {
+					System.out.println("DIFFERENT: era=" + era + " size=" + size + " " + population
+							+ " threads=" + t + " differs from threads=" + threads[0] + " after round " + r);
+					return false;
+				}
+			}
+		}
+		System.out.println("same: era=" + era + " size=" + size + " " + population + " rounds=" + rounds);
+		return true;
+	}
+	
+	/**
+	 * Plays a two-phase game, the player is moved by the greedy policy.
+	 * @param era Era of the game
+	 * @param size Size of the grid
+	 * @param population Animals and foods of the game
+	 * @param rounds Rounds to play
+	 * @param pool Pool for the decisions
+	 * @return Fingerprint of the board at the start and after every round.
+	 */
+	private static long[] play(GameMode era, int size, PopulationConfig population, int rounds, ForkJoinPool pool) {
+		GameEngine engine = new GameEngine(era.name(), size, rounds, GridStorage.DENSE, SEED, population);
+		engine.setSnapshotsEnabled(false);
+		engine.setDecisionPool(pool);
+		
+		PredatorPolicy policy = new GreedyPredatorPolicy();
+		long[] prints = new long[rounds + 1];
+		prints[0] = fingerprint(engine.getGrid());
+		for (int r = 1; r <= rounds; r++) {
+			Predator player = engine.getPredatorPlayer();
+			int[] move = policy.chooseMove(engine.getGrid(), player);
+			if (move == null || !engine.processTurnWhenCliked(move[0], move[1])) {
+				engine.processTurnWhenCliked(player.getX(), player.getY());
+			}
+			prints[r] = fingerprint(engine.getGrid());
+		}
+		return prints;
+	}
+	
+	/**
+	 * Hashes the type, name, cell and score of every entity on the board.
+	 * @param grid The grid
+	 * @return The fingerprint.
+	 */
+	private static long fingerprint(Grid grid) {
+		long h = 17;
+		for (int y = 0; y < grid.getRows(); y++) {
+			for (int x = 0; x < grid.getCols(); x++) {
+				Entity e = grid.getEntity(x, y);
+				if (e == null) {
+					continue;
+				}
+				h = h * 31 + (long) y * grid.getCols() + x;
+				h = h * 31 + e.getClass().getSimpleName().hashCode();
+				h = h * 31 + e.getName().hashCode();
+				if (e instanceof Animal) {
+					h = h * 31 + ((Animal) e).getScore();
+				}
+			}
+		}
+		return h;
+	}
+
+}
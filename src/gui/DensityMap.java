@@ -0,0 +1,121 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import logic.BoardSnapshot;
+
+/**
+ * Density heatmap of the board, used instead of icons when the cells are too small.
+ * Every pixel of the map is a block of cells and every role has its own image,
+ * so a large board is drawn with a few scaled image copies.
+ * Images are built again only when the snapshot or the block size changes.
+ */
+public class DensityMap {
+	// büyük tahtada resimler bundan büyük olmasın
+	private static final int MAX_SIZE = 1024;
+
+	// food, prey, predator, apex sırasıyla, sonradan çizilen üstte kalıyor
+	private static final Color[] COLORS = {
+		new Color(60, 170, 60),
+		new Color(40, 150, 190),
+		new Color(200, 40, 40),
+		new Color(150, 110, 20)
+	};
+
+	private final BufferedImage[] layers = new BufferedImage[BoardSnapshot.KIND_COUNT];
+	private long version = -1;
+	private int block = -1;
+	private int width;
+	private int height;
+
+
+	/**
+	 * Gives the block size for given cell size.
+	 * A block is about as big as a few screen pixels and the map is never bigger than MAX_SIZE.
+	 * @param board The snapshot
+	 * @param cellSize Smaller side of a cell in pixels
+	 * @param blockPixels Wanted size of a block in pixels
+	 * @return Number of cells on a side of a block.
+	 */
+	public static int blockSize(BoardSnapshot board, int cellSize, int blockPixels) {
+		int byZoom = (blockPixels + cellSize - 1) / Math.max(1, cellSize);
+		int bySize = (Math.max(board.getCols(), board.getRows()) + MAX_SIZE - 1) / MAX_SIZE;
+		return Math.max(1, Math.max(byZoom, bySize));
+	}
+
+	/**
+	 * Builds the images of the snapshot if they are not built yet.
+	 * @param board The snapshot
+	 * @param blockSize Number of cells on a side of a block
+	 */
+	public void update(BoardSnapshot board, int blockSize) {
+		if (board.getVersion() == version && blockSize == block && width == blocks(board.getCols(), blockSize)
+				&& height == blocks(board.getRows(), blockSize)) {
+			return;
+		}
+
+		width = blocks(board.getCols(), blockSize);
+		height = blocks(board.getRows(), blockSize);
+
+		int[][] counts = new int[BoardSnapshot.KIND_COUNT][width * height];
+		for (int i = 0; i < board.getEntityCount(); i++) {
+			int bx = board.getEntityX(i) / blockSize;
+			int by = board.getEntityY(i) / blockSize;
+			counts[board.getEntityKind(i)][by * width + bx]++;
+		}
+
+		double cellsInBlock = (double) blockSize * blockSize;
+		for (int kind = 0; kind < BoardSnapshot.KIND_COUNT; kind++) {
+			int rgb = COLORS[kind].getRGB() & 0xFFFFFF;
+			int[] pixels = new int[width * height];
+			int[] count = counts[kind];
+			for (int p = 0; p < pixels.length; p++) {
+				if (count[p] > 0) {
+					// az olan da görünsün diye karekök
+					int alpha = 80 + (int) (175 * Math.sqrt(count[p] / cellsInBlock));
+					pixels[p] = (Math.min(alpha, 255) << 24) | rgb;
+				}
+			}
+
+			BufferedImage img = layers[kind];
+			if (img == null || img.getWidth() != width || img.getHeight() != height) {
+				img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+				layers[kind] = img;
+			}
+			img.setRGB(0, 0, width, height, pixels, 0, width);
+		}
+
+		version = board.getVersion();
+		block = blockSize;
+	}
+
+	/**
+	 * Draws the maps of all roles scaled to the board.
+	 * update() must be called before.
+	 * @param g Graphics to draw on, clipped to the board
+	 * @param cellWidth The cell width.
+	 * @param cellHeight The cell height.
+	 */
+	public void draw(Graphics g, int cellWidth, int cellHeight) {
+		int drawWidth = width * block * cellWidth;
+		int drawHeight = height * block * cellHeight;
+		for (BufferedImage layer : layers) {
+			if (layer != null) {
+				g.drawImage(layer, 0, 0, drawWidth, drawHeight, null);
+			}
+		}
+	}
+
+	/**
+	 * Gives number of blocks needed for given number of cells.
+	 * @param cells Number of cells
+	 * @param blockSize Number of cells in a block
+	 * @return Number of blocks.
+	 */
+	private static int blocks(int cells, int blockSize) {
+		return (cells + blockSize - 1) / blockSize;
+	}
+
+}
@@ -1,50 +1,76 @@
 package gui;
 
 import java.awt.Color;
-
+import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Image;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Window;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.File;
-import java.io.IOException;
-import java.util.HashMap;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
+import exception.GameLoadException;
+import logic.BoardSnapshot;
 import logic.GameEngine;
-import model.ApexPredator;
-import model.Entity;
-import model.Food;
-import model.Grid;
-import model.Predator;
-import model.Prey;
+import logic.GameMode;
+import util.FileManager;
 /**
  * Graphical representation of game grid.
  * GamePanel Class handles mouse clicks, draws grid cells, animals and food items.
+ * The panel sits in a scroll pane. It fills the view by default, after zooming every cell has a fixed size
+ * and only the cells inside the visible part are drawn.
+ * When cells are too small for icons, a density heatmap of every role is drawn instead.
  */
-public class GamePanel extends JPanel {
+public class GamePanel extends JPanel implements Scrollable {
 	private GameEngine engine;
 	private static final long serialVersionUID = 1L;
-	private Map<String, Image> ikonlar; 
+	private IconAtlas ikonlar; 
+	
+	// zoom seviyeleri, hücre kenarı piksel olarak
+	private static final int[] ZOOM_LEVELS = {1, 2, 3, 4, 6, 8, 12, 16, 24, 32, 48, 64};
+	// bundan küçük hücrelerde ikon yerine ısı haritası
+	private static final int ICON_MIN_CELL = 8;
+	private static final int HEAT_BLOCK_PIXELS = 4;
+	// bundan çok hücre değiştiyse hepsini yeniden çiz
+	private static final int MAX_DIRTY_CELLS = 256;
+	private static final int TILE_PIXELS = 256;
+	
+	private boolean fitToView = true;
+	private int cellSize = 32;
+	
+	// çizgili arka plan parçası, yan yana kopyalanıyor
+	private BufferedImage gridTile;
+	private int tileCellWidth = -1;
+	private int tileCellHeight = -1;
+	private DensityMap densityMap = new DensityMap();
 	
 	
 	/**
 	 * Constructer for game panel.
 	 * Handles mouse clicks.
 	 * Calls processTurnWhenCliked() with clicked coordinates.
-	 * If turns are successfully happens, updates infos by updateLabels() method.
+	 * If turns are successfully happens, tells the main frame by roundPlayed() method.
 	 * Locks clicking if game is over and shows Game Over message tab.
+	 * Mouse wheel with Ctrl zooms around the mouse, without Ctrl it scrolls.
 	 */
 	public GamePanel() {
 		//this.engine = engine;
-		this.ikonlar = new HashMap<>();
+		this.ikonlar = new IconAtlas();
 		
 		setBackground(Color.WHITE);
 		
@@ -52,31 +78,38 @@ public class GamePanel extends JPanel {
 			
 			@Override
 			public void mousePressed(MouseEvent e) {
-				int mouseX = e.getX();
-				int mouseY = e.getY();
-				
-				int rows = engine.getGrid().getRows();
-				int cols = engine.getGrid().getCols();
+				BoardSnapshot board = engine.getSnapshot();
+				if (board == null) {
+					return;
+				}
 				
-				int cellWidth = getWidth() / cols;
-				int cellHeight = getHeight() / rows;
+				int cellWidth = getCellWidth(board);
+				int cellHeight = getCellHeight(board);
+				if (cellWidth <= 0 || cellHeight <= 0) {
+					return;
+				}
 				
-				int clickedCol = mouseX / cellWidth;
-				int clickedRow = mouseY / cellHeight;  
+				// fare panelin koordinatında, kaydırma zaten içinde
+				int clickedCol = e.getX() / cellWidth;
+				int clickedRow = e.getY() / cellHeight;  
+				if (clickedCol >= board.getCols() || clickedRow >= board.getRows()) {
+					return;
+				}
 								
 				boolean turnSuccessfull = engine.processTurnWhenCliked(clickedCol, clickedRow);
 				
 				if (turnSuccessfull) {
 					System.out.println(clickedCol + ". col and " + clickedRow + ". row is clicked.");
-					repaint();
+					repaintChangedCells();
 					
 					Window w = SwingUtilities.getWindowAncestor(GamePanel.this);
 					if (w instanceof MainFrame) {
-						((MainFrame) w).updateLabels();
+						((MainFrame) w).roundPlayed();
 					}
 					
-					if (engine.isGameOver()) {
-						String result = engine.getGameResult();
+					BoardSnapshot after = engine.getSnapshot();
+					if (after.isGameOver()) {
+						String result = after.getGameResult();
 						
 						// Game over penceresini çıkar
 						JOptionPane.showMessageDialog(GamePanel.this, result, "Game Over", JOptionPane.INFORMATION_MESSAGE);
@@ -84,29 +117,60 @@ public class GamePanel extends JPanel {
 				}	
 			}
 		});
+		
+		addMouseWheelListener(new MouseWheelListener() {
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				if (e.isControlDown()) {
+					zoom(-e.getWheelRotation(), e.getPoint());
+					return;
+				}
+				
+				// Ctrl yoksa olayı scroll pane'e ver, kaydırsın
+				JScrollPane scroll = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, GamePanel.this);
+				if (scroll != null) {
+					scroll.dispatchEvent(SwingUtilities.convertMouseEvent(GamePanel.this, e, scroll));
+				}
+			}
+		});
 	}
 	
 	/**
 	 * Calls drawGrid and paintAvailableCells for repainting.
 	 * paintComponent() method is used to draw custom graphics. 
 	 * Called automatically by Swing whenever the screen needs repainting.
+	 * Draws the last snapshot published by the engine, never the live grid.
+	 * Only the cells inside the clip are drawn, so the cost depends on the visible part, not the board size.
 	 * @param g The Graphics context used for drawing operations.
 	 */
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
 		
-		if (engine != null) {
-			int cols = engine.getGrid().getCols();
-			int rows = engine.getGrid().getRows();
-			int width = getWidth();
-			int height = getHeight();
+		BoardSnapshot board = (engine != null) ? engine.getSnapshot() : null;
+		if (board != null) {
+			int cellWidth = getCellWidth(board);
+			int cellHeight = getCellHeight(board);
+			if (cellWidth <= 0 || cellHeight <= 0) {
+				return;
+			}
 			
-			int cellWidth = width / cols;
-			int cellHeight = height / rows;
+			Rectangle clip = g.getClipBounds();
+			if (clip == null) {
+				clip = new Rectangle(0, 0, getWidth(), getHeight());
+			}
 			
-			drawGrid(g);
-			paintAvailableCells(g, cellWidth, cellHeight);
+			Graphics2D g2 = (Graphics2D) g.create();
+			g2.clipRect(0, 0, board.getCols() * cellWidth + 1, board.getRows() * cellHeight + 1);
+			if (isHeatmap(cellWidth, cellHeight)) {
+				densityMap.update(board, DensityMap.blockSize(board, Math.min(cellWidth, cellHeight), HEAT_BLOCK_PIXELS));
+				densityMap.draw(g2, cellWidth, cellHeight);
+			}
+			else {
+				drawGrid(g2, board, clip, cellWidth, cellHeight);
+			}
+			paintAvailableCells(g2, board, clip, cellWidth, cellHeight);
+			g2.dispose();
 			
 		}
 		else {
@@ -115,116 +179,311 @@ public class GamePanel extends JPanel {
 	}
 	
 	
-	
 	/**
-	 * Draws each cell of the grid.
+	 * Draws the cells of the grid inside the clip.
 	 * Puts icon of each entity on the grid.
 	 * @param g The Graphics context used for drawing operations.
+	 * @param board Snapshot to draw
+	 * @param clip Part of the panel to draw
+	 * @param cellWidth The cell width.
+	 * @param cellHeight The cell height.
 	 */
-	private void drawGrid(Graphics g) {
-		Grid grid = engine.getGrid();
-		int rows = grid.getRows();
-		int cols = grid.getCols();
-		int panelWidth = this.getWidth();
-		int panelHeight = this.getHeight();
+	private void drawGrid(Graphics2D g, BoardSnapshot board, Rectangle clip, int cellWidth, int cellHeight) {
+		int firstCol = Math.max(0, clip.x / cellWidth);
+		int firstRow = Math.max(0, clip.y / cellHeight);
+		int lastCol = Math.min(board.getCols() - 1, (clip.x + clip.width - 1) / cellWidth);
+		int lastRow = Math.min(board.getRows() - 1, (clip.y + clip.height - 1) / cellHeight);
+		if (firstCol > lastCol || firstRow > lastRow) {
+			return;
+		}
 		
-		int cellWidth = panelWidth / cols;
-		int cellHeight = panelHeight / rows;
+		drawGridLines(g, board, firstCol, firstRow, lastCol, lastRow, cellWidth, cellHeight);
 		
-		for (int y = 0; y < rows; y++) {
-			for (int x = 0; x < cols; x++) {
-				
-				Entity e = grid.getEntity(x, y);	
-				
-				int cellX = x*cellWidth;
-				int cellY = y*cellHeight;
-				
-				// draw grid
-				g.setColor(Color.BLACK);
-				g.drawRect(cellX, cellY, cellWidth, cellHeight); 
-				
-				// put icons
-				if (e != null) {
-					Image img = getEntityImage(e.getName());
-					g.drawImage(img, cellX + 2, cellY + 2, cellWidth - 4, cellHeight - 4, null);
-				}
-				
-				
-				// KARAKTER BOYAMA KODLARI
-				/*
-				if (e == null) {
-					g.setColor(Color.WHITE);
-				}
-				else if (e instanceof Predator) {
-					g.setColor(Color.ORANGE); 
-				}
-				else if (e instanceof Prey) {
-					g.setColor(Color.CYAN);
-				}
-				else if (e instanceof ApexPredator) {
-					g.setColor(Color.RED);
-				}
-				else if (e instanceof Food) {
-					g.setColor(Color.GREEN);
+		// put icons, sadece hücre boyu değişince yeniden ölçekleniyor
+		ikonlar.ensureSize(cellWidth - 4, cellHeight - 4);
+		
+		// entity'ler hücreye göre sıralı, her satırın görünen kısmını oku
+		int count = board.getEntityCount();
+		for (int y = firstRow; y <= lastRow; y++) {
+			for (int i = board.findEntityFrom(firstCol, y); i < count; i++) {
+				if (board.getEntityY(i) != y || board.getEntityX(i) > lastCol) {
+					break;
 				}
 				
-				// cell'i boya
-				g.fillRect(cellX, cellY, cellWidth, cellHeight);
-				// cell'in çerçevesini boya
-				g.setColor(Color.BLACK);
-				g.drawRect(cellX, cellY, cellWidth, cellHeight);
-				
-				// harf de ekle şimdilik !!!!!!!!! daha sonra karakterleri ekle
-				if (e != null) {
-					g.setColor(Color.BLACK);
-					g.drawString(e.getSymbol(), cellX + cellWidth/2, cellY + cellHeight/2);
-				}*/
-							
+				int cellX = board.getEntityX(i) * cellWidth;
+				int cellY = y * cellHeight;
+				ikonlar.draw(g, board.getEntityName(i), cellX + 2, cellY + 2);
 			}
 		}
-				
 		
 	}
 	
+	/**
+	 * Draws the cell borders of given cells by copying the background tile.
+	 * @param g The Graphics context, clipped to the board
+	 * @param board Snapshot that gives the board size
+	 * @param firstCol First column to draw
+	 * @param firstRow First row to draw
+	 * @param lastCol Last column to draw
+	 * @param lastRow Last row to draw
+	 * @param cellWidth The cell width.
+	 * @param cellHeight The cell height.
+	 */
+	private void drawGridLines(Graphics2D g, BoardSnapshot board, int firstCol, int firstRow, int lastCol, int lastRow, int cellWidth, int cellHeight) {
+		if (gridTile == null || tileCellWidth != cellWidth || tileCellHeight != cellHeight) {
+			gridTile = createGridTile(cellWidth, cellHeight);
+			tileCellWidth = cellWidth;
+			tileCellHeight = cellHeight;
+		}
+		
+		int tileCols = gridTile.getWidth() / cellWidth;
+		int tileRows = gridTile.getHeight() / cellHeight;
+		for (int ty = firstRow - firstRow % tileRows; ty <= lastRow; ty += tileRows) {
+			for (int tx = firstCol - firstCol % tileCols; tx <= lastCol; tx += tileCols) {
+				g.drawImage(gridTile, tx * cellWidth, ty * cellHeight, null);
+			}
+		}
+		
+		// sağ ve alt kenar
+		int width = board.getCols() * cellWidth;
+		int height = board.getRows() * cellHeight;
+		g.setColor(Color.BLACK);
+		g.drawLine(width, 0, width, height);
+		g.drawLine(0, height, width, height);
+	}
+	
+	/**
+	 * Creates the background image with cell borders, for a few cells in each direction.
+	 * Only changes when the cell size changes.
+	 * @param cellWidth The cell width.
+	 * @param cellHeight The cell height.
+	 * @return The image.
+	 */
+	private static BufferedImage createGridTile(int cellWidth, int cellHeight) {
+		int tileCols = Math.max(1, TILE_PIXELS / cellWidth);
+		int tileRows = Math.max(1, TILE_PIXELS / cellHeight);
+		int width = tileCols * cellWidth;
+		int height = tileRows * cellHeight;
+		
+		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = img.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, width, height);
+		
+		// draw grid
+		g.setColor(Color.BLACK);
+		for (int x = 0; x < tileCols; x++) {
+			g.drawLine(x * cellWidth, 0, x * cellWidth, height);
+		}
+		for (int y = 0; y < tileRows; y++) {
+			g.drawLine(0, y * cellHeight, width, y * cellHeight);
+		}
+		g.dispose();
+		return img;
+	}
+	
 	
 	
 	/**
 	 * Paints available cells to move for player(predator).
 	 * @param g The Graphics context.
+	 * @param board Snapshot that holds the player's moves
+	 * @param clip Part of the panel to draw
 	 * @param cellWidth The cell width.
 	 * @param cellHeight The cell height.
 	 */
-	private void paintAvailableCells(Graphics g, int cellWidth, int cellHeight) {
-		if (engine != null) {
-			Predator player = engine.getPredatorPlayer();		
-			if (player == null) {
-				return;
-			}
+	private void paintAvailableCells(Graphics g, BoardSnapshot board, Rectangle clip, int cellWidth, int cellHeight) {
+		for (int i = 0; i < board.getMoveCount(); i++) {
+			int cellX = board.getMoveX(i) * cellWidth;
+			int cellY = board.getMoveY(i) * cellHeight; 
 			
-			List<int[]> moves = player.getAvailableMoves(engine.getGrid());
-			
-			int mevcutX = player.getX();
-			int mevcutY = player.getY();
-			
-			for (int[] m : moves) {
-				int possibleX = m[0];
-				int possibleY = m[1]; 
-				
-				double a = Math.pow(possibleX-mevcutX, 2);
-				double b = Math.pow(possibleY-mevcutY, 2);
-				
-				double oyuncuyaMesafesi = Math.sqrt(a + b);
-				
-				if (oyuncuyaMesafesi > Math.sqrt(2)) {
-					g.setColor(new Color(255, 215, 0, 150));
-				}
-				else {
-					g.setColor(new Color(144, 238, 144, 150));
-				}
-				
-				g.fillRect(possibleX * cellWidth, possibleY * cellHeight, cellWidth, cellHeight);				
-			}	
+			if (clip.intersects(cellX, cellY, cellWidth, cellHeight)) {
+				paintMove(g, board.isAbilityMove(i), cellX, cellY, cellWidth, cellHeight);
+			}
+		}	
+	}
+	
+	/**
+	 * Paints the highlight of one available move.
+	 * @param g The Graphics context.
+	 * @param ability true for special ability moves
+	 * @param cellX Left of the cell
+	 * @param cellY Top of the cell
+	 * @param cellWidth The cell width.
+	 * @param cellHeight The cell height.
+	 */
+	private static void paintMove(Graphics g, boolean ability, int cellX, int cellY, int cellWidth, int cellHeight) {
+		if (ability) {
+			g.setColor(new Color(255, 215, 0, 150));
+		}
+		else {
+			g.setColor(new Color(144, 238, 144, 150));
+		}
+		
+		g.fillRect(cellX, cellY, cellWidth, cellHeight);
+	}
+	
+	/**
+	 * Asks Swing to repaint only the visible cells changed in the last round.
+	 * Falls back to a full repaint if the changes are not known, too many, or the heatmap is shown.
+	 */
+	private void repaintChangedCells() {
+		BoardSnapshot board = engine.getSnapshot();
+		if (board == null || board.getChangedCount() < 0 || board.getChangedCount() > MAX_DIRTY_CELLS) {
+			repaint();
+			return;
+		}
+		
+		int cellWidth = getCellWidth(board);
+		int cellHeight = getCellHeight(board);
+		if (cellWidth <= 0 || cellHeight <= 0 || isHeatmap(cellWidth, cellHeight)) {
+			repaint();
+			return;
+		}
+		
+		Rectangle visible = getVisibleRect();
+		for (int i = 0; i < board.getChangedCount(); i++) {
+			int cellX = board.getChangedX(i) * cellWidth;
+			int cellY = board.getChangedY(i) * cellHeight;
+			if (visible.intersects(cellX, cellY, cellWidth, cellHeight)) {
+				repaint(cellX, cellY, cellWidth, cellHeight);
+			}
+		}
+	}
+	
+	/**
+	 * Checks if the cells are too small for icons.
+	 * @param cellWidth The cell width.
+	 * @param cellHeight The cell height.
+	 * @return true if the heatmap is drawn.
+	 */
+	private static boolean isHeatmap(int cellWidth, int cellHeight) {
+		return Math.min(cellWidth, cellHeight) < ICON_MIN_CELL;
+	}
+	
+	
+	/**
+	 * Zooms in or out by given number of levels.
+	 * The cell under the anchor point stays under it.
+	 * @param steps Positive zooms in, negative zooms out
+	 * @param anchor Point of the panel to keep in place
+	 */
+	public void zoom(int steps, Point anchor) {
+		BoardSnapshot board = (engine != null) ? engine.getSnapshot() : null;
+		if (board == null || steps == 0) {
+			return;
+		}
+		
+		int oldWidth = Math.max(1, getCellWidth(board));
+		int oldHeight = Math.max(1, getCellHeight(board));
+		int current = Math.min(oldWidth, oldHeight);
+		
+		int level = 0;
+		while (level < ZOOM_LEVELS.length - 1 && ZOOM_LEVELS[level] < current) {
+			level++;
+		}
+		if (steps < 0 && ZOOM_LEVELS[level] > current) {
+			steps++;
+		}
+		level = Math.max(0, Math.min(ZOOM_LEVELS.length - 1, level + steps));
+		
+		fitToView = false;
+		cellSize = ZOOM_LEVELS[level];
+		
+		// anchor'ın gösterdiği hücre yeni boyda nereye düşüyor
+		Rectangle visible = getVisibleRect();
+		double cellX = anchor.getX() / oldWidth;
+		double cellY = anchor.getY() / oldHeight;
+		int viewX = (int) Math.round(cellX * cellSize - (anchor.getX() - visible.x));
+		int viewY = (int) Math.round(cellY * cellSize - (anchor.getY() - visible.y));
+		
+		Dimension size = getPreferredSize();
+		setSize(size);
+		revalidate();
+		
+		if (getParent() instanceof JViewport) {
+			JViewport viewport = (JViewport) getParent();
+			Dimension extent = viewport.getExtentSize();
+			viewX = Math.max(0, Math.min(viewX, size.width - extent.width));
+			viewY = Math.max(0, Math.min(viewY, size.height - extent.height));
+			viewport.setViewPosition(new Point(viewX, viewY));
+		}
+		repaint();
+	}
+	
+	/**
+	 * Zooms around the middle of the visible part.
+	 * @param steps Positive zooms in, negative zooms out
+	 */
+	public void zoom(int steps) {
+		Rectangle visible = getVisibleRect();
+		zoom(steps, new Point(visible.x + visible.width / 2, visible.y + visible.height / 2));
+	}
+	
+	/**
+	 * Goes back to the default view, the whole board fits in the panel.
+	 */
+	public void fitToView() {
+		fitToView = true;
+		revalidate();
+		repaint();
+	}
+	
+	/**
+	 * Gives the width of a cell in pixels.
+	 * @param board Snapshot that gives the board size
+	 * @return The cell width.
+	 */
+	private int getCellWidth(BoardSnapshot board) {
+		return fitToView ? getWidth() / board.getCols() : cellSize;
+	}
+	
+	/**
+	 * Gives the height of a cell in pixels.
+	 * @param board Snapshot that gives the board size
+	 * @return The cell height.
+	 */
+	private int getCellHeight(BoardSnapshot board) {
+		return fitToView ? getHeight() / board.getRows() : cellSize;
+	}
+	
+	
+	/**
+	 * Gives the size of the whole board in the current zoom.
+	 * @return Preferred size of the panel.
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		BoardSnapshot board = (engine != null) ? engine.getSnapshot() : null;
+		if (fitToView || board == null) {
+			return super.getPreferredSize();
 		}
+		return new Dimension(board.getCols() * cellSize + 1, board.getRows() * cellSize + 1);
+	}
+	
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+		return getPreferredSize();
+	}
+	
+	@Override
+	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+		return fitToView ? 16 : Math.max(cellSize, 16);
+	}
+	
+	@Override
+	public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+		return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+	}
+	
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return fitToView;
+	}
+	
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return fitToView;
 	}
 	
 	
@@ -233,43 +492,47 @@ public class GamePanel extends JPanel {
 	 * Repaints game screen after load.
 	 */
 	public void refreshAfterLoad() {
+		preloadIcons();
 		this.repaint();
 		this.requestFocusInWindow();
 	}
 	
 	
 	/**
-	 * Returns the icon of the entity with given name.
-	 * @param nameOfEntity Name of entity to give its icon.
-	 * @return Returns the icon of entity.
+	 * Loads the icons of the current era on a background thread.
+	 * The board is repainted when the icons are ready.
+	 * Called when a game is started or loaded.
 	 */
-	private Image getEntityImage(String nameOfEntity) {
-		String filename = nameOfEntity.toLowerCase() + ".png";
-		
-		if (ikonlar.containsKey(filename)) {
-			return ikonlar.get(filename);
+	public void preloadIcons() {
+		BoardSnapshot board = (engine != null) ? engine.getSnapshot() : null;
+		if (board == null) {
+			return;
 		}
 		
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < board.getEntityCount(); i++) {
+			names.add(board.getEntityName(i));
+		}
+		GameMode mode = board.getMode();
 		
-		try {
-			File path = new File("ikonlar/" + filename);
-			if (path.exists()) {
-				Image img = ImageIO.read(path);
-				ikonlar.put(filename, img);
-				return img;
-			}
-			else {
-				System.out.print(filename +" PATH'İNİ BULAMADI BİR ŞEYLER YANLIL!!!!!!");
+		new SwingWorker<Integer, Void>() {
+			@Override
+			protected Integer doInBackground() {
+				try {
+					names.addAll(FileManager.loadEraNames(mode));
+				}
+				catch (GameLoadException e) {
+					System.out.println("Era ikonları okunamadı: " + e.getMessage());
+				}
+				return ikonlar.preload(names);
 			}
 			
-		}
-		catch (IOException e) {
-			System.out.println("İKONU YÜKLEYEMEDİ BİR ŞEYLER YANLIŞ");
-		}
-		
-		return null;   
-		
-		
+			@Override
+			protected void done() {
+				// yeni ikonlar geldi, tahtayı baştan çiz
+				repaint();
+			}
+		}.execute();
 	}
 	
 	
@@ -281,6 +544,8 @@ public class GamePanel extends JPanel {
 	 */
 	public void setEngine(GameEngine engine) {
 		this.engine = engine;
+		preloadIcons();
+		revalidate();
 		repaint();	
 	}
 	
@@ -0,0 +1,165 @@
+package gui;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Icons of the entities, drawn from one sheet of pre-scaled sprites.
+ * PNG files are read by preload() on a background thread.
+ * The sheet is built on the Swing thread for the current cell size and only rebuilt when that size changes
+ * or new icons were loaded, so drawing a cell is a plain copy without scaling.
+ */
+public class IconAtlas {
+	private static final String ICON_FOLDER = "ikonlar/";
+	
+	// küçük harfli isim -> orijinal resim, arka plandaki thread de yazıyor
+	private final Map<String, BufferedImage> sources = new ConcurrentHashMap<>();
+	private volatile int sourceVersion = 0;
+	
+	// sadece Swing thread'i kullanıyor
+	private BufferedImage sheet;
+	private Map<String, Integer> slots = new HashMap<>();
+	private int spriteWidth = -1;
+	private int spriteHeight = -1;
+	private int columns = 1;
+	private int sheetVersion = -1;
+	
+	
+	/**
+	 * Reads the icons of given entity names that are not loaded yet.
+	 * Reads files, so it should not be called on the Swing thread.
+	 * @param names Names of the entities
+	 * @return Number of newly loaded icons.
+	 */
+	public int preload(Collection<String> names) {
+		int loaded = 0;
+		for (String name : names) {
+			String key = name.toLowerCase();
+			if (sources.containsKey(key)) {
+				continue;
+			}
+			
+			File path = new File(ICON_FOLDER + key + ".png");
+			try {
+				if (path.exists()) {
+					BufferedImage img = ImageIO.read(path);
+					if (img != null) {
+						sources.put(key, img);
+						loaded++;
+					}
+				}
+				else {
+					System.out.print(key + ".png PATH'İNİ BULAMADI BİR ŞEYLER YANLIL!!!!!!");
+				}
+			}
+			catch (IOException e) {
+				System.out.println("İKONU YÜKLEYEMEDİ BİR ŞEYLER YANLIŞ");
+			}
+		}
+		
+		if (loaded > 0) {
+			sourceVersion++;
+		}
+		return loaded;
+	}
+	
+	/**
+	 * Makes sure the sheet has sprites of given size.
+	 * Rebuilds the sheet only if the size changed or new icons were loaded.
+	 * @param width Width of a sprite
+	 * @param height Height of a sprite
+	 */
+	public void ensureSize(int width, int height) {
+		if (width == spriteWidth && height == spriteHeight && sheetVersion == sourceVersion) {
+			return;
+		}
+		
+		spriteWidth = width;
+		spriteHeight = height;
+		sheetVersion = sourceVersion;
+		slots = new HashMap<>();
+		sheet = null;
+		
+		if (width <= 0 || height <= 0 || sources.isEmpty()) {
+			return;
+		}
+		
+		// isimleri sabit bir sıraya koy, sonra kare şeklinde diz
+		Map<String, BufferedImage> images = new TreeMap<>(sources);
+		columns = (int) Math.ceil(Math.sqrt(images.size()));
+		int sheetRows = (images.size() + columns - 1) / columns;
+		sheet = createImage(width * columns, height * sheetRows);
+		
+		Graphics2D g = sheet.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		
+		int slot = 0;
+		for (Map.Entry<String, BufferedImage> entry : images.entrySet()) {
+			g.drawImage(entry.getValue(), (slot % columns) * width, (slot / columns) * height, width, height, null);
+			slots.put(entry.getKey(), slot);
+			slot++;
+		}
+		g.dispose();
+	}
+	
+	/**
+	 * Draws the sprite of an entity.
+	 * ensureSize() must be called before with the size to draw.
+	 * @param g Graphics to draw on
+	 * @param name Name of the entity
+	 * @param x Left of the sprite
+	 * @param y Top of the sprite
+	 * @return false if the icon is not loaded yet.
+	 */
+	public boolean draw(Graphics g, String name, int x, int y) {
+		Integer slot = slots.get(name.toLowerCase());
+		if (slot == null || sheet == null) {
+			return false;
+		}
+		
+		int sx = (slot % columns) * spriteWidth;
+		int sy = (slot / columns) * spriteHeight;
+		g.drawImage(sheet, x, y, x + spriteWidth, y + spriteHeight, sx, sy, sx + spriteWidth, sy + spriteHeight, null);
+		return true;
+	}
+	
+	/**
+	 * Checks if the icon of an entity is loaded.
+	 * @param name Name of the entity
+	 * @return true if loaded.
+	 */
+	public boolean isLoaded(String name) {
+		return sources.containsKey(name.toLowerCase());
+	}
+	
+	/**
+	 * Creates an image in the format of the screen, so copying it is fast.
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @return The image.
+	 */
+	private static BufferedImage createImage(int width, int height) {
+		if (!GraphicsEnvironment.isHeadless()) {
+			GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+					.getDefaultScreenDevice().getDefaultConfiguration();
+			return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+		}
+		return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+	}
+	
+}
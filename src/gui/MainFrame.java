@@ -3,15 +3,21 @@ package gui;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.SwingConstants;
 import javax.swing.border.EmptyBorder;
 
+import logic.AnimalInfo;
+import logic.BoardSnapshot;
 import logic.GameEngine;
-import model.Animal;
-import model.ApexPredator;
-import model.Predator;
-import model.Prey;
+import logic.GameMetrics;
+import logic.PopulationConfig;
+import model.GridStorage;
+import util.EventLog;
 import util.FileManager;
+import util.GameLogger;
+import util.GameRandom;
+import util.ReplayRecorder;
 
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
@@ -20,11 +26,18 @@ import java.awt.GridLayout;
 import java.awt.Color;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.management.JMException;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.FlowLayout;
 import java.awt.Font;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Main class for GUI operations.
@@ -32,6 +45,10 @@ import java.awt.Font;
  */
 public class MainFrame extends JFrame {
 	private static final long serialVersionUID = 1L;
+	// bundan büyük tahtalarda her rolden birden fazla hayvan var
+	private static final int SMALL_GRID = 20;
+	private static final String REPLAY_FILE = "replay.fctr";
+	private static final String EVENTS_DIR = "events";
 	
 	private CardLayout cardLayout;
 	private JPanel mainPanel;
@@ -40,7 +57,14 @@ public class MainFrame extends JFrame {
 	private StartScreen startScreen;
 	private GameEngine engine;
 	private GamePanel gamePanel;
+	// bütün oyunların raunt süreleri, JMX'ten izlenebiliyor
+	private final GameMetrics metrics = new GameMetrics();
+	private EventLog eventLog; // açılamazsa null
+	private EventLog.GameLog gameEvents;
 	
+	private JCheckBox autosave;
+	private JCheckBox record;
+	private ReplayRecorder recorder;
 	private JLabel labelRoundInfo;
 	private JLabel labelApexInfo;
 	private JLabel labelPredatorInfo;
@@ -58,6 +82,14 @@ public class MainFrame extends JFrame {
 		setBounds(100, 100, 400, 370);	
 		setLocationRelativeTo(null);
 		
+		// pencere X ile kapanınca da kayıtlar yazılsın
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				exitGame();
+			}
+		});
+		
 		cardLayout = new CardLayout();
 		mainPanel = new JPanel(cardLayout);
 		
@@ -70,6 +102,20 @@ public class MainFrame extends JFrame {
 		setContentPane(mainPanel);
 		cardLayout.show(mainPanel, "START");
 		
+		try {
+			metrics.registerMBean("gui");
+		}
+		catch (JMException e) {
+			GameLogger.print("Metrics could not be registered to JMX: " + e.getMessage());
+		}
+		
+		// log.txt'nin yanında sorgulanabilir olay kaydı
+		try {
+			eventLog = new EventLog(new File(EVENTS_DIR));
+		}
+		catch (IOException e) {
+			GameLogger.print("Event log could not be opened: " + e.getMessage());
+		}
 	}
 	
 	
@@ -87,7 +133,23 @@ public class MainFrame extends JFrame {
 		
 		JButton btnSave = new JButton("Save Game");
 		JButton btnLoad = new JButton("Load Game");	
+		JButton btnExport = new JButton("Export Text");
 		JButton btnExit = new JButton("Exit");
+		JButton btnZoomIn = new JButton("Zoom +");
+		JButton btnZoomOut = new JButton("Zoom -");
+		JButton btnFit = new JButton("Fit");
+		autosave = new JCheckBox("Autosave");
+		autosave.setToolTipText("Saves the game after every round");
+		record = new JCheckBox("Record");
+		record.setToolTipText("Records the game from this round to " + REPLAY_FILE);
+		record.addActionListener(e -> {
+			if (record.isSelected()) {
+				startRecording();
+			}
+			else {
+				stopRecording();
+			}
+		});
 		
 		btnSave.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
@@ -107,6 +169,24 @@ public class MainFrame extends JFrame {
 		
 		
 		
+		btnExport.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				if (engine == null) {  
+					JOptionPane.showMessageDialog(MainFrame.this, "Game has not started yet.", "Export Error", JOptionPane.WARNING_MESSAGE);
+					return;
+				}
+				try {
+					FileManager.exportText(engine);
+					JOptionPane.showMessageDialog(MainFrame.this, "Game exported to saved_game.txt.", "Export Text", JOptionPane.INFORMATION_MESSAGE);
+				} 
+				catch (Exception ex) {
+					JOptionPane.showMessageDialog(MainFrame.this, "Error exporting game: " + ex.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		});
+		
+		
+		
 		btnLoad.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				
@@ -115,8 +195,10 @@ public class MainFrame extends JFrame {
 					return;	
 				}
 				try {
+					// yüklenen oyun kayıttaki oyunun devamı değil
+					stopRecording();
 					FileManager.loadGame(engine); 
-					gamePanel.repaint();
+					gamePanel.refreshAfterLoad();
 					updateLabels();
 					gamePanel.requestFocusInWindow();
 					JOptionPane.showMessageDialog(MainFrame.this, "Game loaded successfully.", "Load Game", JOptionPane.INFORMATION_MESSAGE);
@@ -130,13 +212,24 @@ public class MainFrame extends JFrame {
 		
 		btnExit.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				System.exit(0);
+				exitGame();
 			}
 		});
 		
 		topButtonPanel.add(btnSave);
 		topButtonPanel.add(btnLoad);
+		topButtonPanel.add(btnExport);
 		topButtonPanel.add(btnExit);
+		topButtonPanel.add(autosave);
+		topButtonPanel.add(record);
+		
+		// zoom butonları, Ctrl + fare tekerleği de aynı işi yapıyor
+		btnZoomIn.addActionListener(e -> gamePanel.zoom(1));
+		btnZoomOut.addActionListener(e -> gamePanel.zoom(-1));
+		btnFit.addActionListener(e -> gamePanel.fitToView());
+		topButtonPanel.add(btnZoomIn);
+		topButtonPanel.add(btnZoomOut);
+		topButtonPanel.add(btnFit);
 		
 		gameContainerPanel.add(topButtonPanel, BorderLayout.NORTH);
 		
@@ -152,7 +245,9 @@ public class MainFrame extends JFrame {
 		titleLabel.setFont(new Font("Times New Roman", Font.BOLD, 15));
 		
 		wrapperPanel.add(titleLabel, BorderLayout.NORTH);
-		wrapperPanel.add(gamePanel, BorderLayout.CENTER);
+		JScrollPane scrollPane = new JScrollPane(gamePanel);
+		scrollPane.setBorder(null);
+		wrapperPanel.add(scrollPane, BorderLayout.CENTER);
 		wrapperPanel.setBorder(new EmptyBorder(20, 30, 30, 30));
 		
 		
@@ -202,8 +297,20 @@ public class MainFrame extends JFrame {
 	 */
 	public void startGamePlayScreen(String era, int gridSize, int rounds) {
 		System.out.println("MainFrame: Oyun başlatılıyor. Başlatma seçenekleri: " + era + " - " + gridSize + "x" + gridSize);
+		stopRecording();
 		
-		this.engine = new GameEngine(era, gridSize, rounds);
+		PopulationConfig population = gridSize > SMALL_GRID ? populationFor(gridSize) : PopulationConfig.SINGLE;
+		this.engine = new GameEngine(era, gridSize, rounds, GridStorage.DENSE, GameRandom.newSeed(), population, false);
+		if (gridSize > SMALL_GRID) {
+			// kalabalık tahtada botlar paralel karar veriyor
+			this.engine.setDecisionPool(ForkJoinPool.commonPool());
+		}
+		this.engine.setMetricsSink(metrics);
+		if (gameEvents != null) {
+			gameEvents.close();
+		}
+		gameEvents = eventLog == null ? null : eventLog.attach(this.engine);
+		this.engine.startGame();
 		gamePanel.setEngine(this.engine);
 		
 		updateLabels();
@@ -214,14 +321,119 @@ public class MainFrame extends JFrame {
 	
 	
 	
+	/**
+	 * Starts recording the current game to the replay file.
+	 */
+	private void startRecording() {
+		if (engine == null) {
+			record.setSelected(false);
+			JOptionPane.showMessageDialog(MainFrame.this, "Game has not started yet.", "Record Error", JOptionPane.WARNING_MESSAGE);
+			return;
+		}
+		try {
+			recorder = ReplayRecorder.start(engine, new File(REPLAY_FILE));
+		}
+		catch (IOException ex) {
+			record.setSelected(false);
+			JOptionPane.showMessageDialog(MainFrame.this, "Error starting the recording: " + ex.getMessage(), "Record Error", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+	
+	/**
+	 * Closes the replay file if a recording is going on.
+	 */
+	private void stopRecording() {
+		record.setSelected(false);
+		if (recorder == null) {
+			return;
+		}
+		try {
+			recorder.close();
+		}
+		catch (IOException ex) {
+			JOptionPane.showMessageDialog(MainFrame.this, "The recording is cut short: " + ex.getMessage(), "Record Error", JOptionPane.ERROR_MESSAGE);
+		}
+		recorder = null;
+	}
+	
+	
+	/**
+	 * Closes the recording, the event log and the game log, then exits.
+	 * Used by the Exit button and by closing the window.
+	 */
+	private void exitGame() {
+		stopRecording();
+		closeEventLog();
+		GameLogger.close();
+		System.exit(0);
+	}
+	
+	
+	/**
+	 * Writes the last events and closes the event log.
+	 */
+	private void closeEventLog() {
+		if (eventLog == null) {
+			return;
+		}
+		try {
+			eventLog.close();
+		}
+		catch (IOException ex) {
+			GameLogger.log("Event log could not be closed: " + ex.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Gives the population of a big board, so it does not look empty.
+	 * @param gridSize The size of the grid.
+	 * @return Number of animals and food of every role.
+	 */
+	private static PopulationConfig populationFor(int gridSize) {
+		int cells = gridSize * gridSize;
+		return new PopulationConfig(Math.max(1, cells / 4000), Math.max(1, cells / 2000), Math.max(1, cells / 400), 0.01);
+	}
+	
+	
+	/**
+	 * Called by the game panel after every played round.
+	 * Updates the informations and saves the game if autosave is on.
+	 * Saves are atomic, so saving every round never breaks the last save.
+	 */
+	public void roundPlayed() {
+		updateLabels();
+		if (recorder != null) {
+			recorder.flush();
+		}
+		if (gameEvents != null) {
+			gameEvents.flush();
+		}
+		
+		if (autosave.isSelected() && engine != null) {
+			try {
+				FileManager.saveGame(engine);
+			}
+			catch (Exception ex) {
+				// her raunt aynı hatayı göstermesin
+				autosave.setSelected(false);
+				JOptionPane.showMessageDialog(MainFrame.this, "Autosave is turned off, error saving game: " + ex.getMessage(), "Save Error", JOptionPane.ERROR_MESSAGE);
+			}
+		}
+	}
+	
 	/**
 	 * As the raunds go on, updates the game informations.
+	 * Reads the last snapshot published by the engine.
 	 */
 	public void updateLabels() {
 		if (engine == null) return;
 		
-		int current = engine.getCurrentRaund();
-		int total = engine.getTotalRaunds();
+		BoardSnapshot board = engine.getSnapshot();
+		if (board == null) return;
+		
+		int current = board.getCurrentRound();
+		int total = board.getTotalRounds();
 		
 		// oyun bitti current +1 oluyor, onu düzelt.
 		if (current > total) {
@@ -230,16 +442,16 @@ public class MainFrame extends JFrame {
 		
 		labelRoundInfo.setText("<html>ABOUT GAME:" + "<br>"
 								+ "<br>"
-								+ "	Era: " + engine.getCurrentMode() + "<br>"
+								+ "	Era: " + board.getMode() + "<br>"
 								+ "<br>"
 								+ "Round: " + current + " / " + total + "<br>"
 								+ "<br>"
-								+ "Grid Size: " + engine.getGrid().getCols() + "x" + engine.getGrid().getCols()
+								+ "Grid Size: " + board.getCols() + "x" + board.getCols()
 								+ "<br>");
 		
-		Animal apex = engine.getAnimalByType(ApexPredator.class);
-		Animal predator = engine.getAnimalByType(Predator.class);
-		Animal prey = engine.getAnimalByType(Prey.class);	
+		AnimalInfo apex = board.getApex();
+		AnimalInfo predator = board.getPredator();
+		AnimalInfo prey = board.getPrey();	
 		
 		if (apex != null) {
 			labelApexInfo.setText("<html><br>" 
@@ -50,7 +50,7 @@ public class StartScreen extends JPanel {
 		add(lblNewLabel_2);
 		
 		JComboBox comboBoxGridSize = new JComboBox();
-		comboBoxGridSize.setModel(new DefaultComboBoxModel(new String[] {"", "10x10", "15x15", "20x20"}));
+		comboBoxGridSize.setModel(new DefaultComboBoxModel(new String[] {"", "10x10", "15x15", "20x20", "100x100", "400x400"}));
 		comboBoxEra.setSelectedIndex(0);
 		comboBoxGridSize.setBounds(139, 125, 110, 21);
 		add(comboBoxGridSize);
@@ -0,0 +1,37 @@
+package logic;
+
+import model.Animal;
+
+/**
+ * Name, score and cooldown of an animal at the time a BoardSnapshot was taken.
+ */
+public final class AnimalInfo {
+	private final String name;
+	private final int score;
+	private final int abilityCooldown;
+	
+	/**
+	 * Constructor for AnimalInfo class.
+	 * @param animal Animal to copy the values from
+	 */
+	AnimalInfo(Animal animal) {
+		this.name = animal.getName();
+		this.score = animal.getScore();
+		this.abilityCooldown = animal.getAbilityCooldown();
+	}
+	
+	
+	// getter-setters
+	public String getName() {
+		return name;
+	}
+	
+	public int getScore() {
+		return score;
+	}
+	
+	public int getAbilityCooldown() {
+		return abilityCooldown;
+	}
+	
+}
@@ -0,0 +1,287 @@
+package logic;
+
+import java.util.Arrays;
+
+import model.Animal;
+import model.Entity;
+import model.ApexPredator;
+import model.Grid;
+import model.MoveBuffer;
+import model.Predator;
+import model.Prey;
+
+/**
+ * Immutable copy of everything the GUI shows about a game.
+ * The engine creates a new snapshot when a round ends and publishes it through a volatile field,
+ * so the screen can be drawn from a complete board while the engine keeps changing the real one.
+ * Only entities are copied, so the cost depends on the number of entities, not the grid size.
+ */
+public final class BoardSnapshot {
+	// entity türleri, ısı haritası her tür için ayrı çiziliyor
+	public static final int KIND_FOOD = 0;
+	public static final int KIND_PREY = 1;
+	public static final int KIND_PREDATOR = 2;
+	public static final int KIND_APEX = 3;
+	public static final int KIND_COUNT = 4;
+	
+	private final long version;
+	private final GameMode mode;
+	private final int currentRound;
+	private final int totalRounds;
+	private final boolean gameOver;
+	private final String gameResult;
+	private final int rows;
+	private final int cols;
+	
+	// her entity için hücre indeksi (y * cols + x) ve ismi, hücreye göre sıralı
+	private final int[] entityCells;
+	private final String[] entityNames;
+	private final byte[] entityKinds;
+	
+	// oyuncunun gidebileceği hücreler, özel yetenek hamleleri ayrı işaretli
+	private final int[] moveCells;
+	private final boolean[] abilityMoves;
+	
+	// önceki snapshot'a göre değişen hücreler, null ise hepsi
+	private final int[] changedCells;
+	
+	private final AnimalInfo apex;
+	private final AnimalInfo predator;
+	private final AnimalInfo prey;
+	
+	/**
+	 * Takes a snapshot of the engine.
+	 * Must be called on the thread that runs the engine.
+	 * @param engine The game engine
+	 * @param version Number of the snapshot, grows with every publish
+	 * @param previous Previous snapshot, null for the first one
+	 */
+	BoardSnapshot(GameEngine engine, long version, BoardSnapshot previous) {
+		Grid grid = engine.getGrid();
+		
+		this.version = version;
+		this.mode = engine.getCurrentMode();
+		this.currentRound = engine.getCurrentRaund();
+		this.totalRounds = engine.getTotalRaunds();
+		this.gameOver = engine.isGameOver();
+		this.gameResult = gameOver ? engine.getGameResult() : null;
+		this.rows = grid.getRows();
+		this.cols = grid.getCols();
+		
+		int count = grid.getEntityCount();
+		int[] cells = new int[count];
+		String[] names = new String[count];
+		byte[] kinds = new byte[count];
+		int[] n = new int[1];
+		grid.forEachEntity(e -> {
+			cells[n[0]] = e.getY() * cols + e.getX();
+			names[n[0]] = e.getName();
+			kinds[n[0]] = kindOf(e);
+			n[0]++;
+		});
+		// hücreye göre sırala, nameAt() ikili arama yapabilsin
+		long[] order = new long[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = ((long) cells[i] << 32) | i;
+		}
+		Arrays.sort(order);
+		
+		this.entityCells = new int[count];
+		this.entityNames = new String[count];
+		this.entityKinds = new byte[count];
+		for (int i = 0; i < count; i++) {
+			entityCells[i] = (int) (order[i] >>> 32);
+			entityNames[i] = names[(int) order[i]];
+			entityKinds[i] = kinds[(int) order[i]];
+		}
+		
+		// oyuncunun hamle kümesi grid versiyonuna göre saklanıyor, burada tekrar hesaplanmıyor
+		Predator player = engine.getPredatorPlayer();
+		if (player != null && !gameOver) {
+			MoveBuffer moves = player.getLegalMoves(grid);
+			this.moveCells = new int[moves.size()];
+			this.abilityMoves = new boolean[moves.size()];
+			for (int i = 0; i < moves.size(); i++) {
+				moveCells[i] = moves.getY(i) * cols + moves.getX(i);
+				abilityMoves[i] = player.isAbilityMove(grid, moves.getX(i), moves.getY(i));
+			}
+		}
+		else {
+			this.moveCells = new int[0];
+			this.abilityMoves = new boolean[0];
+		}
+		
+		this.changedCells = changedSince(previous, grid.drainChangedCells());
+		
+		this.apex = info(engine.getAnimalByType(ApexPredator.class));
+		this.predator = info(player);
+		this.prey = info(engine.getAnimalByType(Prey.class));
+	}
+	
+	/**
+	 * Finds the cells that look different than in the previous snapshot.
+	 * These are the changed grid cells and the old and new move highlights of the player.
+	 * @param previous Previous snapshot
+	 * @param gridChanges Cells changed on the grid, null if unknown
+	 * @return Changed cells, or null if the whole board must be drawn again.
+	 */
+	private int[] changedSince(BoardSnapshot previous, int[] gridChanges) {
+		if (previous == null || gridChanges == null || previous.rows != rows || previous.cols != cols) {
+			return null;
+		}
+		
+		int[] cells = Arrays.copyOf(gridChanges, gridChanges.length + previous.moveCells.length + moveCells.length);
+		System.arraycopy(previous.moveCells, 0, cells, gridChanges.length, previous.moveCells.length);
+		System.arraycopy(moveCells, 0, cells, gridChanges.length + previous.moveCells.length, moveCells.length);
+		return cells;
+	}
+	
+	/**
+	 * Finds the kind of an entity.
+	 * @param e The entity
+	 * @return One of the KIND constants.
+	 */
+	private static byte kindOf(Entity e) {
+		if (e instanceof ApexPredator) {
+			return KIND_APEX;
+		}
+		if (e instanceof Predator) {
+			return KIND_PREDATOR;
+		}
+		if (e instanceof Prey) {
+			return KIND_PREY;
+		}
+		return KIND_FOOD;
+	}
+	
+	/**
+	 * Copies the shown values of an animal.
+	 * @param animal The animal, can be null
+	 * @return Info of the animal or null.
+	 */
+	private static AnimalInfo info(Animal animal) {
+		return animal == null ? null : new AnimalInfo(animal);
+	}
+	
+	
+	// getter-setters
+	public long getVersion() {
+		return version;
+	}
+	
+	public GameMode getMode() {
+		return mode;
+	}
+	
+	public int getCurrentRound() {
+		return currentRound;
+	}
+	
+	public int getTotalRounds() {
+		return totalRounds;
+	}
+	
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	
+	public String getGameResult() {
+		return gameResult;
+	}
+	
+	public int getRows() {
+		return rows;
+	}
+	
+	public int getCols() {
+		return cols;
+	}
+	
+	public int getEntityCount() {
+		return entityCells.length;
+	}
+	
+	public int getEntityX(int i) {
+		return entityCells[i] % cols;
+	}
+	
+	public int getEntityY(int i) {
+		return entityCells[i] / cols;
+	}
+	
+	public String getEntityName(int i) {
+		return entityNames[i];
+	}
+	
+	public int getEntityKind(int i) {
+		return entityKinds[i];
+	}
+	
+	/**
+	 * Finds the first entity at or after a cell, in row order.
+	 * Entities of a row part can be read from this index on without looking at the whole board.
+	 * @param x Coordinate-X of the cell
+	 * @param y Coordinate-Y of the cell
+	 * @return Index of the entity, getEntityCount() if there is none.
+	 */
+	public int findEntityFrom(int x, int y) {
+		int i = Arrays.binarySearch(entityCells, y * cols + x);
+		return i >= 0 ? i : -i - 1;
+	}
+	
+	/**
+	 * Gives the name of the entity in a cell.
+	 * @param x Coordinate-X of the cell
+	 * @param y Coordinate-Y of the cell
+	 * @return Name of the entity, null if the cell is empty.
+	 */
+	public String nameAt(int x, int y) {
+		int i = Arrays.binarySearch(entityCells, y * cols + x);
+		return i >= 0 ? entityNames[i] : null;
+	}
+	
+	public int getMoveCount() {
+		return moveCells.length;
+	}
+	
+	public int getMoveX(int i) {
+		return moveCells[i] % cols;
+	}
+	
+	public int getMoveY(int i) {
+		return moveCells[i] / cols;
+	}
+	
+	public boolean isAbilityMove(int i) {
+		return abilityMoves[i];
+	}
+	
+	/**
+	 * Gives the number of cells changed since the previous snapshot.
+	 * @return Number of changed cells, -1 if everything must be drawn again.
+	 */
+	public int getChangedCount() {
+		return changedCells == null ? -1 : changedCells.length;
+	}
+	
+	public int getChangedX(int i) {
+		return changedCells[i] % cols;
+	}
+	
+	public int getChangedY(int i) {
+		return changedCells[i] / cols;
+	}
+	
+	public AnimalInfo getApex() {
+		return apex;
+	}
+	
+	public AnimalInfo getPredator() {
+		return predator;
+	}
+	
+	public AnimalInfo getPrey() {
+		return prey;
+	}
+	
+}
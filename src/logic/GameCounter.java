@@ -0,0 +1,40 @@
+package logic;
+/**
+ * Events counted by the engine, separately for every era.
+ */
+public enum GameCounter {
+	/**
+	 * Rounds played.
+	 */
+	ROUNDS,
+	
+	/**
+	 * Animals or foods eaten.
+	 */
+	EATS,
+	
+	/**
+	 * Eaten animals or foods that could not respawn because the grid was full.
+	 */
+	RESPAWN_FAILURES,
+	
+	/**
+	 * Special ability moves of any animal.
+	 */
+	ABILITY_USES,
+	
+	/**
+	 * Turns skipped by the player or a bot predator.
+	 */
+	SKIPPED_TURNS,
+	
+	/**
+	 * Clicks that were not valid moves.
+	 */
+	INVALID_MOVES,
+	
+	/**
+	 * Planned moves dropped in two-phase mode because the board changed after planning.
+	 */
+	PLAN_CONFLICTS
+}
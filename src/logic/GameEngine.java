@@ -1,8 +1,8 @@
 package logic;
 
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import exception.GameLoadException;
 import model.Animal;
@@ -10,11 +10,19 @@ import model.ApexPredator;
 import model.Entity;
 import model.Food;
 import model.Grid;
+import model.GridStorage;
+import model.IPlannable;
 import model.IRespawnable;
 import model.Predator;
 import model.Prey;
+import util.EventLevel;
+import util.EventType;
 import util.FileManager;
+import util.GameEventBus;
 import util.GameLogger;
+import util.GameRandom;
+import util.LogSubscriber;
+import util.ReplayRecorder;
 
 /**
  * The Game Engine that connects model with logic.
@@ -22,11 +30,28 @@ import util.GameLogger;
  */
 
 public class GameEngine {
-	private SecureRandom random;
+	private GameRandom random;
 	private Grid grid;
 	private GameMode currentMode;
 	private List<Animal> animals;
+	private List<ApexPredator> apexes;
+	private List<Predator> predators;
+	private List<Prey> preys;
+	private PopulationConfig population;
+	private PredatorPolicy botPolicy = new GreedyPredatorPolicy();
+	private ForkJoinPool decisionPool; // null ise botlar sırayla oynar
+	private final List<IPlannable> planners = new ArrayList<>();
+	private MetricsSink metrics = MetricsSink.NONE;
+	private boolean metricsEnabled; // kapalıyken saat bile okunmuyor
+	private final GameEventBus events = new GameEventBus();
+	private ReplayRecorder recorder; // null ise kayıt yok
+	
+	// GUI sadece yayınlanan snapshot'ı okur, motorun kendisini değil
+	private volatile BoardSnapshot snapshot;
+	private boolean snapshotsEnabled = true;
+	private long snapshotVersion = 0;
 	private boolean isRunning;
+	private boolean started;
 	
 	private int currentRaund = 1;
 	private int totalRaunds = 10;
@@ -41,9 +66,88 @@ public class GameEngine {
 	 * @param rounds Number of rounds to be played
 	 */
 	public GameEngine(String eraName, int gridSize, int rounds) {
-		this.grid = new Grid(gridSize, gridSize);
+		this(eraName, gridSize, rounds, GridStorage.DENSE);
+	}
+	
+	/**
+	 * Constructs a new GameEngine with the specified game settings and grid storage.
+	 * SPARSE storage should be used for very large grids.
+	 * @param eraName Name of the are to be played.
+	 * @param gridSize Size of the grid (gridSize x gridSize)
+	 * @param rounds Number of rounds to be played
+	 * @param storage Storage backend of the grid
+	 */
+	public GameEngine(String eraName, int gridSize, int rounds, GridStorage storage) {
+		this(eraName, gridSize, rounds, storage, GameRandom.newSeed());
+	}
+	
+	/**
+	 * Constructs a new GameEngine with the specified game settings, grid storage and random seed.
+	 * Games with the same settings, seed and player moves are played exactly the same.
+	 * @param eraName Name of the are to be played.
+	 * @param gridSize Size of the grid (gridSize x gridSize)
+	 * @param rounds Number of rounds to be played
+	 * @param storage Storage backend of the grid
+	 * @param seed Seed of the random generator
+	 */
+	public GameEngine(String eraName, int gridSize, int rounds, GridStorage storage, long seed) {
+		this(eraName, gridSize, rounds, storage, seed, PopulationConfig.SINGLE);
+	}
+	
+	/**
+	 * Constructs a new GameEngine with many animals of each role.
+	 * The first predator is played by the player, the other predators are moved by the bot policy.
+	 * @param eraName Name of the are to be played.
+	 * @param gridSize Size of the grid (gridSize x gridSize)
+	 * @param rounds Number of rounds to be played
+	 * @param storage Storage backend of the grid
+	 * @param seed Seed of the random generator
+	 * @param population Number of animals and foods to place
+	 * @throws IllegalArgumentException if the population does not fit in the grid.
+	 */
+	public GameEngine(String eraName, int gridSize, int rounds, GridStorage storage, long seed, PopulationConfig population) {
+		this(eraName, gridSize, rounds, storage, seed, population, true);
+	}
+	
+	/**
+	 * Constructs a new GameEngine with many animals of each role, started now or later.
+	 * An engine that is not started has an empty grid. Metrics sink, event subscribers and
+	 * decision pool can be set first, then startGame() places the animals and plays the first prey move,
+	 * so they see the whole game from its first event.
+	 * @param eraName Name of the are to be played.
+	 * @param gridSize Size of the grid (gridSize x gridSize)
+	 * @param rounds Number of rounds to be played
+	 * @param storage Storage backend of the grid
+	 * @param seed Seed of the random generator
+	 * @param population Number of animals and foods to place
+	 * @param start false to call startGame() later
+	 * @throws IllegalArgumentException if the population does not fit in the grid.
+	 */
+	public GameEngine(String eraName, int gridSize, int rounds, GridStorage storage, long seed, PopulationConfig population, boolean start) {
+		long cells = (long) gridSize * gridSize;
+		if (population.getAnimalCount() + population.getFoodCount(cells) > cells) {
+			throw new IllegalArgumentException("Population (" + population + ") does not fit in a " + gridSize + "x" + gridSize + " grid.");
+		}
+		
+		this.population = population;
+		this.random = new GameRandom(seed);
+		this.grid = new Grid(gridSize, gridSize, storage);
+		this.grid.setRandom(random);
+		this.grid.setChangeTracking(true);
+		this.grid.setEvents(events);
 		this.totalRaunds = rounds;
 		this.currentRaund = 1;
+		this.events.setRound(currentRaund);
+		
+		// konsol sadece önemli olayları, dosya yerleştirme hariç her hamleyi yazıyor
+		if (GameLogger.isConsoleEnabled()) {
+			events.subscribe(LogSubscriber.console(), EventLevel.INFO);
+		}
+		if (GameLogger.isFileEnabled()) {
+			events.subscribe(LogSubscriber.file(), EventLevel.DEBUG,
+					EventType.MOVE, EventType.EAT, EventType.RESPAWN, EventType.ABILITY, EventType.ROUND_END,
+					EventType.SKIP, EventType.CONFLICT);
+		}
 		
 		if (eraName.equalsIgnoreCase("Past")) {
 			this.currentMode = GameMode.PAST;
@@ -57,27 +161,50 @@ public class GameEngine {
 		
 		this.isRunning = true;
 		this.animals = new ArrayList<>();
-		this.random = new SecureRandom();
+		this.apexes = new ArrayList<>();
+		this.predators = new ArrayList<>();
+		this.preys = new ArrayList<>();
 		
-		startGame();
+		if (start) {
+			startGame();
+		}
 		
 	}
 	
+	/**
+	 * Constructs an empty engine to load a game into, for example to play a replay.
+	 * Nothing is placed, logged or subscribed to the events, SaveData.applyTo() fills the engine.
+	 * @param storage Storage backend of the grid
+	 * @param seed Seed of the random generator
+	 */
+	public GameEngine(GridStorage storage, long seed) {
+		this.population = PopulationConfig.SINGLE;
+		this.random = new GameRandom(seed);
+		this.grid = new Grid(1, 1, storage);
+		this.grid.setRandom(random);
+		this.grid.setChangeTracking(true);
+		this.grid.setEvents(events);
+		this.events.setRound(currentRaund);
+		this.currentMode = GameMode.PRESENT;
+		
+		this.isRunning = true;
+		this.animals = new ArrayList<>();
+		this.apexes = new ArrayList<>();
+		this.predators = new ArrayList<>();
+		this.preys = new ArrayList<>();
+	}
+	
 	/**
 	 * Places entity at a random empty slot.
 	 * @param entity The entity object to be placed randomly.
+	 * @throws IllegalStateException if the grid is full.
 	 */
 	private void placeEntityRandomly(Entity entity) {
-		int x = random.nextInt(grid.getCols());
-		int y = random.nextInt(grid.getRows());
-		
-		while (!grid.isEmpty(x, y)) {
-			x = random.nextInt(grid.getCols());
-			y = random.nextInt(grid.getRows());
+		if (!grid.putEntityRandomly(entity)) {
+			throw new IllegalStateException("Grid is full, cannot place " + entity.getName());
 		}
 		
-		grid.putEntity(entity, x, y);
-		System.out.println("Placed " + entity.getSymbol() + " at (" + x + ", " + y + ")");		
+		events.place(entity);
 	}
 	
 	/**
@@ -86,8 +213,27 @@ public class GameEngine {
 	 * @param animal Animal to be placed
 	 */
 	private void placeAnimal(Animal animal) {
+		// PLACE olayında oyuncu rolü doğru görünsün diye önce listeye ekleniyor
+		addAnimal(animal);
 		placeEntityRandomly(animal);
+	}
+	
+	/**
+	 * Adds animal to the animals list and to the list of its role.
+	 * @param animal Animal to add
+	 */
+	private void addAnimal(Animal animal) {
 		animals.add(animal);
+		
+		if (animal instanceof ApexPredator) {
+			apexes.add((ApexPredator) animal);
+		}
+		else if (animal instanceof Predator) {
+			predators.add((Predator) animal);
+		}
+		else if (animal instanceof Prey) {
+			preys.add((Prey) animal);
+		}
 	}
 	
 	
@@ -96,11 +242,18 @@ public class GameEngine {
 	/**
 	 * Creates entity objects to fill game grid.
 	 * Calls movePreyBot() method and initializes the game.
+	 * Called once, by the constructor or after it for an engine that is not started.
+	 * @throws IllegalStateException if the game is already started.
 	 */
 	public void startGame() { 
-		System.out.println("Initializing Game in mode: " + this.currentMode);
-		System.out.println("Grid Size: " + grid.getRows() + "x" + grid.getCols());
-		System.out.println("Total Rounds: " + totalRaunds);
+		if (started) {
+			throw new IllegalStateException("Game is already started.");
+		}
+		started = true;
+		
+		GameLogger.print("Initializing Game in mode: " + this.currentMode);
+		GameLogger.print("Grid Size: " + grid.getRows() + "x" + grid.getCols());
+		GameLogger.print("Total Rounds: " + totalRaunds);
 		
 		// Test için konsolda yazdırılacak entity'ler oluştur
 		// Burası daha sonra dosya okuma yaparak yapılcak (FileManager)
@@ -108,20 +261,29 @@ public class GameEngine {
 		String[] animalNames;
 		
 		try {
-			animalNames = FileManager.loadRandomFoodChain(this.currentMode);
+			animalNames = FileManager.loadRandomFoodChain(this.currentMode, this.random);
 			
 			String apexName = animalNames[0];
 			String predatorName = animalNames[1];
 			String preyName = animalNames[2]; 
 			String foodName = animalNames[3];	
 			
-			placeAnimal(new ApexPredator(0, 0, apexName, this.currentMode));
-			placeAnimal(new Predator(0, 0, predatorName, this.currentMode));
-			placeAnimal(new Prey(0, 0, preyName, this.currentMode));
+			for (int i = 0; i < population.getApexCount(); i++) {
+				placeAnimal(new ApexPredator(0, 0, apexName, this.currentMode));
+			}
+			for (int i = 0; i < population.getPredatorCount(); i++) {
+				placeAnimal(new Predator(0, 0, predatorName, this.currentMode));
+			}
+			for (int i = 0; i < population.getPreyCount(); i++) {
+				placeAnimal(new Prey(0, 0, preyName, this.currentMode));
+			}
 			
-			placeEntityRandomly(new Food(0, 0, foodName));
+			int foodCount = population.getFoodCount((long) grid.getRows() * grid.getCols());
+			for (int i = 0; i < foodCount; i++) {
+				placeEntityRandomly(new Food(0, 0, foodName));
+			}
 			
-			System.out.println("Game is being played with: " + apexName + ", " + predatorName + ", " + preyName + ", " + foodName);
+			GameLogger.print("Game is being played with: " + apexName + ", " + predatorName + ", " + preyName + ", " + foodName);
 			
 			GameLogger.log("");
 			GameLogger.log("");
@@ -129,6 +291,9 @@ public class GameEngine {
 			GameLogger.log("=== NEW GAME STARTED ===");
 			GameLogger.log("The Player is playing predator with name: " + predatorName);
 			GameLogger.log("Mode: " + this.currentMode + ", Grid: " + grid.getRows() + "x" + grid.getCols() + ", Total Rounds: " + totalRaunds);
+			if (population != PopulationConfig.SINGLE) {
+				GameLogger.log("Population: " + population);
+			}
 			GameLogger.log("Food Chain Loaded: " + apexName + " -> " + predatorName + " -> " + preyName + " -> " + foodName);
 			GameLogger.log("");
 			
@@ -144,7 +309,10 @@ public class GameEngine {
 		
 		
 		// preyi oynat ve oyunu başlat
+		long start = now();
 		movePreyBot();
+		recordPhase(RoundPhase.PREY_DECISION, start);
+		publishSnapshot();
 		
 	}
 	
@@ -155,26 +323,91 @@ public class GameEngine {
 	
 	/**
 	 * Method to move Preys.
+	 * In two-phase mode all prey plan first, then moves are applied in list order.
 	 */
 	private void movePreyBot() {
-		for (Animal a : animals) {
-			if (a instanceof Prey) {
-				//moveBotRandomly(a);
-				GameLogger.log("Raund " + this.currentRaund);
-				a.makeMove(grid);
+		if (decisionPool != null) {
+			planInParallel(preys, null);
+			commitPreyPlans();
+			return;
+		}
+		
+		logRoundStart();
+		for (Prey prey : preys) {
+			prey.makeMove(grid);
+			countOutcome(prey);
+		}
+	}
+	
+	/**
+	 * Applies the planned moves of all prey in list order.
+	 */
+	private void commitPreyPlans() {
+		logRoundStart();
+		for (Prey prey : preys) {
+			if (!prey.commitMove(grid)) {
+				count(GameCounter.PLAN_CONFLICTS);
 			}
+			countOutcome(prey);
 		}
 	}
 	
+	/**
+	 * Writes the round header to log.txt before the prey move.
+	 * The line is only built if the file log is on.
+	 */
+	private void logRoundStart() {
+		if (!preys.isEmpty() && GameLogger.isFileEnabled()) {
+			GameLogger.log("Raund " + this.currentRaund);
+		}
+	}
+	
+	/**
+	 * Calls planMove() of given animals on the decision pool.
+	 * The grid is only read until all plans are ready.
+	 * @param first Animals to plan
+	 * @param second More animals to plan, can be null
+	 */
+	private void planInParallel(List<? extends IPlannable> first, List<? extends IPlannable> second) {
+		planners.clear();
+		planners.addAll(first);
+		if (second != null) {
+			planners.addAll(second);
+		}
+		
+		decisionPool.invoke(new PlanTask(grid, planners, 0, planners.size()));
+	}
+	
 	/**
 	 * Method to move Apex Predators.
 	 */
 	private void moveApexBot() {
-		for (Animal a : animals) {
-			if (a instanceof ApexPredator) {
-				//moveBotRandomly(a);
-				a.makeMove(grid);
+		for (ApexPredator apex : apexes) {
+			apex.makeMove(grid);
+			countOutcome(apex);
+		}
+	}
+	
+	/**
+	 * Method to move the predators that are not played by the player.
+	 * Moves are chosen by the bot policy, an invalid choice is a skipped turn.
+	 */
+	private void movePredatorBots() {
+		for (int i = 1; i < predators.size(); i++) {
+			Predator bot = predators.get(i);
+			int[] move = botPolicy.chooseMove(grid, bot);
+			
+			boolean valid = move != null && !(move[0] == bot.getX() && move[1] == bot.getY())
+					&& bot.isValidMove(grid, move[0], move[1]);
+			
+			bot.makeMove(grid);
+			if (valid) {
+				bot.performMove(grid, move[0], move[1]);
+			}
+			else {
+				count(GameCounter.SKIPPED_TURNS);
 			}
+			countOutcome(bot);
 		}
 	}
 	
@@ -194,6 +427,8 @@ public class GameEngine {
 		}
 		
 		Predator player = this.getPredatorPlayer();
+		long roundStart = now();
+		long spawnStart = grid.getSpawnNanos();
 		
 		if (player != null) {
 			
@@ -201,11 +436,15 @@ public class GameEngine {
 			int currentY = player.getY();
 			
 			if (targetX == currentX && targetY == currentY) {
-				System.out.println("Player skipped turn.");
-				GameLogger.log("Player skipped turn at (" + currentX + "," + currentY + ")");
+				events.skip(player);
 				
 				player.makeMove(grid);
+				recordClick(targetX, targetY);
+				count(GameCounter.SKIPPED_TURNS);
+				recordPhase(RoundPhase.PLAYER_MOVE, roundStart);
 				processEndOfRound();
+				publishSnapshot();
+				endRound(roundStart, spawnStart);
 				return true;
 			}
 			
@@ -215,70 +454,206 @@ public class GameEngine {
 				boolean moved = player.performMove(grid, targetX, targetY);
 				
 				if (moved) {
+					recordClick(targetX, targetY);
+					countOutcome(player);
+					recordPhase(RoundPhase.PLAYER_MOVE, roundStart);
 					processEndOfRound();
+					publishSnapshot();
+					endRound(roundStart, spawnStart);
 					return true;
 				}
 			}
+			else {
+				events.invalidMove(player, targetX, targetY);
+			}
 			
 		}
+		else {
+			events.invalidMove(null, targetX, targetY);
+		}
 		
-		System.out.println("Invalid move ignored.");
+		count(GameCounter.INVALID_MOVES);
 		return false;
 	}
 	
 	
+	/**
+	 * Gives a played click to the replay recorder if there is one.
+	 * @param x Clicked coordinate-X
+	 * @param y Clicked coordinate-Y
+	 */
+	private void recordClick(int x, int y) {
+		if (recorder != null) {
+			recorder.recordClick(x, y);
+		}
+	}
+	
+	
+	/**
+	 * Plays the remaining rounds without the GUI.
+	 * The given policy chooses the player's move in place of a mouse click.
+	 * An invalid choice is played as a skipped turn.
+	 * @param policy Policy that controls the player predator.
+	 * @return Result of the finished match.
+	 */
+	public MatchResult playMatch(PredatorPolicy policy) {
+		while (!isGameOver) {
+			Predator player = getPredatorPlayer();
+			if (player == null) {
+				break;
+			}
+			
+			int[] move = policy.chooseMove(grid, player);
+			if (move == null || !processTurnWhenCliked(move[0], move[1])) {
+				processTurnWhenCliked(player.getX(), player.getY());
+			}
+		}
+		return getMatchResult();
+	}
+	
+	
 	/**
 	 * Calls apex's move method and applies required end of raund procedures.
 	 * Finishes the game if total raunds played.
 	 * If not, calls movePreyBot() and next raund begins.
 	 */
 	private void processEndOfRound() {
-		moveApexBot();
+		long start = now();
+		movePredatorBots();
+		recordPhase(RoundPhase.PREDATOR_BOTS, start);
+		
+		// iki aşamalı modda apex ve sonraki raundun preyleri aynı tahtadan planlar
+		start = now();
+		if (decisionPool != null) {
+			planInParallel(apexes, currentRaund < totalRaunds ? preys : null);
+			for (ApexPredator apex : apexes) {
+				if (!apex.commitMove(grid)) {
+					count(GameCounter.PLAN_CONFLICTS);
+				}
+				countOutcome(apex);
+			}
+		}
+		else {
+			moveApexBot();
+		}
+		recordPhase(RoundPhase.APEX_DECISION, start);
 		
-		GameLogger.log("Round " + currentRaund + " completed.");
-		GameLogger.log("");
-		GameLogger.log("------------------------------------------------------");
-		GameLogger.log("");
+		start = now();
+		events.roundEnd();
 		
 		currentRaund++;
+		events.setRound(currentRaund);
 		if (currentRaund > totalRaunds) {
 			isGameOver = true;
 			
-			System.out.println("GAME OVER! " + totalRaunds + " played."); 
+			GameLogger.print("GAME OVER! " + totalRaunds + " played."); 
 			GameLogger.log("=== GAME OVER ===");
 			GameLogger.log("");
 			
-			System.out.println(getGameResult());
+			GameLogger.print(getGameResult());
 			GameLogger.log(getGameResult());
 			GameLogger.log("");
+			GameLogger.flush();
+			recordPhase(RoundPhase.LOGGING, start);
 			return;
 		}
-		movePreyBot();
+		recordPhase(RoundPhase.LOGGING, start);
+		
+		start = now();
+		if (decisionPool != null) {
+			commitPreyPlans();
+		}
+		else {
+			movePreyBot();
+		}
+		recordPhase(RoundPhase.PREY_DECISION, start);
+	}
+	
+	
+	/////////////////////////// METRICS ///////////////////////////////
+	
+	/**
+	 * Reads the clock if metrics are on.
+	 * @return Current time in nanoseconds, 0 if metrics are off.
+	 */
+	private long now() {
+		return metricsEnabled ? System.nanoTime() : 0;
+	}
+	
+	/**
+	 * Records the time of a phase that started at the given time.
+	 * @param phase The phase
+	 * @param start Value of now() when the phase started
+	 */
+	private void recordPhase(RoundPhase phase, long start) {
+		if (metricsEnabled) {
+			metrics.recordPhase(phase, System.nanoTime() - start);
+		}
+	}
+	
+	private void count(GameCounter counter) {
+		if (metricsEnabled) {
+			metrics.count(counter, currentMode, 1);
+		}
+	}
+	
+	/**
+	 * Counts what happened in the last move of an animal.
+	 * @param animal The animal that moved
+	 */
+	private void countOutcome(Animal animal) {
+		// bayraklar her hamlede temizleniyor, yoksa sonraki raunda sayılırlar
+		int flags = animal.takeOutcome();
+		if (!metricsEnabled) {
+			return;
+		}
+		if ((flags & Animal.ATE) != 0) {
+			metrics.count(GameCounter.EATS, currentMode, 1);
+		}
+		if ((flags & Animal.USED_ABILITY) != 0) {
+			metrics.count(GameCounter.ABILITY_USES, currentMode, 1);
+		}
+		if ((flags & Animal.RESPAWN_FAILED) != 0) {
+			metrics.count(GameCounter.RESPAWN_FAILURES, currentMode, 1);
+		}
+	}
+	
+	/**
+	 * Records the round and the respawn time of a finished round.
+	 * @param roundStart Value of now() when the round started
+	 * @param spawnStart Spawn time of the grid when the round started
+	 */
+	private void endRound(long roundStart, long spawnStart) {
+		if (metricsEnabled) {
+			metrics.recordPhase(RoundPhase.RESPAWN, grid.getSpawnNanos() - spawnStart);
+			metrics.count(GameCounter.ROUNDS, currentMode, 1);
+			recordPhase(RoundPhase.ROUND, roundStart);
+		}
 	}
 	
 	/**
 	 * Gives the game results with winner and points of each character.
+	 * With many animals the scores of each role are added up.
 	 * @return Returns the result string.
 	 */
 	public String getGameResult() {
-		Animal apex = getAnimalByType(ApexPredator.class);
-		Animal predator = getAnimalByType(Predator.class);
-		Animal prey = getAnimalByType(Prey.class);
-		
-		int apexScore = apex.getScore();
-		int predatorScore = predator.getScore();
-		int preyScore = prey.getScore();
+		int apexScore = totalScore(apexes);
+		int predatorScore = totalScore(predators);
+		int preyScore = totalScore(preys);
 		
 		int maxScore = Math.max(Math.max(apexScore, preyScore), predatorScore);
 		
 		StringBuilder winMessage = new StringBuilder("Game Over! \nScores: \n");
-		winMessage.append("Predator: " + predatorScore + "\n");
-		winMessage.append("Prey: " + preyScore + "\n");
-		winMessage.append("Apex: "+ apexScore + "\n");
+		winMessage.append("Predator: " + predatorScore + roleSize(predators) + "\n");
+		winMessage.append("Prey: " + preyScore + roleSize(preys) + "\n");
+		winMessage.append("Apex: "+ apexScore + roleSize(apexes) + "\n");
+		if (predators.size() > 1) {
+			winMessage.append("Your score: " + getPredatorPlayer().getScore() + "\n");
+		}
 		winMessage.append("WINNER(S): \n");
 		
 		if (predatorScore == maxScore) {
-			winMessage.append("-> Predator (You)\n");
+			winMessage.append(predators.size() > 1 ? "-> Predators\n" : "-> Predator (You)\n");
 		}
 		if (preyScore == maxScore) {
 			winMessage.append("-> Prey\n");
@@ -292,18 +667,54 @@ public class GameEngine {
 	
 	
 	
+	/**
+	 * Gives the scores of the match as a MatchResult.
+	 * Scores of each role are added up, missing roles are counted with score 0.
+	 * @return Returns the result of the match.
+	 */
+	public MatchResult getMatchResult() {
+		int roundsPlayed = Math.min(currentRaund - 1, totalRaunds);
+		
+		return new MatchResult(currentMode, roundsPlayed,
+				totalScore(apexes), totalScore(predators), totalScore(preys));
+	}
+	
+	/**
+	 * Adds up the scores of animals.
+	 * @param role Animals of one role
+	 * @return Total score.
+	 */
+	private static int totalScore(List<? extends Animal> role) {
+		int total = 0;
+		for (Animal a : role) {
+			total += a.getScore();
+		}
+		return total;
+	}
+	
+	/**
+	 * Gives the animal count text shown next to role scores.
+	 * @param role Animals of one role
+	 * @return Empty for a single animal, " (n animals)" otherwise.
+	 */
+	private static String roleSize(List<? extends Animal> role) {
+		return role.size() == 1 ? "" : " (" + role.size() + " animals)";
+	}
+	
+	
+	
 	////////////////// SAVE/LOAD METOTLARI ///////////////////////////
 	
 	/**
 	 * Clears the grid and animals list.
 	 */
 	public void resetGame() {
+		this.isGameOver = false;
 		this.animals.clear();
-		for (int y = 0; y < grid.getRows(); y++) {
-			for (int x = 0; x < grid.getCols(); x++) {
-				grid.putEntity(null, x, y);
-			}
-		}	
+		this.apexes.clear();
+		this.predators.clear();
+		this.preys.clear();
+		grid.clear();
 	}
 	
 	/**
@@ -311,8 +722,19 @@ public class GameEngine {
 	 * @param animal animal to add.
 	 */
 	public void addLoadedAnimal(Animal animal) {
-		animals.add(animal);
-		grid.putEntity(animal, animal.getX(), animal.getY());
+		addLoadedAnimal(animal, true);
+	}
+
+	/**
+	 * Adds animal to the list, and to the grid if it was on the grid when saved.
+	 * @param animal animal to add.
+	 * @param onGrid false for an animal that was off the grid, waiting to respawn.
+	 */
+	public void addLoadedAnimal(Animal animal, boolean onGrid) {
+		addAnimal(animal);
+		if (onGrid) {
+			grid.putEntity(animal, animal.getX(), animal.getY());
+		}
 	}
 	
 	/**
@@ -330,15 +752,41 @@ public class GameEngine {
 	 * @param rows new rows
 	 */
 	public void resetGrid(int cols, int rows) {
-		this.grid = new Grid(cols, rows);
+		this.grid = new Grid(cols, rows, grid.getStorage());
+		this.grid.setRandom(random);
+		this.grid.setChangeTracking(snapshotsEnabled);
+		this.grid.setSpawnTiming(metricsEnabled);
+		this.grid.setEvents(events);
 	}
 	
 	//////////////////////////////////////////////////////////////////
 	
 	
+	/**
+	 * Publishes a new snapshot of the board for the GUI.
+	 * Called when a round ends, also after loading a game.
+	 * Does nothing if snapshots are disabled.
+	 */
+	public void publishSnapshot() {
+		if (snapshotsEnabled) {
+			snapshot = new BoardSnapshot(this, ++snapshotVersion, snapshot);
+		}
+	}
+	
+	
 	
 	// getter-setters		
 	public Animal getAnimalByType(Class<?> c) {
+		if (c == ApexPredator.class) {
+			return apexes.isEmpty() ? null : apexes.get(0);
+		}
+		if (c == Predator.class) {
+			return getPredatorPlayer();
+		}
+		if (c == Prey.class) {
+			return preys.isEmpty() ? null : preys.get(0);
+		}
+		
 		for (Animal a : animals) {
 			if (c.isInstance(a)) {
 				return a;
@@ -348,12 +796,105 @@ public class GameEngine {
 	}
 	
 	public Predator getPredatorPlayer() {
-		for (Animal a : animals) {
-			if (a instanceof Predator) {
-				return (Predator) a;
-			}
+		return predators.isEmpty() ? null : predators.get(0);
+	}
+	
+	public List<ApexPredator> getApexes() {
+		return this.apexes;
+	}
+	
+	public List<Predator> getPredators() {
+		return this.predators;
+	}
+	
+	public List<Prey> getPreys() {
+		return this.preys;
+	}
+	
+	public PopulationConfig getPopulation() {
+		return this.population;
+	}
+	
+	public void setBotPolicy(PredatorPolicy botPolicy) {
+		this.botPolicy = botPolicy;
+	}
+	
+	/**
+	 * Sets where the round times and counters of this engine go.
+	 * Many engines can share one sink. MetricsSink.NONE or null turns metrics off.
+	 * Set it before startGame() to also time the first prey move.
+	 * @param sink The sink, like a GameMetrics
+	 */
+	public void setMetricsSink(MetricsSink sink) {
+		this.metrics = sink == null ? MetricsSink.NONE : sink;
+		this.metricsEnabled = this.metrics != MetricsSink.NONE;
+		grid.setSpawnTiming(metricsEnabled);
+	}
+	
+	/**
+	 * Gives the event stream of this game.
+	 * Subscribe to it to get moves, eats, respawns, abilities and round ends.
+	 * @return The event bus.
+	 */
+	public GameEventBus getEvents() {
+		return events;
+	}
+	
+	public MetricsSink getMetricsSink() {
+		return metrics;
+	}
+	
+	/**
+	 * Sets the recorder that gets every played click.
+	 * ReplayRecorder.start() sets itself, close() removes it.
+	 * @param recorder The recorder, null stops giving clicks
+	 */
+	public void setReplayRecorder(ReplayRecorder recorder) {
+		this.recorder = recorder;
+	}
+	
+	public ReplayRecorder getReplayRecorder() {
+		return recorder;
+	}
+	
+	/**
+	 * Switches to the two-phase round mode.
+	 * Apex and prey decide their moves in parallel on the given pool from the same board,
+	 * then the moves are applied one by one in a fixed order. If a target cell was taken
+	 * in the meantime the animal stays, so the result does not depend on the thread count.
+	 * @param pool Pool for the decisions, null goes back to the sequential mode
+	 */
+	public void setDecisionPool(ForkJoinPool pool) {
+		this.decisionPool = pool;
+	}
+	
+	/**
+	 * Gives the last published snapshot.
+	 * Safe to call from any thread, for example the Swing event thread.
+	 * @return The latest snapshot, null if snapshots are disabled.
+	 */
+	public BoardSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+	
+	/**
+	 * Turns snapshot publishing on or off.
+	 * Headless runs turn it off, since nobody draws the board.
+	 * @param enabled true to publish a snapshot after every round
+	 */
+	public void setSnapshotsEnabled(boolean enabled) {
+		this.snapshotsEnabled = enabled;
+		this.grid.setChangeTracking(enabled);
+		if (enabled) {
+			publishSnapshot();
 		}
-		return null;
+		else {
+			this.snapshot = null;
+		}
+	}
+	
+	public ForkJoinPool getDecisionPool() {
+		return this.decisionPool;
 	}
 	
 	public boolean isGameOver() {
@@ -373,6 +914,14 @@ public class GameEngine {
 		return this.totalRaunds;
 	}
 	
+	public GameRandom getRandom() {
+		return this.random;
+	}
+	
+	public long getSeed() {
+		return this.random.getSeed();
+	}
+	
 	public GameMode getCurrentMode() {
 		return this.currentMode;
 	}
@@ -387,10 +936,15 @@ public class GameEngine {
 	
 	public void setCurrentRound(int round) {
 		this.currentRaund = round;
+		this.events.setRound(round);
 	}
 	
 	public void setTotalRounds(int total) {
 		this.totalRaunds = total;
 	}
 	
+	public void setGameOver(boolean gameOver) {
+		this.isGameOver = gameOver;
+	}
+	
 }
@@ -0,0 +1,208 @@
+package logic;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Default metrics sink that keeps everything in memory.
+ * Every phase has a LatencyHistogram, counters are kept per era.
+ * Can be shared by many engines and registered as a JMX MBean.
+ */
+public class GameMetrics implements MetricsSink, GameMetricsMXBean {
+	private static final RoundPhase[] PHASES = RoundPhase.values();
+	private static final GameCounter[] COUNTERS = GameCounter.values();
+	private static final GameMode[] ERAS = GameMode.values();
+
+	private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+	// sayaç * era sayısı + era
+	private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length * ERAS.length);
+	private ObjectName registeredName;
+
+
+	/**
+	 * Creates empty metrics.
+	 */
+	public GameMetrics() {
+		for (int i = 0; i < phases.length; i++) {
+			phases[i] = new LatencyHistogram();
+		}
+	}
+
+	@Override
+	public void recordPhase(RoundPhase phase, long nanos) {
+		phases[phase.ordinal()].record(nanos);
+	}
+
+	@Override
+	public void count(GameCounter counter, GameMode era, long amount) {
+		counters.getAndAdd(counter.ordinal() * ERAS.length + era.ordinal(), amount);
+	}
+
+
+	/**
+	 * Registers the metrics to the platform MBean server as "foodchain:type=GameMetrics,name=...".
+	 * @param name Name of these metrics, like "gui" or "simulation"
+	 * @throws JMException Throws if the name is taken or not valid.
+	 */
+	public synchronized void registerMBean(String name) throws JMException {
+		unregisterMBean();
+		ObjectName objectName = new ObjectName("foodchain:type=GameMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		registeredName = objectName;
+	}
+
+	/**
+	 * Removes the metrics from the MBean server if they were registered.
+	 */
+	public synchronized void unregisterMBean() {
+		if (registeredName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(registeredName)) {
+				server.unregisterMBean(registeredName);
+			}
+		}
+		catch (JMException e) {
+			// zaten kaldırılmış
+		}
+		registeredName = null;
+	}
+
+
+	/**
+	 * Gives a counter of one era.
+	 * @param counter The counter
+	 * @param era The era
+	 * @return Count.
+	 */
+	public long getCount(GameCounter counter, GameMode era) {
+		return counters.get(counter.ordinal() * ERAS.length + era.ordinal());
+	}
+
+	/**
+	 * Gives a counter summed over all eras.
+	 * @param counter The counter
+	 * @return Count.
+	 */
+	public long getCount(GameCounter counter) {
+		long total = 0;
+		for (GameMode era : ERAS) {
+			total += getCount(counter, era);
+		}
+		return total;
+	}
+
+	/**
+	 * Gives the histogram of a phase.
+	 * @param phase The phase
+	 * @return Histogram of the phase.
+	 */
+	public LatencyHistogram getHistogram(RoundPhase phase) {
+		return phases[phase.ordinal()];
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : phases) {
+			histogram.reset();
+		}
+		for (int i = 0; i < counters.length(); i++) {
+			counters.set(i, 0);
+		}
+	}
+
+	/**
+	 * Gives a text report with the percentiles of every phase and all counters.
+	 * @return The report.
+	 */
+	public String report() {
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("%-15s %10s %10s %10s %10s %10s%n", "phase", "count", "mean us", "p50 us", "p99 us", "max us"));
+		for (RoundPhase phase : PHASES) {
+			LatencyHistogram h = getHistogram(phase);
+			s.append(String.format("%-15s %10d %10.1f %10.1f %10.1f %10.1f%n", phase, h.getCount(), h.getMean() / 1000.0,
+					h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0, h.getMax() / 1000.0));
+		}
+		for (GameCounter counter : COUNTERS) {
+			s.append(String.format("%-17s %d", counter, getCount(counter)));
+			for (GameMode era : ERAS) {
+				s.append("  ").append(era).append('=').append(getCount(counter, era));
+			}
+			s.append(System.lineSeparator());
+		}
+		return s.toString();
+	}
+
+
+	// MBean
+	@Override
+	public long getRounds() {
+		return getCount(GameCounter.ROUNDS);
+	}
+
+	@Override
+	public long getEats() {
+		return getCount(GameCounter.EATS);
+	}
+
+	@Override
+	public long getRespawnFailures() {
+		return getCount(GameCounter.RESPAWN_FAILURES);
+	}
+
+	@Override
+	public long getAbilityUses() {
+		return getCount(GameCounter.ABILITY_USES);
+	}
+
+	@Override
+	public long getSkippedTurns() {
+		return getCount(GameCounter.SKIPPED_TURNS);
+	}
+
+	@Override
+	public double getMeanRoundNanos() {
+		return getHistogram(RoundPhase.ROUND).getMean();
+	}
+
+	@Override
+	public long getP99RoundNanos() {
+		return getHistogram(RoundPhase.ROUND).getPercentile(99);
+	}
+
+	@Override
+	public Map<String, Long> getPhaseP50Nanos() {
+		return phasePercentiles(50);
+	}
+
+	@Override
+	public Map<String, Long> getPhaseP99Nanos() {
+		return phasePercentiles(99);
+	}
+
+	@Override
+	public Map<String, Long> getAbilityUsesByEra() {
+		Map<String, Long> uses = new LinkedHashMap<>();
+		for (GameMode era : ERAS) {
+			uses.put(era.name(), getCount(GameCounter.ABILITY_USES, era));
+		}
+		return uses;
+	}
+
+	private Map<String, Long> phasePercentiles(double percent) {
+		Map<String, Long> values = new LinkedHashMap<>();
+		for (RoundPhase phase : PHASES) {
+			values.put(phase.name(), getHistogram(phase).getPercentile(percent));
+		}
+		return values;
+	}
+
+}
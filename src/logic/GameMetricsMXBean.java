@@ -0,0 +1,48 @@
+package logic;
+
+import java.util.Map;
+
+/**
+ * Management interface of GameMetrics, shown in JConsole or VisualVM.
+ * Times are in nanoseconds.
+ */
+public interface GameMetricsMXBean {
+	
+	long getRounds();
+	
+	long getEats();
+	
+	long getRespawnFailures();
+	
+	long getAbilityUses();
+	
+	long getSkippedTurns();
+	
+	double getMeanRoundNanos();
+	
+	long getP99RoundNanos();
+	
+	/**
+	 * Gives the 50th percentile of every phase.
+	 * @return Phase name to nanoseconds.
+	 */
+	Map<String, Long> getPhaseP50Nanos();
+	
+	/**
+	 * Gives the 99th percentile of every phase.
+	 * @return Phase name to nanoseconds.
+	 */
+	Map<String, Long> getPhaseP99Nanos();
+	
+	/**
+	 * Gives the ability uses of every era.
+	 * @return Era name to count.
+	 */
+	Map<String, Long> getAbilityUsesByEra();
+	
+	/**
+	 * Clears all counters and histograms.
+	 */
+	void reset();
+	
+}
@@ -0,0 +1,49 @@
+package logic;
+
+import java.util.List;
+
+import model.ApexPredator;
+import model.Entity;
+import model.Grid;
+import model.Predator;
+import model.Prey;
+
+/**
+ * Simple predator policy for headless matches.
+ * Never steps on an apex predator and moves towards the closest prey.
+ */
+public class GreedyPredatorPolicy implements PredatorPolicy {
+	
+	/**
+	 * Picks the available move that is closest to the nearest prey.
+	 * Skips the turn if there is no safe move.
+	 */
+	@Override
+	public int[] chooseMove(Grid grid, Predator player) {
+		Entity prey = grid.findNearest(player.getX(), player.getY(), Prey.class);
+		List<int[]> moves = player.getAvailableMoves(grid);
+		
+		int[] bestMove = new int[]{player.getX(), player.getY()};
+		int bestDistance = Integer.MAX_VALUE;
+		
+		for (int[] move : moves) {
+			if (grid.getEntity(move[0], move[1]) instanceof ApexPredator) {
+				continue;
+			}
+			
+			int distance = 0;
+			if (prey != null) {
+				int dx = move[0] - prey.getX();
+				int dy = move[1] - prey.getY();
+				distance = dx * dx + dy * dy;
+			}
+			
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				bestMove = move;
+			}
+		}
+		return bestMove;
+	}
+	
+}
@@ -0,0 +1,125 @@
+package logic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds with a fixed set of buckets.
+ * Values below 32 have their own buckets, above that every power of two is split into 16 buckets,
+ * so a percentile is never more than about 6% off, like HdrHistogram with one significant digit.
+ * Recording is a few atomic adds without allocation, many threads can record at the same time.
+ */
+public class LatencyHistogram {
+	private static final int LINEAR = 32;
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	// 2^5'ten 2^62'ye her üs için 16 kova
+	private static final int BUCKETS = LINEAR + (63 - 5) * SUB_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+
+	/**
+	 * Records a duration.
+	 * @param nanos Duration in nanoseconds, negative values count as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.getAndIncrement(bucketOf(value));
+		count.getAndIncrement();
+		sum.getAndAdd(value);
+
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * Gives the value below which the given percent of the recorded values are.
+	 * @param percent Percent between 0 and 100
+	 * @return Upper bound of the bucket of the percentile, 0 if nothing was recorded.
+	 */
+	public long getPercentile(double percent) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percent)) / 100.0));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Gives the average of the recorded values.
+	 * @return Mean in nanoseconds.
+	 */
+	public double getMean() {
+		long total = count.get();
+		return total == 0 ? 0 : (double) sum.get() / total;
+	}
+
+	/**
+	 * Clears all recorded values.
+	 * Values recorded at the same time by other threads may be partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * Gives the bucket of a value.
+	 * @param value Non negative value
+	 * @return Index of the bucket.
+	 */
+	static int bucketOf(long value) {
+		if (value < LINEAR) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return LINEAR + (exponent - 5) * SUB_COUNT + sub;
+	}
+
+	/**
+	 * Gives the largest value that falls into a bucket.
+	 * @param bucket Index of the bucket
+	 * @return Upper bound of the bucket.
+	 */
+	static long upperBound(int bucket) {
+		if (bucket < LINEAR) {
+			return bucket;
+		}
+		int exponent = (bucket - LINEAR) / SUB_COUNT + 5;
+		long sub = (bucket - LINEAR) % SUB_COUNT;
+		long low = (SUB_COUNT + sub) << (exponent - SUB_BITS);
+		long width = 1L << (exponent - SUB_BITS);
+		return low + width - 1;
+	}
+
+
+	// getter-setters
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+}
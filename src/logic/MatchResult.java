@@ -0,0 +1,61 @@
+package logic;
+
+/**
+ * Final scores of one finished match.
+ * Returned by headless matches and collected by SimulationRunner.
+ */
+public class MatchResult {
+	private final GameMode mode;
+	private final int roundsPlayed;
+	private final int apexScore;
+	private final int predatorScore;
+	private final int preyScore;
+	
+	/**
+	 * Constructor for MatchResult class.
+	 * @param mode Era of the match
+	 * @param roundsPlayed Number of rounds played
+	 * @param apexScore Final score of apex predator
+	 * @param predatorScore Final score of the player predator
+	 * @param preyScore Final score of prey
+	 */
+	public MatchResult(GameMode mode, int roundsPlayed, int apexScore, int predatorScore, int preyScore) {
+		this.mode = mode;
+		this.roundsPlayed = roundsPlayed;
+		this.apexScore = apexScore;
+		this.predatorScore = predatorScore;
+		this.preyScore = preyScore;
+	}
+	
+	/**
+	 * Gives the highest score of the match.
+	 * Every role with this score is a winner, same as getGameResult() in GameEngine.
+	 * @return The highest score.
+	 */
+	public int getMaxScore() {
+		return Math.max(Math.max(apexScore, preyScore), predatorScore);
+	}
+	
+	
+	// getter-setters
+	public GameMode getMode() {
+		return mode;
+	}
+	
+	public int getRoundsPlayed() {
+		return roundsPlayed;
+	}
+	
+	public int getApexScore() {
+		return apexScore;
+	}
+	
+	public int getPredatorScore() {
+		return predatorScore;
+	}
+	
+	public int getPreyScore() {
+		return preyScore;
+	}
+	
+}
@@ -0,0 +1,38 @@
+package logic;
+
+/**
+ * Receives the measurements of a game engine.
+ * Called on the thread that plays the round, many engines can share one sink.
+ * Implementations should not allocate or block, they are called a few times every round.
+ */
+public interface MetricsSink {
+	
+	/**
+	 * Sink that ignores everything, the engine does not even read the clock with it.
+	 */
+	MetricsSink NONE = new MetricsSink() {
+		@Override
+		public void recordPhase(RoundPhase phase, long nanos) {
+		}
+		
+		@Override
+		public void count(GameCounter counter, GameMode era, long amount) {
+		}
+	};
+	
+	/**
+	 * Records the time of a round phase.
+	 * @param phase The phase
+	 * @param nanos Duration in nanoseconds
+	 */
+	void recordPhase(RoundPhase phase, long nanos);
+	
+	/**
+	 * Adds to a counter.
+	 * @param counter The counter
+	 * @param era Era of the game
+	 * @param amount Amount to add
+	 */
+	void count(GameCounter counter, GameMode era, long amount);
+	
+}
@@ -0,0 +1,51 @@
+package logic;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import model.Grid;
+import model.IPlannable;
+
+/**
+ * Fork-join task that calls planMove() of bot animals in parallel.
+ * The grid is not changed while the task runs, so all animals see the same board.
+ */
+class PlanTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+	
+	// bundan küçük parçalar bölünmeden tek thread'de planlanır
+	private static final int THRESHOLD = 64;
+	
+	private final transient Grid grid;
+	private final transient List<? extends IPlannable> animals;
+	private final int from;
+	private final int to;
+	
+	/**
+	 * Constructor for PlanTask class.
+	 * @param grid The game grid
+	 * @param animals Animals to plan
+	 * @param from First index to plan
+	 * @param to Index after the last one to plan
+	 */
+	PlanTask(Grid grid, List<? extends IPlannable> animals, int from, int to) {
+		this.grid = grid;
+		this.animals = animals;
+		this.from = from;
+		this.to = to;
+	}
+	
+	@Override
+	protected void compute() {
+		if (to - from <= THRESHOLD) {
+			for (int i = from; i < to; i++) {
+				animals.get(i).planMove(grid);
+			}
+			return;
+		}
+		
+		int middle = (from + to) >>> 1;
+		invokeAll(new PlanTask(grid, animals, from, middle), new PlanTask(grid, animals, middle, to));
+	}
+	
+}
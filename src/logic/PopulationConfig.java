@@ -0,0 +1,108 @@
+package logic;
+
+/**
+ * Number of animals of each role and amount of food placed when a game starts.
+ * The first predator is the player, the others are bots.
+ * Food can be given as a count or as a fraction of the grid cells.
+ */
+public class PopulationConfig {
+	
+	/**
+	 * Classic game: one of each character and one food.
+	 */
+	public static final PopulationConfig SINGLE = new PopulationConfig(1, 1, 1, 1);
+	
+	private final int apexCount;
+	private final int predatorCount;
+	private final int preyCount;
+	private final int foodCount;
+	private final double foodDensity;
+	
+	/**
+	 * Constructor for PopulationConfig class with a fixed food count.
+	 * @param apexCount Number of apex predators
+	 * @param predatorCount Number of predators, including the player
+	 * @param preyCount Number of prey
+	 * @param foodCount Number of foods
+	 * @throws IllegalArgumentException if a count is negative or there is no predator for the player.
+	 */
+	public PopulationConfig(int apexCount, int predatorCount, int preyCount, int foodCount) {
+		this(apexCount, predatorCount, preyCount, foodCount, 0);
+	}
+	
+	/**
+	 * Constructor for PopulationConfig class with food density.
+	 * @param apexCount Number of apex predators
+	 * @param predatorCount Number of predators, including the player
+	 * @param preyCount Number of prey
+	 * @param foodDensity Fraction of grid cells that get food, between 0 and 1
+	 * @throws IllegalArgumentException if a count is negative or there is no predator for the player.
+	 */
+	public PopulationConfig(int apexCount, int predatorCount, int preyCount, double foodDensity) {
+		this(apexCount, predatorCount, preyCount, 0, foodDensity);
+	}
+	
+	private PopulationConfig(int apexCount, int predatorCount, int preyCount, int foodCount, double foodDensity) {
+		if (apexCount < 0 || preyCount < 0 || foodCount < 0) {
+			throw new IllegalArgumentException("Population counts cannot be negative.");
+		}
+		if (predatorCount < 1) {
+			throw new IllegalArgumentException("At least one predator is needed for the player.");
+		}
+		if (foodDensity < 0 || foodDensity > 1) {
+			throw new IllegalArgumentException("Food density must be between 0 and 1: " + foodDensity);
+		}
+		
+		this.apexCount = apexCount;
+		this.predatorCount = predatorCount;
+		this.preyCount = preyCount;
+		this.foodCount = foodCount;
+		this.foodDensity = foodDensity;
+	}
+	
+	
+	/**
+	 * Gives how many foods are placed on a grid with given number of cells.
+	 * @param cellCount Number of cells of the grid
+	 * @return Number of foods.
+	 */
+	public int getFoodCount(long cellCount) {
+		if (foodDensity > 0) {
+			return (int) Math.min(Integer.MAX_VALUE, Math.round(foodDensity * cellCount));
+		}
+		return foodCount;
+	}
+	
+	/**
+	 * Gives the number of animals placed at the start.
+	 * @return Total number of animals.
+	 */
+	public long getAnimalCount() {
+		return (long) apexCount + predatorCount + preyCount;
+	}
+	
+	@Override
+	public String toString() {
+		String food = foodDensity > 0 ? "food density=" + foodDensity : "food=" + foodCount;
+		return "apex=" + apexCount + " predators=" + predatorCount + " prey=" + preyCount + " " + food;
+	}
+	
+	
+	// getter-setters
+	public int getApexCount() {
+		return apexCount;
+	}
+	
+	public int getPredatorCount() {
+		return predatorCount;
+	}
+	
+	public int getPreyCount() {
+		return preyCount;
+	}
+	
+	public double getFoodDensity() {
+		return foodDensity;
+	}
+	
+}
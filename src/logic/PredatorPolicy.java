@@ -0,0 +1,21 @@
+package logic;
+
+import model.Grid;
+import model.Predator;
+
+/**
+ * Decides the moves of the player predator when the game is played without the GUI.
+ * Used in place of mouse clicks by headless matches.
+ */
+public interface PredatorPolicy {
+	
+	/**
+	 * Chooses the cell that the predator should move to.
+	 * Returning the current cell of the predator skips the turn.
+	 * @param grid The game grid
+	 * @param player The predator controlled by this policy
+	 * @return Target coordinates as {x, y}
+	 */
+	int[] chooseMove(Grid grid, Predator player);
+	
+}
@@ -0,0 +1,41 @@
+package logic;
+/**
+ * Parts of a round whose time is measured by the engine.
+ */
+public enum RoundPhase {
+	/**
+	 * Move of the player predator, from the click to the end of its move.
+	 */
+	PLAYER_MOVE,
+	
+	/**
+	 * Moves of the bot predators chosen by the bot policy.
+	 */
+	PREDATOR_BOTS,
+	
+	/**
+	 * Decisions and moves of all prey.
+	 * In two-phase mode prey plan together with the apexes, so this is only the commit.
+	 */
+	PREY_DECISION,
+	
+	/**
+	 * Decisions and moves of all apex predators, with the prey planning in two-phase mode.
+	 */
+	APEX_DECISION,
+	
+	/**
+	 * Time spent finding empty cells for respawns, already included in the move phases.
+	 */
+	RESPAWN,
+	
+	/**
+	 * End of round log lines and the game over report.
+	 */
+	LOGGING,
+	
+	/**
+	 * The whole round, from the click to the next round being ready.
+	 */
+	ROUND
+}
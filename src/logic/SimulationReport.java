@@ -0,0 +1,105 @@
+package logic;
+
+/**
+ * Summary of a batch of headless matches.
+ * Holds average scores, win counts of each role and the throughput of the batch.
+ */
+public class SimulationReport {
+	private int matches;
+	private long elapsedNanos;
+	
+	private long apexScoreTotal;
+	private long predatorScoreTotal;
+	private long preyScoreTotal;
+	
+	private int apexWins;
+	private int predatorWins;
+	private int preyWins;
+	
+	/**
+	 * Adds the result of a finished match to the report.
+	 * Every role with the highest score counts as a winner.
+	 * @param result Result of the match.
+	 */
+	public void add(MatchResult result) {
+		matches++;
+		apexScoreTotal += result.getApexScore();
+		predatorScoreTotal += result.getPredatorScore();
+		preyScoreTotal += result.getPreyScore();
+		
+		int maxScore = result.getMaxScore();
+		if (result.getApexScore() == maxScore) {
+			apexWins++;
+		}
+		if (result.getPredatorScore() == maxScore) {
+			predatorWins++;
+		}
+		if (result.getPreyScore() == maxScore) {
+			preyWins++;
+		}
+	}
+	
+	/**
+	 * Gives the number of matches finished per second.
+	 * @return Matches per second.
+	 */
+	public double getMatchesPerSecond() {
+		if (elapsedNanos == 0) {
+			return 0;
+		}
+		return matches / (elapsedNanos / 1_000_000_000.0);
+	}
+	
+	/**
+	 * Gives the average of a score total over all matches.
+	 * @param total Sum of the scores.
+	 * @return Average score.
+	 */
+	private double average(long total) {
+		if (matches == 0) {
+			return 0;
+		}
+		return (double) total / matches;
+	}
+	
+	
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append("Matches: ").append(matches).append("\n");
+		s.append(String.format("Elapsed: %.3f s (%.1f matches/sec)%n", elapsedNanos / 1_000_000_000.0, getMatchesPerSecond()));
+		s.append(String.format("Average Scores: Apex %.2f, Predator %.2f, Prey %.2f%n",
+				average(apexScoreTotal), average(predatorScoreTotal), average(preyScoreTotal)));
+		s.append("Wins: Apex ").append(apexWins)
+			.append(", Predator ").append(predatorWins)
+			.append(", Prey ").append(preyWins).append("\n");
+		return s.toString();
+	}
+	
+	
+	// getter-setters
+	public int getMatches() {
+		return matches;
+	}
+	
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	public void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	public int getApexWins() {
+		return apexWins;
+	}
+	
+	public int getPredatorWins() {
+		return predatorWins;
+	}
+	
+	public int getPreyWins() {
+		return preyWins;
+	}
+	
+}
@@ -0,0 +1,217 @@
+package logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+
+import model.GridStorage;
+import util.EventLog;
+import util.GameLogger;
+import util.GameRandom;
+
+/**
+ * Runs many independent headless matches in parallel.
+ * Every match has its own GameEngine, so its own grid, random generator and animal list.
+ * Used for balance tuning without the GUI.
+ */
+public class SimulationRunner {
+	private final String eraName;
+	private final int gridSize;
+	private final int rounds;
+	private final int threads;
+	private final Supplier<PredatorPolicy> policyFactory;
+	private final long seed;
+	private MetricsSink metrics = MetricsSink.NONE;
+	private EventLog eventLog; // null ise olaylar yazılmıyor
+	private ForkJoinPool decisionPool; // null ise botlar sırayla oynar
+	
+	/**
+	 * Constructor for SimulationRunner class.
+	 * @param eraName Name of the era to be played
+	 * @param gridSize Size of the grid (gridSize x gridSize)
+	 * @param rounds Number of rounds of each match
+	 * @param threads Number of worker threads
+	 * @param policyFactory Creates the player policy of each match
+	 * @param seed Seed of the batch, every match gets its own seed derived from it
+	 */
+	public SimulationRunner(String eraName, int gridSize, int rounds, int threads, Supplier<PredatorPolicy> policyFactory, long seed) {
+		this.eraName = eraName;
+		this.gridSize = gridSize;
+		this.rounds = rounds;
+		this.threads = threads;
+		this.policyFactory = policyFactory;
+		this.seed = seed;
+	}
+	
+	
+	/**
+	 * Plays the given number of matches on the worker threads.
+	 * Match seeds are derived from the batch seed in submission order,
+	 * so the results do not depend on the number of threads.
+	 * @param matches Number of matches to play
+	 * @return Report of all matches.
+	 * @throws InterruptedException Throws if the runner is interrupted while waiting.
+	 */
+	public SimulationReport run(int matches) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		SimulationReport report = new SimulationReport();
+		
+		try {
+			long start = System.nanoTime();
+			
+			GameRandom seeds = new GameRandom(seed);
+			List<Future<MatchResult>> futures = new ArrayList<>(matches);
+			for (int i = 0; i < matches; i++) {
+				long matchSeed = seeds.nextLong();
+				futures.add(pool.submit(() -> playOneMatch(matchSeed)));
+			}
+			
+			for (Future<MatchResult> future : futures) {
+				report.add(future.get());
+			}
+			
+			report.setElapsedNanos(System.nanoTime() - start);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("A simulated match failed.", e.getCause());
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		
+		return report;
+	}
+	
+	/**
+	 * Creates a fresh engine and plays one full match.
+	 * @param matchSeed Seed of the match
+	 * @return Result of the match.
+	 */
+	private MatchResult playOneMatch(long matchSeed) {
+		GameEngine engine = new GameEngine(eraName, gridSize, rounds, GridStorage.DENSE, matchSeed, PopulationConfig.SINGLE, false);
+		engine.setSnapshotsEnabled(false);
+		engine.setMetricsSink(metrics);
+		engine.setDecisionPool(decisionPool);
+		if (eventLog == null) {
+			engine.startGame();
+			return engine.playMatch(policyFactory.get());
+		}
+		
+		EventLog.GameLog events = eventLog.attach(engine);
+		try {
+			engine.startGame();
+			return engine.playMatch(policyFactory.get());
+		}
+		finally {
+			events.close();
+		}
+	}
+	
+	
+	/**
+	 * Runs a batch of matches from the command line.
+	 * Console and file logs are disabled during the batch.
+	 * Round metrics are collected, shown over JMX while the batch runs and printed at the end.
+	 * With -Dsimulation.events=folder every event of every match goes to an EventLog in that folder.
+	 * With -Dsimulation.decisionThreads=n every match is played in the two-phase round mode,
+	 * the bots of all matches decide on one shared pool of n threads.
+	 * Usage: SimulationRunner [era] [gridSize] [rounds] [matches] [threads] [seed]
+	 * @param args Command line arguments.
+	 * @throws InterruptedException Throws if the batch is interrupted.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		String era = args.length > 0 ? args[0] : "Present";
+		int gridSize = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+		int matches = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 5 ? Long.parseLong(args[5]) : GameRandom.newSeed();
+		
+		GameLogger.setConsoleEnabled(false);
+		GameLogger.setFileEnabled(false);
+		
+		GameMetrics metrics = new GameMetrics();
+		try {
+			metrics.registerMBean("simulation");
+		}
+		catch (JMException e) {
+			System.out.println("Metrics could not be registered to JMX: " + e.getMessage());
+		}
+		
+		SimulationRunner runner = new SimulationRunner(era, gridSize, rounds, threads, GreedyPredatorPolicy::new, seed);
+		runner.setMetricsSink(metrics);
+		
+		String eventDir = System.getProperty("simulation.events");
+		EventLog events = null;
+		if (eventDir != null) {
+			try {
+				events = new EventLog(new File(eventDir));
+				runner.setEventLog(events);
+			}
+			catch (IOException e) {
+				System.out.println("Event log could not be opened: " + e.getMessage());
+			}
+		}
+		
+		int decisionThreads = Integer.getInteger("simulation.decisionThreads", 0);
+		ForkJoinPool decisionPool = null;
+		if (decisionThreads > 0) {
+			decisionPool = new ForkJoinPool(decisionThreads);
+			runner.setDecisionPool(decisionPool);
+		}
+		
+		SimulationReport report = runner.run(matches);
+		if (decisionPool != null) {
+			decisionPool.shutdown();
+		}
+		
+		if (events != null) {
+			try {
+				events.close();
+				System.out.println("Events written to " + events.getDir().getPath());
+			}
+			catch (IOException e) {
+				System.out.println("Event log could not be closed: " + e.getMessage());
+			}
+		}
+		
+		System.out.println("Era: " + era + ", Grid: " + gridSize + "x" + gridSize + ", Rounds: " + rounds + ", Threads: " + threads + ", Seed: " + seed
+				+ (decisionPool != null ? ", Decision threads: " + decisionThreads : ""));
+		System.out.print(report);
+		System.out.print(metrics.report());
+		metrics.unregisterMBean();
+	}
+	
+	
+	// getter-setters
+	public void setMetricsSink(MetricsSink sink) {
+		this.metrics = sink == null ? MetricsSink.NONE : sink;
+	}
+	
+	/**
+	 * Sets the structured event log every match is written to.
+	 * @param eventLog The log, null for no event log
+	 */
+	public void setEventLog(EventLog eventLog) {
+		this.eventLog = eventLog;
+	}
+	
+	/**
+	 * Plays every match in the two-phase round mode, see GameEngine.setDecisionPool().
+	 * One pool can be shared by all matches, results do not depend on its size.
+	 * @param pool Pool for the bot decisions, null for the sequential mode
+	 */
+	public void setDecisionPool(ForkJoinPool pool) {
+		this.decisionPool = pool;
+	}
+	
+}
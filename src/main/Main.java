@@ -1,8 +1,14 @@
 package main;
 
 
+import java.io.IOException;
+
 import javax.swing.SwingUtilities;
+import exception.GameLoadException;
 import gui.MainFrame;
+import util.BackPressure;
+import util.FoodChainCatalog;
+import util.GameLogger;
 
 /**
  * Main class for whole project.
@@ -16,6 +22,21 @@ public class Main {
 	 */
 	public static void main(String[] args) {
 		
+		try {
+			GameLogger.enableAsync(4096, 256, 200, BackPressure.BLOCK);
+		}
+		catch (IOException e) {
+			System.out.println("Asenkron log açılamadı, normal log kullanılıyor.");
+		}
+		
+		// era dosyaları bir kere okunuyor, hata olursa oyun başlarken yine gösterilir
+		try {
+			FoodChainCatalog.getDefault().preload();
+		}
+		catch (GameLoadException e) {
+			System.out.println(e.getMessage());
+		}
+		
 		SwingUtilities.invokeLater(new Runnable() {
 			public void run() {
 				try {
@@ -9,7 +9,16 @@ import logic.GameMode;
  */
 
 public abstract class Animal extends Entity implements IRespawnable {
+	/** Outcome flag: the animal ate something in its last move. */
+	public static final int ATE = 1;
+	/** Outcome flag: the last move used the special ability. */
+	public static final int USED_ABILITY = 2;
+	/** Outcome flag: something could not respawn during the last move, the grid was full. */
+	public static final int RESPAWN_FAILED = 4;
+	
 	protected int score;
+	// son hamlede ne oldu, engine metrikler için okuyup siliyor
+	protected int outcome;
 	protected boolean isAlive;
 	protected int abilityCooldown;
 	protected GameMode era;
@@ -76,6 +85,16 @@ public abstract class Animal extends Entity implements IRespawnable {
 	}
 	
 	
+	/**
+	 * Gives the outcome flags of the moves since the last call and clears them.
+	 * @return ATE, USED_ABILITY and RESPAWN_FAILED flags.
+	 */
+	public int takeOutcome() {
+		int flags = outcome;
+		outcome = 0;
+		return flags;
+	}
+	
 	/**
 	 * Respawns the entitiy at a random empty location on the grid.
 	 * Sets animal alive and cooldown to zero.
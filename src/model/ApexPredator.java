@@ -1,16 +1,18 @@
 package model;
 
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.List;
 import logic.GameMode;
-import util.GameLogger;
+import util.Distance;
 /**
  * For apex predator type animals.
  */
-public class ApexPredator extends Animal {
+public class ApexPredator extends Animal implements IPlannable {
+	
+	private static final Class<?>[] TARGET_TYPES = {Prey.class, Predator.class};
+	private static final int MOVE_TARGETS = OffsetTable.EMPTY | OffsetTable.PREY | OffsetTable.PREDATOR;
 	
 	private int abilityCooldown = 0;
+	private final MoveBuffer candidates = new MoveBuffer();
+	private final MovePlan plan = new MovePlan();
 	
 	/**
 	 * Constructor for apex predator class.
@@ -30,60 +32,79 @@ public class ApexPredator extends Animal {
 	 */
 	@Override
 	public void makeMove(Grid grid) {
-		List<Entity> targets = findTargets(grid);
-		Entity closestTarget = getClosest(targets);
+		planMove(grid);
+		commitMove(grid);
+	}
+	
+	/**
+	 * Decides the move towards the nearest target without changing the grid.
+	 * @param grid The game grid
+	 */
+	@Override
+	public void planMove(Grid grid) {
+		Entity closestTarget = grid.findNearest(getX(), getY(), TARGET_TYPES);
 		
+		if (abilityCooldown == 0 && closestTarget != null && planSpecialAbility(grid, closestTarget)) {
+			return;
+		}
 		
-		boolean abilityUsed = false;
-		if (abilityCooldown == 0 && closestTarget != null) {
-			abilityUsed = tryUseSpecialAbility(grid, closestTarget);
+		planStandardMove(grid, closestTarget);
+	}
+	
+	/**
+	 * Applies the planned move.
+	 * If the target cell was taken by another apex after planning, apex stays where it is.
+	 * @param grid The game grid
+	 * @return false if the planned move could not be applied.
+	 */
+	@Override
+	public boolean commitMove(Grid grid) {
+		if (!plan.usesAbility() && abilityCooldown > 0) {
+			abilityCooldown--;
 		}
 		
-		if (!abilityUsed) {
-			if (abilityCooldown > 0) {
-				abilityCooldown--;
-			}
-			makeStandardMove(grid, closestTarget);
+		if (!plan.hasMove()) {
+			return true;
 		}
+		if (!plan.isFrom(this)) {
+			plan.clear();
+			return false;
+		}
+		
+		int targetX = plan.getTargetX();
+		int targetY = plan.getTargetY();
+		
+		if ((OffsetTable.kindOf(grid.getEntity(targetX, targetY)) & MOVE_TARGETS) == 0) {
+			grid.getEvents().conflict(this, targetX, targetY);
+			return false;
+		}
+		
+		int fromX = getX();
+		int fromY = getY();
+		moveTo(grid, targetX, targetY);
+		if (plan.usesAbility()) {
+			this.abilityCooldown = (this.era == GameMode.PAST) ? 2 : 3;
+			outcome |= USED_ABILITY;
+			grid.getEvents().ability(this, fromX, fromY, targetX, targetY);
+		}
+		return true;
 	}
 	
 	
 	/**
-	 * Tries to perform a special move based on the current era.
+	 * Tries to plan a special move based on the current era.
 	 * @param grid The game grid
 	 * @param target The target entity to hunt
-	 * @return true if a special ability move was performed
+	 * @return true if a special ability move was planned
 	 */
-	private boolean tryUseSpecialAbility(Grid grid, Entity target) {
-		List<int[]> candidates = new ArrayList<>();
-		int cooldownCost = 0;
+	private boolean planSpecialAbility(Grid grid, Entity target) {
+		candidates.clear();
+		getValidMoves(grid, MoveOffsets.apexAbility(this.era), candidates);
 		
-		switch (this.era) {
-			case PAST:
-				candidates = getLinearMoves(grid, 2);
-				cooldownCost = 2;
-				break;
-			case PRESENT:
-				candidates = getValidMovesInRange(grid, 3);
-				cooldownCost = 3;
-				break;
-			case FUTURE:
-				List<int[]> potentialMoves = getValidMovesInRange(grid, 3);
-				
-				for (int[] move : potentialMoves) {
-					if (getDistance(getX(), getY(), move[0], move[1]) <= 3.0) {
-						candidates.add(move);
-					}
-				}	
-				cooldownCost = 3;
-				break;
-		}
+		int best = pickBestMove(candidates, target);
 		
-		int[] bestMove = pickBestMove(candidates, target);
-		
-		if (bestMove != null) {
-			moveTo(grid, bestMove[0], bestMove[1]);
-			this.abilityCooldown = cooldownCost;
+		if (best >= 0) {
+			plan.set(this, candidates.getX(best), candidates.getY(best), true);
 			return true;
 		}
 		return false;
@@ -91,39 +112,43 @@ public class ApexPredator extends Animal {
 	
 	
 	/**
-	 * Performs a standard 1-cell movement towards the target.
+	 * Plans a standard 1-cell movement towards the target.
 	 * @param grid The game grid
 	 * @param target The target entity
 	 */
-	private void makeStandardMove(Grid grid, Entity target) {
-		List<int[]> candidates = getValidMovesInRange(grid, 1);
-		int[] bestMove = pickBestMove(candidates, target);
+	private void planStandardMove(Grid grid, Entity target) {
+		candidates.clear();
+		getValidMoves(grid, MoveOffsets.STEP, candidates);
+		int best = pickBestMove(candidates, target);
 		
-		if (bestMove != null) {
-			moveTo(grid, bestMove[0], bestMove[1]);
+		if (best >= 0) {
+			plan.set(this, candidates.getX(best), candidates.getY(best), false);
+		}
+		else {
+			plan.clear();
 		}
 	}
 	
 	/**
 	 * Evaluates candidate moves and selects the one closest to the target.
-	 * @param candidates List of possible moves
+	 * @param candidates Possible moves
 	 * @param target The target entity
-	 * @return The best move 
+	 * @return Index of the best move in candidates, -1 if there is none
 	 */
-	private int[] pickBestMove(List<int[]> candidates, Entity target) {
-		int[] bestMove = null;
-		double minDistance = Double.MAX_VALUE;
+	private int pickBestMove(MoveBuffer candidates, Entity target) {
+		int bestMove = -1;
+		int minDistance = Integer.MAX_VALUE;
 		
-		for (int[] move : candidates) {
-			double dist = 0;
+		for (int i = 0; i < candidates.size(); i++) {
+			int dist = 0;
 			
 			if (target != null) {
-				dist = getDistance(move[0], move[1], target.getX(), target.getY());
+				dist = Distance.squared(candidates.getX(i), candidates.getY(i), target.getX(), target.getY());
 			} 
 			
 			if (dist < minDistance) {
 				minDistance = dist;
-				bestMove = move;
+				bestMove = i;
 			}
 		}
 		return bestMove;
@@ -144,29 +169,21 @@ public class ApexPredator extends Animal {
 		
 		if (target instanceof Prey || target instanceof Predator) {
 			this.changeScoreBy(+1);
-			System.out.println(this.getSymbol() + " ATE " + target.getSymbol() + "!");
-			GameLogger.log(this.name + " (Apex) ATE " + target.getName() + " at (" + newX + "," + newY + ")");
+			outcome |= ATE;
+			grid.getEvents().eat(this, target, newX, newY, 1);
 			
-			if (target instanceof Prey) {
-				((Prey) target).changeScoreBy(-1);
-			} 
-			
-			else if (target instanceof Predator) {
-				((Predator) target).changeScoreBy(-1);
-				GameLogger.log("Player loses -1 point.");  
-				
-			}
+			((Animal) target).changeScoreBy(-1);
 			
 			respawnVictimOnGrid(grid, target);
 		}
 		
-		grid.putEntity(null, this.getX(), this.getY());
+		int fromX = this.getX();
+		int fromY = this.getY();
+		grid.putEntity(null, fromX, fromY);
 		this.setX(newX);
 		this.setY(newY);
 		grid.putEntity(this, newX, newY);
-		
-		System.out.println(this.getSymbol() + " (Apex AI) moved to (" + newX + ", " + newY + ")");
-		GameLogger.log( this.name + " (Apex) moved to (" + newX + ", " + newY + ")");
+		grid.getEvents().move(this, fromX, fromY, newX, newY);
 		
 	}
 	
@@ -177,135 +194,26 @@ public class ApexPredator extends Animal {
 	 * @param victim The victim to respawn.	
 	 */
 	private void respawnVictimOnGrid(Grid grid, Entity victim) {
-		int maxAttempts = 50;
-		SecureRandom random = new SecureRandom();
-		
-		for (int i = 0; i < maxAttempts; i++) {
-			int randomX = random.nextInt(grid.getCols());
-			int randomY = random.nextInt(grid.getRows());
-			
-			if (grid.getEntity(randomX, randomY) == null) {
-				victim.setX(randomX);
-				victim.setY(randomY);
-				
-				grid.putEntity(victim, randomX, randomY);
-				return;
-			}
-			
+		if (grid.putEntityRandomly(victim)) {
+			grid.getEvents().respawn(victim);
 		}
-		
-		
-	}
-	
-	
-	
-	/**
-	 * Searches for prey and predator and returns in a list.	
-	 * @param grid The game grid
-	 * @return List of potential targets
-	 */
-	private List<Entity> findTargets(Grid grid) {
-		List<Entity> targets = new ArrayList<>();  
-		
-		for (int y = 0; y < grid.getRows(); y++) {
-			for (int x = 0; x < grid.getCols(); x++) {
-				
-				Entity e = grid.getEntity(x, y);
-				if (e instanceof Prey || e instanceof Predator) {
-					targets.add(e);
-				}
-			}
+		else {
+			outcome |= RESPAWN_FAILED;
+			grid.getEvents().respawnFailed(victim);
 		}
-		
-		return targets;
 	}
 	
 	
-	/**
-	 * Finds the closest entity from a list.
-	 * @param entities List of entities
-	 * @return The closest entity
-	 */
-	private Entity getClosest(List<Entity> entities) {
-		Entity closest = null;
-		double minDistance = Double.MAX_VALUE;
-		for (Entity e : entities) {
-			double distance = getDistance(this.getX(), this.getY(), e.getX(), e.getY());
-			if (distance < minDistance) {
-				minDistance = distance;
-				closest = e;
-			}
-		}
-		return closest;
-	}
-	
 	
 	/**
-	 * Finds all available moves in a given range.
-	 * Used for standard move and present/future abilities.
-	 * @param grid The game grid
-	 * @param range The range to search
-	 * @return List of valid move coordinates
-	 */
-	private List<int[]> getValidMovesInRange(Grid grid, int range) {
-		List<int[]> moves = new ArrayList<>();
-		int currentX = getX();
-		int currentY = getY(); 
-		
-		for (int y = currentY - range; y <= currentY + range; y++) {
-			for (int x = currentX - range; x <= currentX + range; x++) {
-				if (x == currentX && y == currentY) continue;
-				
-				if (grid.isValidPosition(x, y)) {
-					Entity e = grid.getEntity(x, y);
-					if (e == null || e instanceof Prey || e instanceof Predator) {
-						moves.add(new int[]{x, y});
-					}
-				}
-			}
-		}
-		return moves;	
-		
-	}
-	 
-	/**
-	 * Gives valid straight line moves.
-	 * Used for past era ability.
+	 * Adds the empty cells, preys and predators of an offset table to the buffer.
+	 * Used for standard move and all era abilities.
 	 * @param grid The game grid
-	 * @param distance Reachable distance
-	 * @return List of valid move coordinates
-	 */
-	private List<int[]> getLinearMoves(Grid grid, int distance) {
-		List<int[]> moves = new ArrayList<>();
-		int[][] directions = {{0, distance}, {0, -distance}, {distance, 0}, {-distance, 0}
-							, {distance, distance}, {-distance, distance}, {distance, -distance}, {-distance, -distance}};
-		
-		for (int[] dir : directions) {
-			int newX = getX() + dir[0];
-			int newY = getY() + dir[1];
-			
-			if (grid.isValidPosition(newX, newY)) {
-				Entity e = grid.getEntity(newX, newY);
-				if (e == null || e instanceof Prey || e instanceof Predator) {
-					moves.add(new int[]{newX, newY});
-				}
-			}
-		}
-		return moves;
-	}
-	
-		
-	
-	/**
-	 * Calculates distance between two points.
-	 * @param x1 First X
-	 * @param y1 First Y
-	 * @param x2 Second X
-	 * @param y2 Second Y
-	 * @return Distance value
+	 * @param offsets Reachable cells of the move
+	 * @param moves Buffer to add valid move coordinates
 	 */
-	private double getDistance(int x1, int y1, int x2, int y2) {
-		return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+	private void getValidMoves(Grid grid, OffsetTable offsets, MoveBuffer moves) {
+		offsets.collect(grid, getX(), getY(), moves, MOVE_TARGETS);
 	}
 	
 	
@@ -318,4 +226,4 @@ public class ApexPredator extends Animal {
 		this.abilityCooldown = rounds;
 	}
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
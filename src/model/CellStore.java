@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Stores which entity is in each cell of the grid.
+ * Cells are given as a single index: y * cols + x.
+ * Implementations are selected by GridStorage.
+ */
+interface CellStore {
+	
+	/**
+	 * Gives the entity in the cell.
+	 * @param cell Index of the cell
+	 * @return The entity or null if the cell is empty.
+	 */
+	Entity get(int cell);
+	
+	/**
+	 * Puts the entity in the cell.
+	 * @param cell Index of the cell
+	 * @param e Entity to put, null empties the cell
+	 * @return The entity that was in the cell before.
+	 */
+	Entity set(int cell, Entity e);
+	
+	/**
+	 * Empties all cells.
+	 */
+	void clear();
+	
+	
+	/**
+	 * Creates the store for the given backend.
+	 * @param storage Selected backend
+	 * @param cellCount Number of cells of the grid
+	 * @return New empty store.
+	 */
+	static CellStore create(GridStorage storage, int cellCount) {
+		switch (storage) {
+			case SPARSE:
+				return new SparseCellStore();
+			default:
+				return new DenseCellStore(cellCount);
+		}
+	}
+	
+}
@@ -0,0 +1,61 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * List of grid cells changed since the last drain.
+ * A cell can be in the list more than once. When too many cells change,
+ * the list gives up and reports that everything changed.
+ */
+class ChangedCells {
+	private final int limit;
+	private int[] cells = new int[64];
+	private int size;
+	private boolean all = true; // ilk çizimde her şey değişmiş sayılır
+	
+	/**
+	 * Constructor for ChangedCells class.
+	 * @param limit Number of changes after which everything counts as changed
+	 */
+	ChangedCells(int limit) {
+		this.limit = limit;
+	}
+	
+	/**
+	 * Records a changed cell.
+	 * @param cell Index of the cell
+	 */
+	void add(int cell) {
+		if (all) {
+			return;
+		}
+		if (size == limit) {
+			markAll();
+			return;
+		}
+		if (size == cells.length) {
+			cells = Arrays.copyOf(cells, Math.min(limit, size * 2));
+		}
+		cells[size++] = cell;
+	}
+	
+	/**
+	 * Marks every cell as changed.
+	 */
+	void markAll() {
+		all = true;
+		size = 0;
+	}
+	
+	/**
+	 * Gives the changed cells and starts a new list.
+	 * @return Changed cells, or null if everything changed.
+	 */
+	int[] drain() {
+		int[] result = all ? null : Arrays.copyOf(cells, size);
+		all = false;
+		size = 0;
+		return result;
+	}
+	
+}
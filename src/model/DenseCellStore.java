@@ -0,0 +1,36 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Cell store with one entity reference per cell.
+ */
+class DenseCellStore implements CellStore {
+	private final Entity[] cells;
+	
+	/**
+	 * Constructor for DenseCellStore class.
+	 * @param cellCount Number of cells
+	 */
+	DenseCellStore(int cellCount) {
+		this.cells = new Entity[cellCount];
+	}
+	
+	@Override
+	public Entity get(int cell) {
+		return cells[cell];
+	}
+	
+	@Override
+	public Entity set(int cell, Entity e) {
+		Entity old = cells[cell];
+		cells[cell] = e;
+		return old;
+	}
+	
+	@Override
+	public void clear() {
+		Arrays.fill(cells, null);
+	}
+	
+}
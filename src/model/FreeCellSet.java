@@ -0,0 +1,111 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Set of empty cell indexes that supports O(1) add, remove and uniform random sampling.
+ * Cells are kept in a dense array, removing a cell moves the last cell into its place.
+ * Costs 8 bytes per cell of the grid, so it is not used with SPARSE storage.
+ */
+class FreeCellSet {
+	private final int[] cells; // ilk "size" eleman boş hücreler
+	private final int[] positions; // cell -> position in cells, -1 if not free
+	private int size;
+	
+	/**
+	 * Creates the set with every cell free.
+	 * @param cellCount Number of cells of the grid
+	 */
+	FreeCellSet(int cellCount) {
+		this.cells = new int[cellCount];
+		this.positions = new int[cellCount];
+		reset();
+	}
+	
+	/**
+	 * Marks every cell free again.
+	 */
+	void reset() {
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = i;
+			positions[i] = i;
+		}
+		size = cells.length;
+	}
+	
+	/**
+	 * Adds a cell to the set.
+	 * @param cell Index of the cell
+	 */
+	void add(int cell) {
+		if (positions[cell] >= 0) {
+			return;
+		}
+		cells[size] = cell;
+		positions[cell] = size;
+		size++;
+	}
+	
+	/**
+	 * Removes a cell from the set by swapping the last cell into its place.
+	 * @param cell Index of the cell
+	 */
+	void remove(int cell) {
+		int pos = positions[cell];
+		if (pos < 0) {
+			return;
+		}
+		
+		int last = cells[size - 1];
+		cells[pos] = last;
+		positions[last] = pos;
+		positions[cell] = -1;
+		size--;
+	}
+	
+	/**
+	 * Gives the cell at given position of the set.
+	 * @param i Position between 0 and size() - 1
+	 * @return Index of the cell.
+	 */
+	int get(int i) {
+		return cells[i];
+	}
+	
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Gives the free cells in their current order.
+	 * @return Copy of the first size() cells.
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(cells, size);
+	}
+	
+	/**
+	 * Puts the free cells into the given order.
+	 * @param order Every free cell exactly once
+	 * @return false if the order is not made of the free cells, the set is not changed then.
+	 */
+	boolean setOrder(int[] order) {
+		if (order.length != size) {
+			return false;
+		}
+		boolean[] seen = new boolean[positions.length];
+		for (int cell : order) {
+			if (cell < 0 || cell >= positions.length || positions[cell] < 0 || seen[cell]) {
+				return false;
+			}
+			seen[cell] = true;
+		}
+		
+		for (int i = 0; i < order.length; i++) {
+			cells[i] = order[i];
+			positions[order[i]] = i;
+		}
+		return true;
+	}
+	
+}
@@ -1,23 +1,69 @@
 package model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import util.Distance;
+import util.GameEventBus;
+import util.GameRandom;
+
 /**
  * 2D game board.
  * All animals and food are on this grid.
- * Can be 10x10 15x15 20x20
+ * Can be 10x10 15x15 20x20, or much larger with SPARSE storage.
+ * Also keeps an index of entities by type so that AI can find them without scanning the map.
  */
 public class Grid {
-	private Entity[][] map; // elemanları animal, food veya null olur.	
+	private CellStore map; // elemanları animal, food veya null olur.	
+	private GridStorage storage;
+	private GameRandom random; // respawn ve yerleştirme için
+	private FreeCellSet freeCells; // null for SPARSE storage
+	private int occupiedCount;
 	private int rows; // y-ekseni
 	private int cols; // x-ekseni
 	
+	private Map<Class<?>, Set<Entity>> entitiesByType; // concrete class -> entities on grid
+	private Map<Entity, Integer> indexedCells; // entity -> cell index (y * cols + x) it is indexed at
+	private ChangedCells changes; // null ise değişiklik takibi kapalı
+	private long version; // her değişiklikte artıyor
+	private boolean spawnTiming; // metrikler açıksa boş hücre arama süresi ölçülüyor
+	private long spawnNanos;
+	private GameEventBus events = new GameEventBus(); // hamle, yeme, respawn olayları
+	
 	/**
 	 * Constructs a grid with given size.
 	 * @param rows Height of grid
 	 * @param cols Width of grid
 	 */
 	public Grid(int rows, int cols) {
+		this(rows, cols, GridStorage.DENSE);
+	}
+	
+	/**
+	 * Constructs a grid with given size and storage backend.
+	 * @param rows Height of grid
+	 * @param cols Width of grid
+	 * @param storage How the cells are stored
+	 */
+	public Grid(int rows, int cols, GridStorage storage) {
+		if ((long) rows * cols > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Grid is too large: " + rows + "x" + cols);
+		}
+		
 		this.rows = rows;
 		this.cols = cols;
-		this.map = new Entity[rows][cols]; 
+		this.storage = storage;
+		this.map = CellStore.create(storage, rows * cols); 
+		if (storage != GridStorage.SPARSE) {
+			this.freeCells = new FreeCellSet(rows * cols);
+		}
+		this.random = new GameRandom(GameRandom.newSeed());
+		this.entitiesByType = new HashMap<>();
+		this.indexedCells = new IdentityHashMap<>();
 	}
 	
 	/**
@@ -42,9 +88,19 @@ public class Grid {
 	 */
 	public void putEntity(Entity e, int x, int y) {
 		if (isValidPosition(x, y)) {
-			map[y][x] = e;
+			Entity old = map.set(y * cols + x, e);
+			if (old != null && old != e) {
+				unindex(old, x, y);
+			}
+			updateOccupancy(y * cols + x, old, e);
+			version++;
+			if (changes != null) {
+				changes.add(y * cols + x);
+			}
+			
 			if (e != null) {
 				e.setPosition(x, y);
+				index(e, x, y);
 			}
 		}
 	}
@@ -56,7 +112,15 @@ public class Grid {
 	 */
 	public void removeEntity(int x, int y) {
 		if (isValidPosition(x, y)) {
-			map[y][x] = null;
+			Entity old = map.set(y * cols + x, null);
+			if (old != null) {
+				unindex(old, x, y);
+			}
+			updateOccupancy(y * cols + x, old, null);
+			version++;
+			if (changes != null) {
+				changes.add(y * cols + x);
+			}
 		}
 	}
 	
@@ -68,13 +132,23 @@ public class Grid {
 	 */
 	public Entity getEntity(int x, int y) {
 		if (isValidPosition(x, y)) {
-			return map[y][x];
+			return map.get(y * cols + x);
 		}
 		else {
 			return null;
 		}
 	}
 	
+	/**
+	 * Gives the entity in a cell without checking bounds.
+	 * Used by OffsetTable when all offsets are known to be inside the grid.
+	 * @param cell Index of the cell (y * cols + x)
+	 * @return The entity or null.
+	 */
+	Entity getEntityAt(int cell) {
+		return map.get(cell);
+	}
+	
 	/**
 	 * Cheks if given position is empty.
 	 * @param x Coordinate-X to be checked
@@ -83,7 +157,7 @@ public class Grid {
 	 */
 	public boolean isEmpty(int x, int y) {
 		if (isValidPosition(x, y)) {
-			if (map[y][x] == null) {
+			if (map.get(y * cols + x) == null) {
 				return true;
 			}
 			else {
@@ -97,6 +171,349 @@ public class Grid {
 	
 	
 	
+	/**
+	 * Empties all cells of the grid.
+	 */
+	public void clear() {
+		map.clear();
+		entitiesByType.clear();
+		indexedCells.clear();
+		occupiedCount = 0;
+		version++;
+		if (freeCells != null) {
+			freeCells.reset();
+		}
+		if (changes != null) {
+			changes.markAll();
+		}
+	}
+	
+	/**
+	 * Turns tracking of changed cells on or off.
+	 * When on, every putEntity() and removeEntity() records its cell until drainChangedCells() is called.
+	 * Used by the GUI to repaint only the cells that changed in a round.
+	 * @param enabled true to track changes
+	 */
+	public void setChangeTracking(boolean enabled) {
+		if (!enabled) {
+			changes = null;
+		}
+		else if (changes == null) {
+			// çok fazla hücre değişirse hepsini çizmek daha ucuz
+			changes = new ChangedCells(Math.max(64, (int) Math.min(1 << 16, (long) rows * cols / 4)));
+		}
+	}
+	
+	/**
+	 * Gives the cells changed since the last call and starts tracking again.
+	 * @return Indexes of changed cells (y * cols + x), possibly with duplicates,
+	 * or null if tracking is off or too many cells changed.
+	 */
+	public int[] drainChangedCells() {
+		return changes == null ? null : changes.drain();
+	}
+	
+	/**
+	 * Picks a uniformly random empty cell.
+	 * O(1) with the free cell set. SPARSE grids try random cells first,
+	 * which is fast when the board is mostly empty, and fall back to counting empty cells.
+	 * The time is added to getSpawnNanos() if spawn timing is on.
+	 * @return Index of the cell (y * cols + x), or -1 if the grid is full.
+	 */
+	public int randomEmptyCell() {
+		if (!spawnTiming) {
+			return pickEmptyCell();
+		}
+		long start = System.nanoTime();
+		int cell = pickEmptyCell();
+		spawnNanos += System.nanoTime() - start;
+		return cell;
+	}
+	
+	private int pickEmptyCell() {
+		int emptyCount = getEmptyCellCount();
+		if (emptyCount == 0) {
+			return -1;
+		}
+		
+		if (freeCells != null) {
+			return freeCells.get(random.nextInt(emptyCount));
+		}
+		
+		int cellCount = rows * cols;
+		for (int i = 0; i < 64; i++) {
+			int cell = random.nextInt(cellCount);
+			if (map.get(cell) == null) {
+				return cell;
+			}
+		}
+		
+		int skip = random.nextInt(emptyCount);
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (map.get(cell) == null) {
+				if (skip == 0) {
+					return cell;
+				}
+				skip--;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Puts the entity at a uniformly random empty cell.
+	 * @param e The entity to place
+	 * @return false if the grid is full and the entity could not be placed.
+	 */
+	public boolean putEntityRandomly(Entity e) {
+		int cell = randomEmptyCell();
+		if (cell < 0) {
+			return false;
+		}
+		putEntity(e, cell % cols, cell / cols);
+		return true;
+	}
+	
+	/**
+	 * Checks if there is no empty cell left.
+	 * @return true if every cell is occupied.
+	 */
+	public boolean isFull() {
+		return getEmptyCellCount() == 0;
+	}
+	
+	/**
+	 * Gives the number of empty cells.
+	 * @return Number of empty cells.
+	 */
+	public int getEmptyCellCount() {
+		return rows * cols - occupiedCount;
+	}
+	
+	/**
+	 * Gives the empty cells in the order randomEmptyCell() picks from.
+	 * The order depends on the history of the grid, so it is needed to continue a game exactly.
+	 * @return Copy of the order, null for SPARSE storage which picks without an order.
+	 */
+	public int[] getFreeCellOrder() {
+		return freeCells == null ? null : freeCells.toArray();
+	}
+	
+	/**
+	 * Restores an order taken by getFreeCellOrder().
+	 * @param order The order, null is accepted for SPARSE storage
+	 * @return false if the order does not hold exactly the empty cells of this grid.
+	 */
+	public boolean restoreFreeCellOrder(int[] order) {
+		if (freeCells == null || order == null) {
+			return freeCells == null && order == null;
+		}
+		return freeCells.setOrder(order);
+	}
+	
+	/**
+	 * Finds the entity closest to the given position among the given types.
+	 * Uses the type index, so only entities of these types are checked.
+	 * On equal distance the entity that comes first in row order is returned,
+	 * same as scanning the map row by row.
+	 * When there are many candidates the map is searched in growing rings around
+	 * the position instead, which only looks at the cells near the closest one.
+	 * @param x Coordinate-X to measure from
+	 * @param y Coordinate-Y to measure from
+	 * @param types Types to search
+	 * @return The closest entity or null if there is none.
+	 */
+	public Entity findNearest(int x, int y, Class<?>... types) {
+		long candidates = 0;
+		for (Map.Entry<Class<?>, Set<Entity>> entry : entitiesByType.entrySet()) {
+			if (isOneOf(entry.getKey(), types)) {
+				candidates += entry.getValue().size();
+			}
+		}
+		
+		// halka araması yaklaşık hücre/aday kadar hücreye bakar, hücre okumak set gezmekten ucuz
+		if (candidates * candidates * 8 > (long) rows * cols) {
+			return findNearestInRings(x, y, types);
+		}
+		
+		Entity closest = null;
+		int minDistance = Integer.MAX_VALUE;
+		int closestCell = Integer.MAX_VALUE;
+		
+		for (Map.Entry<Class<?>, Set<Entity>> entry : entitiesByType.entrySet()) {
+			if (!isOneOf(entry.getKey(), types)) {
+				continue;
+			}
+			
+			for (Entity e : entry.getValue()) {
+				int distance = Distance.squared(x, y, e.getX(), e.getY());
+				int cell = e.getY() * cols + e.getX();
+				
+				if (distance < minDistance || (distance == minDistance && cell < closestCell)) {
+					minDistance = distance;
+					closestCell = cell;
+					closest = e;
+				}
+			}
+		}
+		return closest;
+	}
+	
+	/**
+	 * Finds the closest entity by checking the cells ring by ring around the position.
+	 * Gives the same result as the index scan in findNearest().
+	 * @param x Coordinate-X to measure from
+	 * @param y Coordinate-Y to measure from
+	 * @param types Types to search
+	 * @return The closest entity or null if there is none.
+	 */
+	private Entity findNearestInRings(int x, int y, Class<?>[] types) {
+		Entity closest = null;
+		int minDistance = Integer.MAX_VALUE;
+		int closestCell = Integer.MAX_VALUE;
+		int maxRing = Math.max(Math.max(x, cols - 1 - x), Math.max(y, rows - 1 - y));
+		
+		for (int r = 0; r <= maxRing; r++) {
+			// r. halkadaki her hücrenin mesafe karesi en az r * r
+			if ((long) r * r > minDistance) {
+				break;
+			}
+			
+			int top = Math.max(y - r, 0);
+			int bottom = Math.min(y + r, rows - 1);
+			int left = Math.max(x - r, 0);
+			int right = Math.min(x + r, cols - 1);
+			
+			for (int cy = top; cy <= bottom; cy++) {
+				boolean edgeRow = (cy == y - r || cy == y + r);
+				int step = edgeRow ? 1 : 2 * r;
+				
+				for (int cx = edgeRow ? left : x - r; cx <= right; cx += Math.max(step, 1)) {
+					if (cx < 0) {
+						continue;
+					}
+					
+					int cell = cy * cols + cx;
+					Entity e = map.get(cell);
+					if (e == null || !isOneOf(e.getClass(), types)) {
+						continue;
+					}
+					
+					int distance = Distance.squared(x, y, cx, cy);
+					if (distance < minDistance || (distance == minDistance && cell < closestCell)) {
+						minDistance = distance;
+						closestCell = cell;
+						closest = e;
+					}
+				}
+			}
+		}
+		return closest;
+	}
+	
+	/**
+	 * Calls the action for every entity on the grid, grouped by type.
+	 * The grid must not be changed by the action.
+	 * @param action Action to call
+	 */
+	public void forEachEntity(Consumer<? super Entity> action) {
+		for (Set<Entity> entities : entitiesByType.values()) {
+			for (Entity e : entities) {
+				action.accept(e);
+			}
+		}
+	}
+	
+	/**
+	 * Gives the number of entities on the grid.
+	 * @return Number of entities.
+	 */
+	public int getEntityCount() {
+		return indexedCells.size();
+	}
+	
+	/**
+	 * Gives the number of entities of given type on the grid.
+	 * @param type Type to count
+	 * @return Number of entities.
+	 */
+	public int countEntities(Class<?> type) {
+		int count = 0;
+		for (Map.Entry<Class<?>, Set<Entity>> entry : entitiesByType.entrySet()) {
+			if (type.isAssignableFrom(entry.getKey())) {
+				count += entry.getValue().size();
+			}
+		}
+		return count;
+	}
+	
+	
+	/**
+	 * Adds entity to the type index at given cell.
+	 * @param e Entity to add
+	 * @param x Coordinate-X of entity
+	 * @param y Coordinate-Y of entity
+	 */
+	private void index(Entity e, int x, int y) {
+		indexedCells.put(e, y * cols + x);
+		entitiesByType.computeIfAbsent(e.getClass(), k -> new LinkedHashSet<>()).add(e);
+	}
+	
+	/**
+	 * Removes entity from the type index if it is indexed at given cell.
+	 * An entity that has already been put somewhere else (e.g. respawned food) stays in the index.
+	 * @param e Entity to remove
+	 * @param x Coordinate-X of the cell
+	 * @param y Coordinate-Y of the cell
+	 */
+	private void unindex(Entity e, int x, int y) {
+		Integer cell = indexedCells.get(e);
+		if (cell != null && cell == y * cols + x) {
+			indexedCells.remove(e);
+			Set<Entity> set = entitiesByType.get(e.getClass());
+			if (set != null) {
+				set.remove(e);
+			}
+		}
+	}
+	
+	/**
+	 * Updates the occupied count and free cell set after a cell changed.
+	 * @param cell Index of the cell
+	 * @param old Entity that was in the cell
+	 * @param e Entity that is in the cell now
+	 */
+	private void updateOccupancy(int cell, Entity old, Entity e) {
+		if (old == null && e != null) {
+			occupiedCount++;
+			if (freeCells != null) {
+				freeCells.remove(cell);
+			}
+		}
+		else if (old != null && e == null) {
+			occupiedCount--;
+			if (freeCells != null) {
+				freeCells.add(cell);
+			}
+		}
+	}
+	
+	/**
+	 * Checks if given class is one of the given types or a subclass of them.
+	 * @param c Class to check
+	 * @param types Types to compare
+	 * @return true if it matches one of them.
+	 */
+	private static boolean isOneOf(Class<?> c, Class<?>[] types) {
+		for (Class<?> type : types) {
+			if (type.isAssignableFrom(c)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
 	// basic getter-setters
 
 	public int getRows() {
@@ -107,6 +524,47 @@ public class Grid {
 		return cols;
 	}
 	
+	/**
+	 * Gives the version of the cells.
+	 * Grows with every putEntity(), removeEntity() and clear(), so cached results can be checked.
+	 * @return Version number.
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	public GridStorage getStorage() {
+		return storage;
+	}
+	
+	public GameRandom getRandom() {
+		return random;
+	}
+	
+	public void setRandom(GameRandom random) {
+		this.random = random;
+	}
+	
+	/**
+	 * Gives the total time spent in randomEmptyCell() since spawn timing was turned on.
+	 * @return Time in nanoseconds.
+	 */
+	public long getSpawnNanos() {
+		return spawnNanos;
+	}
+	
+	public GameEventBus getEvents() {
+		return events;
+	}
+	
+	public void setEvents(GameEventBus events) {
+		this.events = events;
+	}
+	
+	public void setSpawnTiming(boolean enabled) {
+		this.spawnTiming = enabled;
+	}
+	
 	public void setRows(int rows) {
 		this.rows = rows;
 	}
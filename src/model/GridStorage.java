@@ -0,0 +1,22 @@
+package model;
+/**
+ * Storage backends of the Grid.
+ * Selected when the grid is constructed, all of them behave the same.
+ * Memory per cell is measured by bench.GridMemoryBenchmark.
+ */
+public enum GridStorage {
+	/**
+	 * One entity reference per cell.
+	 * Fastest lookups, good for the normal 10x10 - 20x20 boards.
+	 * Keeps a free cell set for O(1) random empty cell sampling.
+	 */
+	DENSE,
+	
+	/**
+	 * Only occupied cells are stored in an open addressing hash table.
+	 * Memory depends on the number of entities (about 100 bytes each with the type index), not on the board size.
+	 * Best for very large boards that are mostly empty.
+	 * Has no free cell set, random empty cells are found by trying random cells.
+	 */
+	SPARSE
+}
@@ -0,0 +1,23 @@
+package model;
+
+/**
+ * Interface for bot animals whose move is decided and applied in two steps.
+ * planMove() only reads the grid, so many animals can plan at the same time.
+ * commitMove() applies the planned move and must be called one animal at a time.
+ */
+public interface IPlannable {
+	/**
+	 * Decides the next move without changing the grid or the animal.
+	 * @param grid The game grid
+	 */
+	void planMove(Grid grid);
+	
+	/**
+	 * Applies the planned move.
+	 * If the target cell was taken after planning, the animal stays where it is.
+	 * @param grid The game grid
+	 * @return false if the planned move could not be applied.
+	 */
+	boolean commitMove(Grid grid);
+	
+}
@@ -0,0 +1,107 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of candidate moves stored in two parallel int arrays.
+ * Each animal keeps its own buffer and clears it before filling,
+ * so generating and choosing moves does not allocate.
+ */
+public class MoveBuffer {
+	private int[] xs;
+	private int[] ys;
+	private int size;
+	
+	/**
+	 * Constructor for MoveBuffer class.
+	 */
+	public MoveBuffer() {
+		this(32);
+	}
+	
+	/**
+	 * Constructor for MoveBuffer class.
+	 * @param capacity Initial capacity, the buffer grows if needed
+	 */
+	public MoveBuffer(int capacity) {
+		this.xs = new int[capacity];
+		this.ys = new int[capacity];
+	}
+	
+	/**
+	 * Removes all moves.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Adds a move to the end of the buffer.
+	 * @param x Coordinate-X of the move
+	 * @param y Coordinate-Y of the move
+	 */
+	public void add(int x, int y) {
+		if (size == xs.length) {
+			xs = Arrays.copyOf(xs, size * 2);
+			ys = Arrays.copyOf(ys, size * 2);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		size++;
+	}
+	
+	/**
+	 * Keeps only the first n moves.
+	 * Used for filtering in place.
+	 * @param n New size
+	 */
+	public void truncate(int n) {
+		size = n;
+	}
+	
+	/**
+	 * Overwrites the move at given index.
+	 * Used for filtering in place.
+	 * @param i Index of the move
+	 * @param x Coordinate-X of the move
+	 * @param y Coordinate-Y of the move
+	 */
+	public void set(int i, int x, int y) {
+		xs[i] = x;
+		ys[i] = y;
+	}
+	
+	/**
+	 * Checks if the buffer has the given move.
+	 * @param x Coordinate-X of the move
+	 * @param y Coordinate-Y of the move
+	 * @return true if the move is in the buffer.
+	 */
+	public boolean contains(int x, int y) {
+		for (int i = 0; i < size; i++) {
+			if (xs[i] == x && ys[i] == y) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	// getter-setters
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	public int getX(int i) {
+		return xs[i];
+	}
+	
+	public int getY(int i) {
+		return ys[i];
+	}
+	
+}
@@ -0,0 +1,154 @@
+package model;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import logic.GameMode;
+import util.Distance;
+
+/**
+ * Offset tables of every move type, built once when the class is loaded.
+ * Standard moves are the same in every era, special abilities are looked up by era.
+ */
+public final class MoveOffsets {
+	
+	/**
+	 * One step in any of the 8 directions, used by every animal's standard move.
+	 */
+	public static final OffsetTable STEP = square(1);
+	
+	private static final Map<GameMode, OffsetTable> PREY_ABILITY = new EnumMap<>(GameMode.class);
+	private static final Map<GameMode, OffsetTable> APEX_ABILITY = new EnumMap<>(GameMode.class);
+	private static final Map<GameMode, OffsetTable> PREDATOR_ABILITY = new EnumMap<>(GameMode.class);
+	
+	static {
+		// PAST: çapraz 1 adım, PRESENT: 2 kare, FUTURE: tam 3 kare uzağa zıplama
+		PREY_ABILITY.put(GameMode.PAST, new OffsetTable(new int[]{1, 1, -1, -1}, new int[]{1, -1, 1, -1}));
+		PREY_ABILITY.put(GameMode.PRESENT, square(2));
+		PREY_ABILITY.put(GameMode.FUTURE, ring(3));
+		
+		// PAST: 8 yönde tam 2 kare, PRESENT: 3 kare, FUTURE: 3 kare yarıçaplı daire
+		APEX_ABILITY.put(GameMode.PAST, lines(2, true));
+		APEX_ABILITY.put(GameMode.PRESENT, square(3));
+		APEX_ABILITY.put(GameMode.FUTURE, circle(3));
+		
+		// PAST: 4 yönde tam 2 kare, PRESENT (apex yanındayken) ve FUTURE: 2 kare
+		PREDATOR_ABILITY.put(GameMode.PAST, lines(2, false));
+		PREDATOR_ABILITY.put(GameMode.PRESENT, square(2));
+		PREDATOR_ABILITY.put(GameMode.FUTURE, square(2));
+	}
+	
+	private MoveOffsets() {
+	}
+	
+	
+	/**
+	 * Gives the special ability moves of prey in given era.
+	 * @param era Current era
+	 * @return Offset table of the ability.
+	 */
+	public static OffsetTable preyAbility(GameMode era) {
+		return PREY_ABILITY.get(era);
+	}
+	
+	/**
+	 * Gives the special ability moves of apex predators in given era.
+	 * @param era Current era
+	 * @return Offset table of the ability.
+	 */
+	public static OffsetTable apexAbility(GameMode era) {
+		return APEX_ABILITY.get(era);
+	}
+	
+	/**
+	 * Gives the special ability moves of the player predator in given era.
+	 * These are added on top of the standard moves.
+	 * @param era Current era
+	 * @return Offset table of the ability.
+	 */
+	public static OffsetTable predatorAbility(GameMode era) {
+		return PREDATOR_ABILITY.get(era);
+	}
+	
+	
+	//////////////////////// TABLE BUILDERS ///////////////////////////////
+	
+	/**
+	 * All cells within Chebyshev distance r, row by row.
+	 * @param r Radius
+	 * @return The table.
+	 */
+	private static OffsetTable square(int r) {
+		return filtered(r, 0);
+	}
+	
+	/**
+	 * Cells exactly r cells away on x or y.
+	 * @param r Radius
+	 * @return The table.
+	 */
+	private static OffsetTable ring(int r) {
+		return filtered(r, 1);
+	}
+	
+	/**
+	 * Cells within Euclidean distance r.
+	 * @param r Radius
+	 * @return The table.
+	 */
+	private static OffsetTable circle(int r) {
+		return filtered(r, 2);
+	}
+	
+	/**
+	 * Builds a table from the square of radius r with the given shape filter.
+	 * @param r Radius
+	 * @param shape 0 square, 1 ring, 2 circle
+	 * @return The table.
+	 */
+	private static OffsetTable filtered(int r, int shape) {
+		int side = 2 * r + 1;
+		int[] dx = new int[side * side];
+		int[] dy = new int[side * side];
+		int n = 0;
+		
+		for (int y = -r; y <= r; y++) {
+			for (int x = -r; x <= r; x++) {
+				if (x == 0 && y == 0) {
+					continue;
+				}
+				if (shape == 1 && Distance.chebyshev(0, 0, x, y) != r) {
+					continue;
+				}
+				if (shape == 2 && Distance.squared(0, 0, x, y) > r * r) {
+					continue;
+				}
+				dx[n] = x;
+				dy[n] = y;
+				n++;
+			}
+		}
+		return new OffsetTable(Arrays.copyOf(dx, n), Arrays.copyOf(dy, n));
+	}
+	
+	/**
+	 * Straight jumps of exactly the given distance.
+	 * @param distance Jump distance
+	 * @param withDiagonals true for 8 directions, false for 4
+	 * @return The table.
+	 */
+	private static OffsetTable lines(int distance, boolean withDiagonals) {
+		int[][] directions = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}};
+		int count = withDiagonals ? 8 : 4;
+		
+		int[] dx = new int[count];
+		int[] dy = new int[count];
+		for (int i = 0; i < count; i++) {
+			dx[i] = directions[i][0] * distance;
+			dy[i] = directions[i][1] * distance;
+		}
+		return new OffsetTable(dx, dy);
+	}
+	
+}
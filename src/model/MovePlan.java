@@ -0,0 +1,68 @@
+package model;
+
+/**
+ * Move decided by a bot animal in planMove(), applied later in commitMove().
+ * Each animal keeps and reuses its own plan.
+ */
+public class MovePlan {
+	private int fromX;
+	private int fromY;
+	private int targetX;
+	private int targetY;
+	private boolean hasMove;
+	private boolean usesAbility;
+	
+	/**
+	 * Sets the planned move.
+	 * @param from Animal that plans the move, its current position is saved
+	 * @param targetX Target X coordinate
+	 * @param targetY Target Y coordinate
+	 * @param usesAbility true if the move is a special ability move
+	 */
+	void set(Entity from, int targetX, int targetY, boolean usesAbility) {
+		this.fromX = from.getX();
+		this.fromY = from.getY();
+		this.targetX = targetX;
+		this.targetY = targetY;
+		this.hasMove = true;
+		this.usesAbility = usesAbility;
+	}
+	
+	/**
+	 * Sets the plan to "no move".
+	 */
+	void clear() {
+		this.hasMove = false;
+		this.usesAbility = false;
+	}
+	
+	
+	/**
+	 * Checks if the animal is still where it was when the move was planned.
+	 * An animal that was eaten and respawned in the meantime must not use an old plan.
+	 * @param e The animal
+	 * @return true if the animal has not moved since planning.
+	 */
+	boolean isFrom(Entity e) {
+		return e.getX() == fromX && e.getY() == fromY;
+	}
+	
+	
+	// getter-setters
+	public int getTargetX() {
+		return targetX;
+	}
+	
+	public int getTargetY() {
+		return targetY;
+	}
+	
+	public boolean hasMove() {
+		return hasMove;
+	}
+	
+	public boolean usesAbility() {
+		return usesAbility;
+	}
+	
+}
@@ -0,0 +1,111 @@
+package model;
+
+/**
+ * Precomputed list of relative cells (dx, dy) that an animal can reach with one kind of move.
+ * Tables are built once in MoveOffsets and shared by all animals.
+ * Offsets are kept in the order the old nested loops visited them (row by row),
+ * so the chosen moves do not change.
+ */
+public final class OffsetTable {
+	/**
+	 * Bits for the accept mask of collect().
+	 */
+	public static final int EMPTY = 1;
+	public static final int FOOD = 2;
+	public static final int PREY = 4;
+	public static final int PREDATOR = 8;
+	public static final int APEX = 16;
+	
+	private final int[] dx;
+	private final int[] dy;
+	private final int reach; // en uzak offset, kenar kontrolü için
+	
+	/**
+	 * Constructor for OffsetTable class.
+	 * @param dx X offsets
+	 * @param dy Y offsets, same length as dx
+	 */
+	OffsetTable(int[] dx, int[] dy) {
+		this.dx = dx;
+		this.dy = dy;
+		
+		int max = 0;
+		for (int i = 0; i < dx.length; i++) {
+			max = Math.max(max, Math.max(Math.abs(dx[i]), Math.abs(dy[i])));
+		}
+		this.reach = max;
+	}
+	
+	
+	/**
+	 * Adds the reachable cells around (x, y) whose occupant is accepted to the buffer.
+	 * Bounds are only checked when the animal is near an edge of the grid.
+	 * @param grid The game grid
+	 * @param x Coordinate-X of the animal
+	 * @param y Coordinate-Y of the animal
+	 * @param out Buffer to add the moves
+	 * @param accept Accepted occupants, a combination of EMPTY, FOOD, PREY, PREDATOR and APEX
+	 */
+	public void collect(Grid grid, int x, int y, MoveBuffer out, int accept) {
+		int cols = grid.getCols();
+		boolean inside = x - reach >= 0 && y - reach >= 0 && x + reach < cols && y + reach < grid.getRows();
+		
+		if (inside) {
+			int origin = y * cols + x;
+			for (int i = 0; i < dx.length; i++) {
+				Entity e = grid.getEntityAt(origin + dy[i] * cols + dx[i]);
+				if ((kindOf(e) & accept) != 0) {
+					out.add(x + dx[i], y + dy[i]);
+				}
+			}
+		}
+		else {
+			for (int i = 0; i < dx.length; i++) {
+				int newX = x + dx[i];
+				int newY = y + dy[i];
+				if (grid.isValidPosition(newX, newY) && (kindOf(grid.getEntity(newX, newY)) & accept) != 0) {
+					out.add(newX, newY);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Gives the accept bit of the occupant of a cell.
+	 * @param e Occupant of the cell, null if empty
+	 * @return One of EMPTY, FOOD, PREY, PREDATOR and APEX.
+	 */
+	static int kindOf(Entity e) {
+		if (e == null) {
+			return EMPTY;
+		}
+		if (e instanceof Food) {
+			return FOOD;
+		}
+		if (e instanceof Prey) {
+			return PREY;
+		}
+		if (e instanceof ApexPredator) {
+			return APEX;
+		}
+		if (e instanceof Predator) {
+			return PREDATOR;
+		}
+		return 0;
+	}
+	
+	
+	// getter-setters
+	public int size() {
+		return dx.length;
+	}
+	
+	public int getDx(int i) {
+		return dx[i];
+	}
+	
+	public int getDy(int i) {
+		return dy[i];
+	}
+	
+}
@@ -3,15 +3,33 @@ package model;
 import java.util.ArrayList;
 import java.util.List;
 import logic.GameMode;
-import util.GameLogger;
-import java.security.SecureRandom;
+import util.Distance;
 
 /**
  * For predator type animals.
  */
 public class Predator extends Animal {
 	
+	// başka bir predator'un üstüne gidilemez (çoklu popülasyonda)
+	private static final int MOVE_TARGETS = OffsetTable.EMPTY | OffsetTable.PREY | OffsetTable.APEX;
+	
+	// hamleler oyuncunun etrafındaki 7x7 pencerede, her hücre bir bit
+	private static final int REACH = 3;
+	private static final int WINDOW = 2 * REACH + 1;
+	
 	private int abilityCooldown = 0;
+	private final MoveBuffer moves = new MoveBuffer();
+	
+	// yasal hamleler, grid versiyonu veya predator değişene kadar geçerli
+	private final MoveBuffer legalMoves = new MoveBuffer();
+	private long legalMask;
+	private long abilityMask;
+	private Grid cachedGrid;
+	private long cachedVersion = -1;
+	private int cachedX;
+	private int cachedY;
+	private int cachedCooldown;
+	private GameMode cachedEra;
 	
 	/**
 	 * Constructor for Predator class.
@@ -40,51 +58,128 @@ public class Predator extends Animal {
 	 
 	/**
 	 * Checks if the given given move is valid.
+	 * Answered from the legal move set of the current grid version.
 	 * @param grid The game grid
 	 * @param targetX Target X coordinate
 	 * @param targetY Target Y coordinate
 	 * @return true if the move is valid, false otherwise.
 	 */
 	public boolean isValidMove(Grid grid, int targetX, int targetY) {
-		List<int[]> validMoves = getAvailableMoves(grid);
-		for (int[] move : validMoves) {
-			if (move[0] == targetX && move[1] == targetY) {
-				return true;
+		refreshLegalMoves(grid);
+		return (legalMask & bitOf(targetX, targetY)) != 0;	
+	}
+	
+	/**
+	 * Checks if the given valid move uses the special ability.
+	 * Moves farther than one step are ability moves.
+	 * @param grid The game grid
+	 * @param targetX Target X coordinate
+	 * @param targetY Target Y coordinate
+	 * @return true if the move is valid and uses the ability.
+	 */
+	public boolean isAbilityMove(Grid grid, int targetX, int targetY) {
+		refreshLegalMoves(grid);
+		return (abilityMask & bitOf(targetX, targetY)) != 0;
+	}
+	
+	/**
+	 * Gives the legal moves of the current grid version, every cell once.
+	 * The buffer belongs to the predator and changes with the next call, it must not be modified.
+	 * @param grid The game grid
+	 * @return Legal moves.
+	 */
+	public MoveBuffer getLegalMoves(Grid grid) {
+		refreshLegalMoves(grid);
+		return legalMoves;
+	}
+	
+	/**
+	 * Computes the legal move set again if the grid or the predator changed since the last time.
+	 * @param grid The game grid
+	 */
+	private void refreshLegalMoves(Grid grid) {
+		if (grid == cachedGrid && grid.getVersion() == cachedVersion && getX() == cachedX && getY() == cachedY
+				&& abilityCooldown == cachedCooldown && era == cachedEra) {
+			return;
+		}
+		
+		fillAvailableMoves(grid, moves);
+		legalMoves.clear();
+		legalMask = 0;
+		abilityMask = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int x = moves.getX(i);
+			int y = moves.getY(i);
+			long bit = bitOf(x, y);
+			if ((legalMask & bit) != 0) {
+				continue;
+			}
+			
+			legalMask |= bit;
+			legalMoves.add(x, y);
+			// 1 adımlık hamlelerin mesafe karesi en fazla 2
+			if (Distance.squared(getX(), getY(), x, y) > 2) {
+				abilityMask |= bit;
 			}
 		}
-		return false;	
+		
+		cachedGrid = grid;
+		cachedVersion = grid.getVersion();
+		cachedX = getX();
+		cachedY = getY();
+		cachedCooldown = abilityCooldown;
+		cachedEra = era;
+	}
+	
+	/**
+	 * Gives the bit of a cell in the window around the predator.
+	 * @param x Coordinate-X of the cell
+	 * @param y Coordinate-Y of the cell
+	 * @return The bit, 0 if the cell is out of reach.
+	 */
+	private long bitOf(int x, int y) {
+		int dx = x - getX() + REACH;
+		int dy = y - getY() + REACH;
+		if (dx < 0 || dy < 0 || dx >= WINDOW || dy >= WINDOW) {
+			return 0;
+		}
+		return 1L << (dy * WINDOW + dx);
 	}
 	
 		
 	
 	/**
 	 * Calculates all possible moves.
+	 * Allocates a new list, fillAvailableMoves() should be used in hot paths.
 	 * @param grid The game grid
 	 * @return List of possible moves.
 	 */
 	public List<int[]> getAvailableMoves(Grid grid) {
-		List<int[]> moves = new ArrayList<>();
+		fillAvailableMoves(grid, moves);
 		
-		moves.addAll(getValidMovesInRange(grid, 1));	
+		List<int[]> list = new ArrayList<>(moves.size());
+		for (int i = 0; i < moves.size(); i++) {
+			list.add(new int[]{moves.getX(i), moves.getY(i)});
+		}
+		return list;
+	}
+	
+	/**
+	 * Calculates all possible moves into the given buffer.
+	 * The buffer is cleared first.
+	 * @param grid The game grid
+	 * @param buffer Buffer to fill with possible moves
+	 */
+	public void fillAvailableMoves(Grid grid, MoveBuffer buffer) {
+		buffer.clear();
+		getValidMoves(grid, MoveOffsets.STEP, buffer);	
 		
 		if (abilityCooldown == 0) {
-			switch (this.era) {
-				case PAST:
-					addLinearMoves(grid, moves, 2); 
-					break;
-					
-				case PRESENT:
-					if (isAdjacentToApex(grid)) {
-						moves.addAll(getValidMovesInRange(grid, 2));
-					}
-					break;
-					
-				case FUTURE:
-					moves.addAll(getValidMovesInRange(grid, 2));
-					break;
+			// PRESENT yeteneği sadece apex yanındayken açılıyor
+			if (this.era != GameMode.PRESENT || isAdjacentToApex(grid)) {
+				getValidMoves(grid, MoveOffsets.predatorAbility(this.era), buffer);
 			}
 		}
-		return moves;
 	}
 	
 	
@@ -97,51 +192,53 @@ public class Predator extends Animal {
 	 */
 	public boolean performMove(Grid grid, int targetX, int targetY) {
 		if (!isValidMove(grid, targetX, targetY)) {
-			System.out.println("Invalid Move!");
+			grid.getEvents().invalidMove(this, targetX, targetY);
 			return false;
 		}
 		
-		double distance = Math.sqrt(Math.pow(targetX - getX(), 2) + Math.pow(targetY - getY(), 2));
-		boolean isAbilityUsed = distance > 1.5;
+		boolean isAbilityUsed = isAbilityMove(grid, targetX, targetY);
 		
 		Entity targetEntity = grid.getEntity(targetX, targetY);
 		
 		if (targetEntity instanceof ApexPredator) {
-			System.out.println(this.name + " ran into an Apex Predator and DIED!");
-			GameLogger.log(this.getName() + " (Player) ran into Apex and DIED!");
+			// apex'in üstüne gitti, apex yemiş sayılıyor
 			this.changeScoreBy(-1);
-			GameLogger.log("Player loses -1 point.");
 			((ApexPredator) targetEntity).changeScoreBy(+1);
-			GameLogger.log(targetEntity.getName() +" (Apex Predator) gains +3 points." );
+			grid.getEvents().eat(targetEntity, this, targetX, targetY, 1);
 			
 			
 			grid.putEntity(null, this.getX(), this.getY());
 			respawnRandomly(grid); 
+			if (isAbilityUsed) {
+				outcome |= USED_ABILITY;
+			}
 			return true; 
 		}
 		
 		if (targetEntity instanceof Prey) {
-			System.out.println(this.getSymbol() + " ATE " + targetEntity.getSymbol() + "!");
-			GameLogger.log(this.name + " (Player) ATE " + targetEntity.getName() + " at (" + targetX + "," + targetY + ")");
 			this.changeScoreBy(3);
-			GameLogger.log("Player gains +3 points.");
 			((Prey) targetEntity).changeScoreBy(-1);
+			outcome |= ATE;
+			grid.getEvents().eat(this, targetEntity, targetX, targetY, 3);
 			
 			respawnVictimOnGrid(grid, targetEntity);
 			
 		}
 		
-		grid.putEntity(null, this.getX(), this.getY());
+		int fromX = this.getX();
+		int fromY = this.getY();
+		grid.putEntity(null, fromX, fromY);
 		this.setX(targetX);
 		this.setY(targetY);
 		grid.putEntity(this, targetX, targetY);
 		 
+		grid.getEvents().move(this, fromX, fromY, targetX, targetY);
+		 
 		if (isAbilityUsed) {
 			triggerCooldown();
+			outcome |= USED_ABILITY;
+			grid.getEvents().ability(this, fromX, fromY, targetX, targetY);
 		}
-		
-		System.out.println("Predator (Player) moved to (" + targetX + ", " + targetY + ")");
-		GameLogger.log(this.name + " (Player/Predator) moved to (" + targetX + ", " + targetY + ")");
 		return true;
 	}
 	
@@ -152,22 +249,13 @@ public class Predator extends Animal {
 	 * @param victim The victim to respawn.
 	 */
 	private void respawnVictimOnGrid(Grid grid, Entity victim) {
-		int maxAttempts = 50;
-		SecureRandom random = new SecureRandom();
-		
-		for (int i = 0; i < maxAttempts; i++) {
-			int randomX = random.nextInt(grid.getCols());
-			int randomY = random.nextInt(grid.getRows());
-			
-			if (grid.getEntity(randomX, randomY) == null) {
-				victim.setX(randomX);
-				victim.setY(randomY);
-				
-				grid.putEntity(victim, randomX, randomY);
-				return;
-			}
+		if (grid.putEntityRandomly(victim)) {
+			grid.getEvents().respawn(victim);
+		}
+		else {
+			outcome |= RESPAWN_FAILED;
+			grid.getEvents().respawnFailed(victim);
 		}
-		
 	}
 	
 	/**
@@ -191,31 +279,6 @@ public class Predator extends Animal {
 	/////////////////////////// HELPER METHODS FOR MOVEMENT /////////////////////////////
 	///
 	
-	/**
-	 * Adds valid linear moves to the list.
-	 * Needed for past era ability.
-	 * @param grid The game grid
-	 * @param moves The list to populate
-	 * @param distance The distance to check
-	 */
-	private void addLinearMoves(Grid grid, List<int[]> moves, int distance) {
-		int[][] directions = {{0, distance}, {0, -distance}, {distance, 0}, {-distance, 0}};
-		
-		for (int[] dir : directions) {
-			int newX = getX() + dir[0];
-			int newY = getY() + dir[1];
-			if (grid.isValidPosition(newX, newY)) {
-				
-				Entity targetEntity = grid.getEntity(newX, newY);
-				if (!(targetEntity instanceof Food)) {
-					moves.add(new int[]{newX, newY}); 
-				}
-				 	
-			}
-		}
-	}
-	
-	
 	/**
 	 * Checks if the preadator is currently adjacent to an apex.
 	 * Required for Present Era ability.
@@ -245,33 +308,13 @@ public class Predator extends Animal {
 	
 	
 	/**
-	 * Finds all available moves in a given range.
+	 * Adds every cell of an offset table except foods and other predators to the buffer.
 	 * @param grid The game grid
-	 * @param range range to search
-	 * @return list of valid moves   
+	 * @param offsets Reachable cells of the move
+	 * @param moves buffer to add valid moves   
 	 */
-	private List<int[]> getValidMovesInRange(Grid grid, int range) {
-		List<int[]> moves = new ArrayList<>();
-		int currentX= getX();
-		int currentY = getY();
-		
-		for (int y = currentY - range; y <= currentY + range; y++) {
-			for (int x = currentX - range; x <= currentX + range; x++) {
-				if (grid.isValidPosition(x, y) && !(x == currentX && y == currentY)) {
-					
-					Entity targetEntity = grid.getEntity(x, y);	
-					if (targetEntity instanceof Food) {
-						continue;
-					}
-					else {
-						moves.add(new int[]{x, y});
-					} 
-					
-				}
-			}
-			 
-		}
-		return moves;
+	private void getValidMoves(Grid grid, OffsetTable offsets, MoveBuffer moves) {
+		offsets.collect(grid, getX(), getY(), moves, MOVE_TARGETS);
 	}
 	
 	
@@ -280,21 +323,12 @@ public class Predator extends Animal {
 	 * @param grid The game grid
 	 */
 	private void respawnRandomly(Grid grid) {
-		int maxAttempts = 50;
-		SecureRandom random = new SecureRandom();
-		
-		for (int i = 0; i < maxAttempts; i++) {
-			int randomX = random.nextInt(grid.getCols());
-			int randomY = random.nextInt(grid.getRows());
-			
-			if (grid.getEntity(randomX, randomY) == null) {
-				this.setX(randomX);
-				this.setY(randomY);
-				grid.putEntity(this, randomX, randomY);
-				System.out.println("Predator RESPAWNED at (" + randomX + ", " + randomY + ")");
-				return;
-			}
-			  
+		if (grid.putEntityRandomly(this)) {
+			grid.getEvents().respawn(this);
+		}
+		else {
+			outcome |= RESPAWN_FAILED;
+			grid.getEvents().respawnFailed(this);
 		}
 	}
 	
@@ -314,4 +348,4 @@ public class Predator extends Animal {
 	
 	
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
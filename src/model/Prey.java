@@ -1,17 +1,19 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import logic.GameMode;
-import util.GameLogger;
-import java.security.SecureRandom;
+import util.Distance;
 /**
  * For prey type animals.
  */
-public class Prey extends Animal {
+public class Prey extends Animal implements IPlannable {
+	
+	private static final Class<?>[] THREAT_TYPES = {Predator.class, ApexPredator.class};
+	private static final Class<?>[] FOOD_TYPES = {Food.class};
+	private static final int MOVE_TARGETS = OffsetTable.EMPTY | OffsetTable.FOOD;
 	
 	private int abilityCooldown = 0; 
+	private final MoveBuffer candidates = new MoveBuffer();
+	private final MovePlan plan = new MovePlan();
 	
 	/**
 	 * Constructer for Prey class.
@@ -31,80 +33,94 @@ public class Prey extends Animal {
 	 */
 	@Override
 	public void makeMove(Grid grid) {
+		planMove(grid);
+		commitMove(grid);
+	}
+	
+	/**
+	 * Decides the move of the prey without changing the grid.
+	 * Special ability is planned if available, if not a standard move.
+	 * @param grid Grid that prey moves on
+	 */
+	@Override
+	public void planMove(Grid grid) {
+		Entity closestThreat = grid.findNearest(getX(), getY(), THREAT_TYPES);
+		Entity closestFood = grid.findNearest(getX(), getY(), FOOD_TYPES);
+		
+		if (this.abilityCooldown == 0 && planSpecialAbility(grid, closestThreat, closestFood)) {
+			return;
+		}
 		
-		List<Entity> threats = findEntities(grid, Predator.class, ApexPredator.class);
-		List<Entity> foods = findEntities(grid, Food.class);
+		planStandardMove(grid, closestThreat, closestFood);
+	}
+	
+	/**
+	 * Applies the planned move.
+	 * If the target cell was taken by another animal after planning, prey stays still.
+	 * If prey was eaten after planning, the plan is dropped.
+	 * @param grid Grid that prey moves on
+	 * @return false if the planned move could not be applied.
+	 */
+	@Override
+	public boolean commitMove(Grid grid) {
+		if (!plan.hasMove()) {
+			return true;
+		}
+		if (!plan.isFrom(this)) {
+			// planladıktan sonra yenip başka yerde doğmuş
+			plan.clear();
+			return false;
+		}
 		
-		Entity closestThreat = getClosest(threats);
-		Entity closestFood = getClosest(foods);
+		int targetX = plan.getTargetX();
+		int targetY = plan.getTargetY();
+		boolean stay = (targetX == getX() && targetY == getY());
 		
-		if (this.abilityCooldown == 0) {
-			boolean usedAbility = tryUseSpecialAbility(grid, closestThreat, closestFood);
-			if (usedAbility) {
-				setCooldownBasedOnEra();
-				return;
-			}
+		if (!stay && (OffsetTable.kindOf(grid.getEntity(targetX, targetY)) & MOVE_TARGETS) == 0) {
+			grid.getEvents().conflict(this, targetX, targetY);
+			stayStill(grid);
+			return false;
 		}
 		
-		makeStandardMove(grid, closestThreat, closestFood);
-				
+		if (plan.usesAbility()) {
+			int fromX = getX();
+			int fromY = getY();
+			moveTo(grid, targetX, targetY);
+			grid.getEvents().ability(this, fromX, fromY, targetX, targetY);
+			setCooldownBasedOnEra();
+			outcome |= USED_ABILITY;
+		}
+		else if (stay) {
+			stayStill(grid);
+		}
+		else {
+			moveTo(grid, targetX, targetY);
+		}
+		return true;
 	}
 	
 	/**
-	 * Tries to perform a special move based on the current era.
+	 * Tries to plan a special move based on the current era.
 	 * @param grid Grid that prey moves on
 	 * @param threat Predator and Apex Predators
 	 * @param food Foods
-	 * @return true if uses specieal ability.
+	 * @return true if special ability is planned.
 	 */
-	private boolean tryUseSpecialAbility(Grid grid, Entity threat, Entity food) {
-		List<int[]> candidates = new ArrayList<>();
-		boolean canEatFood = true;
-		int whichEra = 0;
+	private boolean planSpecialAbility(Grid grid, Entity threat, Entity food) {
+		candidates.clear();
+		// FUTURE: 3 kare zıpla ama yemek yiyemez
+		boolean canEatFood = (this.era != GameMode.FUTURE);
 		
-		switch (this.era) {
-			case PAST:
-				candidates = getDiagonalMoves(grid);
-				whichEra = 1; 
-				break;
-			case PRESENT:
-				candidates = getValidMoves(grid, 2);
-				whichEra = 2;
-				break;
-			case FUTURE:
-				// 3 kare zıpla ama yemek yiyemez
-				whichEra = 3;
-				List<int[]> moves = getValidMoves(grid, 3);
-				for (int[] move : moves) {
-					int dx = Math.abs(move[0] - getX());
-					int dy = Math.abs(move[1] - getY());
-					
-					if (dx == 3 || dy == 3) {
-						candidates.add(move);
-					}
-				}
-				canEatFood = false;
-				break;
-		}
+		getValidMoves(grid, MoveOffsets.preyAbility(this.era), candidates);
 		
 		if (candidates.isEmpty()) {
 			return false;
 		}
 		
-		int[] bestMove = pickBestMove(candidates, threat, food, canEatFood);
+		int best = pickBestMove(candidates, threat, food, canEatFood);
 		
-		if (bestMove != null) {
-			moveTo(grid, bestMove[0], bestMove[1]);
-			
-			if (whichEra == 1) {
-				System.out.println("Using past specieal move");
-			}
-			else if (whichEra == 2) {
-				System.out.println("Using present specieal move");
-			}
-			else if (whichEra == 3) {
-				System.out.println("Using future specieal move");
-			}
+		if (best >= 0) {
+			plan.set(this, candidates.getX(best), candidates.getY(best), true);
 			return true;
 		}
 		return false;	
@@ -112,29 +128,36 @@ public class Prey extends Animal {
 	}
 	
 	/**
-	 * Applies standart move for prey.
+	 * Plans standart move for prey.
+	 * Staying still is also a candidate.
 	 * @param grid Grid that prey moves on
 	 * @param threat Threat to run from
 	 * @param food Food
 	 */
-	private void makeStandardMove(Grid grid, Entity threat, Entity food) {
-		List<int[]> candidates = getValidMoves(grid, 1);
-		candidates.add(new int[]{getX(), getY()});
-		
-		int[] bestMove = pickBestMove(candidates, threat, food, true);
+	private void planStandardMove(Grid grid, Entity threat, Entity food) {
+		candidates.clear();
+		getValidMoves(grid, MoveOffsets.STEP, candidates);
+		candidates.add(getX(), getY());
 		
-		if (bestMove != null) {
-			if (bestMove[0] == getX() && bestMove[1] == getY()) {
-				if (this.abilityCooldown > 0) {
-					this.abilityCooldown--;
-				}
-				GameLogger.log(this.getName() + " (Prey) STAYED STILL at (" + this.getX() + "," + this.getY() + ")");
-			}
-			else {
-				moveTo(grid, bestMove[0], bestMove[1]);
-			}		
-		}	
+		int best = pickBestMove(candidates, threat, food, true);
 		
+		if (best >= 0) {
+			plan.set(this, candidates.getX(best), candidates.getY(best), false);
+		}
+		else {
+			plan.clear();
+		}
+	}
+	
+	/**
+	 * Keeps the prey in its cell for this round.
+	 * @param grid Grid that prey moves on
+	 */
+	private void stayStill(Grid grid) {
+		if (this.abilityCooldown > 0) {
+			this.abilityCooldown--;
+		}
+		grid.getEvents().move(this, getX(), getY(), getX(), getY());
 	}
 	
 	/**
@@ -145,25 +168,27 @@ public class Prey extends Animal {
 	 * @param threat Threat to run from
 	 * @param food Food
 	 * @param canEat Tells if prey can eat such entity
-	 * @return best move
+	 * @return index of the best move in candidates, -1 if there is none
 	 */
-	private int[] pickBestMove(List<int[]> candidates, Entity threat, Entity food, boolean canEat) {
-		int[] bestMove = null;
+	private int pickBestMove(MoveBuffer candidates, Entity threat, Entity food, boolean canEat) {
+		int bestMove = -1;
 		double bestScore = -Double.MAX_VALUE;
 		
 		// sürekli kaçmasını engellemek icin 
 		// böylece food'lara da yönelebilir.
-		double panicDistance = 3.0;
+		// mesafe karesi üzerinden, 3 karenin karesi 9
+		int panicDistanceSquared = 9;
 		
-		for (int[] move : candidates) {
+		for (int i = 0; i < candidates.size(); i++) {
 			double score = 0;
-			int targetX = move[0];
-			int targetY = move[1];
+			int targetX = candidates.getX(i);
+			int targetY = candidates.getY(i);
 			
 			if (threat != null) {
-				double distToThreat = getDistance(targetX, targetY, threat.getX(), threat.getY());
+				int threatSquared = Distance.squared(targetX, targetY, threat.getX(), threat.getY());
+				double distToThreat = Distance.euclidean(threatSquared);
 				
-				if (distToThreat < panicDistance) {
+				if (threatSquared < panicDistanceSquared) {
 					score += distToThreat * 20.0;
 				}
 				else {
@@ -174,14 +199,14 @@ public class Prey extends Animal {
 					
 			
 			if (food != null && canEat) {
-				double distToFood = getDistance(targetX, targetY, food.getX(), food.getY());
+				double distToFood = Distance.euclidean(Distance.squared(targetX, targetY, food.getX(), food.getY()));
 				score -= distToFood * 6.0;
 			} 
 			
 			
 			if (score > bestScore) {
 				bestScore = score;
-				bestMove = move;
+				bestMove = i;
 			}
 		}
 		
@@ -213,106 +238,13 @@ public class Prey extends Animal {
 	/// 
 	
 	/**
-	 * Finds desired typed entities on the grid.
+	 * Adds the empty cells and foods of an offset table to the buffer.
 	 * @param grid The game grid
-	 * @param types Types to find
-	 * @return List of entities found
+	 * @param offsets Reachable cells of the move
+	 * @param moves Buffer to add empty cells and foods
 	 */
-	@SafeVarargs
-	private final List<Entity> findEntities(Grid grid, Class<? extends Entity>... types){
-		List<Entity> list = new ArrayList<>();
-		
-		for (int y = 0; y < grid.getRows(); y++) {
-			for (int x = 0; x < grid.getCols(); x++) {
-				Entity e = grid.getEntity(x, y);
-				if (e != null) {
-					for (Class<? extends Entity> type : types) {
-						if (type.isInstance(e)) {
-							list.add(e);
-							break;
-							
-						}
-					}
-				}
-			}
-		}
-		return list;
-	}
-	
-	/**
-	 * Finds the closest entity in he given list.
-	 * @param entities List of entities
-	 * @return Returns the closest
-	 */
-	private Entity getClosest(List<Entity> entities) {
-		Entity closest = null;
-		
-		double minDistance = Double.MAX_VALUE;
-		
-		for (Entity e : entities) {
-			double distance = getDistance(this.getX(), this.getY(), e.getX(), e.getY());
-			if (distance < minDistance) {
-				minDistance = distance;
-				closest = e;
-			}
-		}
-		return closest;
-	}
-	
-	
-	
-	/**
-	 * Finds empty cells and foods in a given range.
-	 * @param grid The game grid
-	 * @param range The range to search
-	 * @return Rturns list of empty cells and foods
-	 */
-	private List<int[]> getValidMoves(Grid grid, int range){
-		List<int[]> moves = new ArrayList<>();
-		int currentX = getX();
-		int currentY = getY();
-		
-		for (int y = currentY - range; y <= currentY + range; y++) {
-			for (int x = currentX - range; x <= currentX + range; x++) {
-				
-				if (!grid.isValidPosition(x, y) || (x == currentX && y == currentY)) {
-					continue;
-				}
-				 
-				Entity target = grid.getEntity(x, y);
-				if (target == null || target instanceof Food) {
-					moves.add(new int[]{x, y});
-				}
-				
-			}
-		}
-		return moves;
-	}
-	
-	/**
-	 * Helper method for past era ability. 
-	 * @param grid The game grid
-	 * @return Returns possible diagonal moves.
-	 */
-	private List<int[]> getDiagonalMoves(Grid grid){
-		List<int[]> moves = new ArrayList<>();
-		int currentX = getX();
-		int currentY = getY();
-		
-		int[][] directions = { {1, 1}, {1, -1}, {-1, 1}, {-1, -1} };
-		
-		for (int[] dir : directions) {
-			int newX = currentX + dir[0];
-			int newY = currentY + dir[1];
-			
-			if (grid.isValidPosition(newX, newY)) {
-				Entity target = grid.getEntity(newX, newY);
-				if (target == null || target instanceof Food) {
-					moves.add(new int[]{newX, newY});
-				}
-			}
-		}
-		return moves;
+	private void getValidMoves(Grid grid, OffsetTable offsets, MoveBuffer moves){
+		offsets.collect(grid, getX(), getY(), moves, MOVE_TARGETS);
 	}
 	
 	
@@ -327,13 +259,20 @@ public class Prey extends Animal {
 		
 		if (target instanceof Food) {
 			this.changeScoreBy(3);
-			System.out.println(this.getSymbol() + " ATE FOOD!");
-			GameLogger.log(this.getName() + " (Prey) ATE FOOD at (" + newX + "," + newY + ")");   
+			outcome |= ATE;
+			grid.getEvents().eat(this, target, newX, newY, 3);
 			
-			int[] spawnPoint = getRandomEmptyCell(grid);
-			if (spawnPoint != null) {
-				((Food) target).respawn(spawnPoint[0], spawnPoint[1]);
-				grid.putEntity(target, spawnPoint[0], spawnPoint[1]);
+			int spawnCell = grid.randomEmptyCell();
+			if (spawnCell >= 0) {
+				int spawnX = spawnCell % grid.getCols();
+				int spawnY = spawnCell / grid.getCols();
+				((Food) target).respawn(spawnX, spawnY);
+				grid.putEntity(target, spawnX, spawnY);
+				grid.getEvents().respawn(target);
+			}
+			else {
+				outcome |= RESPAWN_FAILED;
+				grid.getEvents().respawnFailed(target);
 			}
 			
 			
@@ -343,53 +282,15 @@ public class Prey extends Animal {
 			this.abilityCooldown--;
 		} 
 		
-		grid.putEntity(null, this.getX(), this.getY());
+		int fromX = this.getX();
+		int fromY = this.getY();
+		grid.putEntity(null, fromX, fromY);
 		this.setX(newX);
 		this.setY(newY);
 		grid.putEntity(this, newX, newY);
+		grid.getEvents().move(this, fromX, fromY, newX, newY);
 		
-		System.out.println(this.getSymbol() + " (Prey AI) moved to (" + newX + ", " + newY + ")");
-		GameLogger.log(this.getName() + " (Prey) moved to (" + newX + ", " + newY + ")");
 		
-		
-	}
-	
-	
-	/**
-	 * Helper to find a random empty cell on the grid.
-	 * @param grid The game grid
-	 * @return coordinates of empty cell or null
-	 */
-	private int[] getRandomEmptyCell(Grid grid) {
-		int maxAttempts = 50;
-		int cols = grid.getCols();
-		int rows = grid.getRows();  
-		
-		SecureRandom random = new SecureRandom();
-		
-		for (int i = 0; i < maxAttempts; i++) {
-			int randomX = random.nextInt(cols);
-			int randomY = random.nextInt(rows);
-			
-			if (grid.getEntity(randomX, randomY) == null) {
-				return new int[] {randomX, randomY};
-			}
-			
-		}
-		return null;
-	}
-	
-	
-	/**
-	 * gives distance between given 2 points.
-	 * @param x1 x1
-	 * @param y1 y1
-	 * @param x2 x2
-	 * @param y2 y2 
-	 * @return
-	 */
-	private double getDistance(int x1, int y1, int x2, int y2) {	
-		return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
 	}
 	
 	
@@ -0,0 +1,157 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Cell store that keeps only occupied cells.
+ * Open addressing hash table from cell index to entity with linear probing.
+ * Removed keys are filled by shifting the following keys back, so no tombstones are left.
+ */
+class SparseCellStore implements CellStore {
+	private static final int EMPTY = -1;
+	
+	private int[] keys;
+	private Entity[] values;
+	private int mask;
+	private int size = 0;
+	
+	/**
+	 * Constructor for SparseCellStore class.
+	 */
+	SparseCellStore() {
+		allocate(64);
+	}
+	
+	@Override
+	public Entity get(int cell) {
+		int slot = find(cell);
+		if (slot < 0) {
+			return null;
+		}
+		return values[slot];
+	}
+	
+	@Override
+	public Entity set(int cell, Entity e) {
+		if (e == null) {
+			return remove(cell);
+		}
+		
+		int slot = hash(cell);
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == cell) {
+				Entity old = values[slot];
+				values[slot] = e;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		
+		keys[slot] = cell;
+		values[slot] = e;
+		size++;
+		
+		if (size * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+		return null;
+	}
+	
+	@Override
+	public void clear() {
+		allocate(64);
+		size = 0;
+	}
+	
+	
+	/**
+	 * Removes the cell from the table.
+	 * @param cell Index of the cell
+	 * @return The entity that was in the cell.
+	 */
+	private Entity remove(int cell) {
+		int slot = find(cell);
+		if (slot < 0) {
+			return null;
+		}
+		
+		Entity old = values[slot];
+		size--;
+		
+		// boşluğu arkadaki anahtarlarla doldur
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int home = hash(keys[next]);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		
+		keys[gap] = EMPTY;
+		values[gap] = null;
+		return old;
+	}
+	
+	/**
+	 * Finds the slot of the cell.
+	 * @param cell Index of the cell
+	 * @return Slot index or -1 if the cell is not in the table.
+	 */
+	private int find(int cell) {
+		int slot = hash(cell);
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == cell) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Spreads the cell index over the table.
+	 * @param cell Index of the cell
+	 * @return Home slot of the cell.
+	 */
+	private int hash(int cell) {
+		int h = cell * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+	
+	/**
+	 * Moves all entries into a bigger table.
+	 * @param capacity New capacity, a power of two
+	 */
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		Entity[] oldValues = values;
+		allocate(capacity);
+		
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = hash(oldKeys[i]);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+	
+	/**
+	 * Creates empty arrays with given capacity.
+	 * @param capacity Capacity, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		values = new Entity[capacity];
+		mask = capacity - 1;
+	}
+	
+}
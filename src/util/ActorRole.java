@@ -0,0 +1,59 @@
+package util;
+
+import model.ApexPredator;
+import model.Entity;
+import model.Food;
+import model.Predator;
+import model.Prey;
+
+/**
+ * Role of the actor or target of an event in the structured event log.
+ */
+public enum ActorRole {
+	/**
+	 * The event has no such entity, like a round end.
+	 */
+	NONE,
+
+	APEX,
+
+	/**
+	 * A predator moved by the bot policy.
+	 */
+	PREDATOR,
+
+	/**
+	 * The predator played by the player.
+	 */
+	PLAYER,
+
+	PREY,
+
+	FOOD;
+
+
+	/**
+	 * Gives the role of an entity.
+	 * @param e The entity, can be null
+	 * @param player Predator of the player, can be null
+	 * @return Role of the entity.
+	 */
+	public static ActorRole of(Entity e, Entity player) {
+		if (e == null) {
+			return NONE;
+		}
+		if (e instanceof ApexPredator) {
+			return APEX;
+		}
+		if (e instanceof Predator) {
+			return e == player ? PLAYER : PREDATOR;
+		}
+		if (e instanceof Prey) {
+			return PREY;
+		}
+		if (e instanceof Food) {
+			return FOOD;
+		}
+		return NONE;
+	}
+}
@@ -0,0 +1,218 @@
+package util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log lines on a background thread.
+ * Lines are taken from a LogQueue and written to one open file channel in batches.
+ * A batch is written when it has batchSize lines or when flushInterval passes.
+ */
+public class AsyncLogWriter {
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	
+	private final LogQueue queue;
+	private final FileChannel channel;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final BackPressure policy;
+	private final Thread writerThread;
+	
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicInteger submitting = new AtomicInteger(); // submit() içindeki thread sayısı
+	private final StringBuilder batch = new StringBuilder();
+	
+	private volatile boolean accepting = true;
+	private volatile boolean running = true;
+	private volatile boolean flushRequested = false;
+	private volatile long writtenCount = 0;
+	
+	/**
+	 * Opens the log file in append mode and starts the writer thread.
+	 * @param fileName Log file to append
+	 * @param capacity Capacity of the queue
+	 * @param batchSize Maximum number of lines written at once
+	 * @param flushIntervalMillis Maximum time a line waits before it is written
+	 * @param policy What to do when the queue is full
+	 * @throws IOException Throws if the log file cannot be opened.
+	 */
+	public AsyncLogWriter(String fileName, int capacity, int batchSize, long flushIntervalMillis, BackPressure policy) throws IOException {
+		this.queue = new LogQueue(capacity);
+		this.channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		this.policy = policy;
+		
+		this.writerThread = new Thread(this::drainLoop, "game-log-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+	
+	
+	/**
+	 * Adds a line to the queue.
+	 * If the queue is full, blocks or drops the line according to the back-pressure policy, a dropped line is counted.
+	 * @param line Line to write
+	 * @return false if the writer is closed and did not take the line, the caller should write it another way.
+	 */
+	public boolean submit(String line) {
+		submitting.incrementAndGet();
+		try {
+			if (!accepting) {
+				return false;
+			}
+			
+			while (!queue.offer(line)) {
+				if (policy == BackPressure.DROP) {
+					dropped.incrementAndGet();
+					return true;
+				}
+				
+				// close() writer'ı bu submit bitene kadar çalışır tutuyor, yer açılacak
+				LockSupport.unpark(writerThread);
+				LockSupport.parkNanos(50_000);
+				
+				if (!writerThread.isAlive()) {
+					return false;
+				}
+			}
+			return true;
+		}
+		finally {
+			submitting.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Waits until every line submitted before this call is written to the file.
+	 */
+	public void flush() {
+		long target = queue.getEnqueuedCount();
+		
+		while (writtenCount < target && writerThread.isAlive()) {
+			flushRequested = true;
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(100_000);
+		}
+	}
+	
+	/**
+	 * Stops taking lines, writes the remaining ones, stops the writer thread and closes the file.
+	 * Lines submitted while it runs are either written or rejected by submit(), none is lost silently.
+	 */
+	public synchronized void close() {
+		if (!running) {
+			return;
+		}
+		
+		accepting = false;
+		while (submitting.get() > 0) {
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(50_000);
+		}
+		
+		flush();
+		running = false;
+		LockSupport.unpark(writerThread);
+		
+		try {
+			writerThread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			System.out.println("Log dosyası kapatılamadı.");
+		}
+	}
+	
+	
+	/**
+	 * Main loop of the writer thread.
+	 * Collects lines until the batch is full, the interval passes, a flush is requested or the writer is closed.
+	 */
+	private void drainLoop() {
+		int lines = 0;
+		long lastWrite = System.nanoTime();
+		
+		while (true) {
+			String line = queue.poll();
+			
+			if (line != null) {
+				batch.append(line).append(LINE_SEPARATOR);
+				lines++;
+				
+				if (lines >= batchSize) {
+					writeBatch();
+					lines = 0;
+					lastWrite = System.nanoTime();
+				}
+				continue;
+			}
+			
+			long waited = System.nanoTime() - lastWrite;
+			
+			if (lines > 0 && (flushRequested || !running || waited >= flushIntervalNanos)) {
+				writeBatch();
+				lines = 0;
+				lastWrite = System.nanoTime();
+				continue;
+			}
+			
+			if (!running) {
+				break;
+			}
+			
+			flushRequested = false;
+			
+			if (lines > 0) {
+				LockSupport.parkNanos(flushIntervalNanos - waited);
+			}
+			else {
+				LockSupport.parkNanos(flushIntervalNanos);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the collected batch to the file channel.
+	 */
+	private void writeBatch() {
+		ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+		batch.setLength(0);
+		
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		catch (IOException e) {
+			System.out.println("Log'da bi hata var.");
+		}
+		
+		writtenCount = queue.getDequeuedCount();
+	}
+	
+	
+	// getter-setters
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+	
+	public BackPressure getPolicy() {
+		return policy;
+	}
+	
+}
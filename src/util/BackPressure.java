@@ -0,0 +1,15 @@
+package util;
+/**
+ * What the asynchronous logger does when its queue is full.
+ */
+public enum BackPressure {
+	/**
+	 * Waits until the writer thread frees a slot.
+	 */
+	BLOCK,
+	
+	/**
+	 * Drops the message and counts it.
+	 */
+	DROP
+}
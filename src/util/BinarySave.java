@@ -0,0 +1,383 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+import logic.GameMode;
+import model.Animal;
+import model.ApexPredator;
+import model.Food;
+import model.Grid;
+import model.Predator;
+import model.Prey;
+
+/**
+ * Binary save file of a game.
+ * Layout: header (magic, format version, era, rounds, board size), a table of entity names,
+ * then packed animal records and food records that point into the name table.
+ * Since version 2 the save ends with a CRC32 of all bytes before it, so a damaged file is never loaded.
+ * An animal that could not respawn is not on the grid, its cell is written as -1 - cell of its last position.
+ * Written through a FileChannel and read from a memory mapped buffer.
+ */
+final class BinarySave {
+	// "FCTT" dosyanın başında, text kayıttan ayırmak için
+	static final int MAGIC = 0x46435454;
+	static final int FORMAT_VERSION = 2;
+	// CRC'siz ilk sürüm, eski kayıtlar hala okunuyor
+	private static final int FIRST_VERSION = 1;
+	private static final int CRC_SIZE = 4;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	// bundan küçük dosyalar map edilmeden okunuyor, Windows'ta map edilen dosya GC'ye kadar kilitli kalıyor
+	private static final long MAP_THRESHOLD = 1 << 20;
+	// kind(1) + name(2) + cell(4) + score(4) + cooldown(4)
+	private static final int ANIMAL_RECORD = 15;
+	// name(2) + cell(4)
+	private static final int FOOD_RECORD = 6;
+
+	private static final byte KIND_APEX = 0;
+	private static final byte KIND_PREDATOR = 1;
+	private static final byte KIND_PREY = 2;
+
+	private BinarySave() {
+	}
+
+
+	/**
+	 * Writes the game to the channel at its current position.
+	 * Foods are written in cell order, so the same game always gives the same bytes.
+	 * @param engine Current game engine.
+	 * @param channel Channel to write to, a file or a channel over memory
+	 * @return Number of bytes written.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	static long write(GameEngine engine, WritableByteChannel channel) throws IOException {
+		Grid grid = engine.getGrid();
+		int cols = grid.getCols();
+		List<Animal> animals = engine.getAnimals();
+
+		List<Food> foods = FileManager.foodsInCellOrder(grid);
+
+		List<String> names = new ArrayList<>();
+		Map<String, Integer> nameIndex = new HashMap<>();
+		for (Animal animal : animals) {
+			indexOf(animal.getName(), names, nameIndex);
+		}
+		for (Food food : foods) {
+			indexOf(food.getName(), names, nameIndex);
+		}
+
+		long written = 0;
+		ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		CRC32 crc = new CRC32();
+
+		buf.putInt(MAGIC);
+		buf.putShort((short) FORMAT_VERSION);
+		buf.put((byte) engine.getCurrentMode().ordinal());
+		buf.putInt(engine.getCurrentRaund());
+		buf.putInt(engine.getTotalRaunds());
+		buf.putInt(grid.getRows());
+		buf.putInt(cols);
+
+		buf.putInt(names.size());
+		for (String name : names) {
+			byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			written += ensure(channel, buf, crc, 2 + bytes.length);
+			buf.putShort((short) bytes.length);
+			buf.put(bytes);
+		}
+
+		written += ensure(channel, buf, crc, 4);
+		buf.putInt(animals.size());
+		for (Animal animal : animals) {
+			written += ensure(channel, buf, crc, ANIMAL_RECORD);
+			buf.put(kindOf(animal));
+			buf.putShort((short) (int) nameIndex.get(animal.getName()));
+			int cell = animal.getY() * cols + animal.getX();
+			// yeniden doğamamış, hücresinde onu yiyen duruyor
+			buf.putInt(grid.getEntity(animal.getX(), animal.getY()) == animal ? cell : -1 - cell);
+			buf.putInt(animal.getScore());
+			buf.putInt(animal.getAbilityCooldown());
+		}
+
+		written += ensure(channel, buf, crc, 4);
+		buf.putInt(foods.size());
+		for (Food food : foods) {
+			written += ensure(channel, buf, crc, FOOD_RECORD);
+			buf.putShort((short) (int) nameIndex.get(food.getName()));
+			buf.putInt(food.getY() * cols + food.getX());
+		}
+
+		written += drain(channel, buf, crc);
+		buf.putInt((int) crc.getValue());
+		written += drain(channel, buf, null);
+		return written;
+	}
+
+	/**
+	 * Reads a binary save file.
+	 * @param file File to read.
+	 * @return The game in the file, not yet applied to an engine.
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if the file is not a valid save of a known version.
+	 */
+	static SaveData read(File file) throws IOException, GameLoadException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return read(readAll(channel), file.getName());
+		}
+	}
+	
+	/**
+	 * Reads a binary save from the buffer.
+	 * The whole save is read and checked before anything is returned.
+	 * @param buf Buffer positioned at the start of the save, limited to its end
+	 * @param source Name of the file for error messages
+	 * @return The game in the buffer, not yet applied to an engine.
+	 * @throws GameLoadException Throws if the save is not valid or of an unknown version.
+	 */
+	static SaveData read(ByteBuffer buf, String source) throws GameLoadException {
+		try {
+			int start = buf.position();
+			if (buf.remaining() < 8 || buf.getInt() != MAGIC) {
+				throw new GameLoadException("Not a binary save file: " + source);
+			}
+			int version = buf.getShort();
+			if (version == FORMAT_VERSION) {
+				buf.position(start);
+				checkCrc(buf, source);
+				buf.position(start + 6);
+			}
+			else if (version != FIRST_VERSION) {
+				throw new GameLoadException("Unsupported save version: " + version);
+			}
+
+			int modeIndex = buf.get();
+			GameMode[] modes = GameMode.values();
+			if (modeIndex < 0 || modeIndex >= modes.length) {
+				throw new GameLoadException("Unknown era in save file: " + modeIndex);
+			}
+			GameMode mode = modes[modeIndex];
+			int currentRound = buf.getInt();
+			int totalRounds = buf.getInt();
+			int rows = buf.getInt();
+			int cols = buf.getInt();
+			SaveData data = new SaveData(mode, currentRound, totalRounds, rows, cols);
+
+			String[] names = new String[buf.getInt()];
+			for (int i = 0; i < names.length; i++) {
+				byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+				buf.get(bytes);
+				names[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			int animalCount = buf.getInt();
+			for (int i = 0; i < animalCount; i++) {
+				byte kind = buf.get();
+				String name = names[buf.getShort() & 0xFFFF];
+				int cell = buf.getInt();
+				int score = buf.getInt();
+				int cooldown = buf.getInt();
+				boolean onGrid = cell >= 0;
+				if (!onGrid) {
+					cell = -1 - cell;
+				}
+				checkCell(cell, rows, cols);
+
+				Animal animal = createAnimal(kind, name, cell % cols, cell / cols, mode);
+				animal.setScore(score);
+				animal.setCooldown(cooldown);
+				data.addAnimal(animal);
+				if (!onGrid) {
+					data.moveAnimal(i, -1);
+				}
+			}
+
+			int foodCount = buf.getInt();
+			for (int i = 0; i < foodCount; i++) {
+				String name = names[buf.getShort() & 0xFFFF];
+				int cell = buf.getInt();
+				checkCell(cell, rows, cols);
+				data.addFood(new Food(cell % cols, cell / cols, name));
+			}
+			
+			if (buf.hasRemaining()) {
+				throw new GameLoadException("Save file has extra bytes: " + source);
+			}
+			return data;
+		}
+		catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+			throw new GameLoadException("Save file is broken: " + source);
+		}
+	}
+
+	/**
+	 * Checks the CRC32 at the end of the buffer against the bytes before it.
+	 * On success the limit of the buffer is moved before the CRC.
+	 * @param buf Buffer positioned at the start of the checked bytes
+	 * @param source Name of the file for error messages
+	 * @throws GameLoadException Throws if the buffer is too short or the CRC does not match.
+	 */
+	static void checkCrc(ByteBuffer buf, String source) throws GameLoadException {
+		int end = buf.limit() - CRC_SIZE;
+		if (end < buf.position()) {
+			throw new GameLoadException("Save file is broken: " + source);
+		}
+		
+		CRC32 crc = new CRC32();
+		ByteBuffer checked = buf.duplicate();
+		checked.limit(end);
+		crc.update(checked);
+		if ((int) crc.getValue() != buf.getInt(end)) {
+			throw new GameLoadException("Checksum does not match, save file is damaged: " + source);
+		}
+		buf.limit(end);
+	}
+
+	/**
+	 * Gives the content of the file.
+	 * Large files are memory mapped, small ones are read into the heap.
+	 * @param channel Channel of the file
+	 * @return Buffer positioned at the start of the file.
+	 * @throws IOException Throws if file error happens.
+	 */
+	static ByteBuffer readAll(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size >= MAP_THRESHOLD) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			return mapped;
+		}
+		
+		ByteBuffer buf = ByteBuffer.allocate((int) size);
+		while (buf.hasRemaining() && channel.read(buf) >= 0) {
+			// hepsini oku
+		}
+		buf.flip();
+		return buf;
+	}
+	
+	private static void checkCell(int cell, int rows, int cols) throws GameLoadException {
+		if (cell < 0 || cell >= rows * cols) {
+			throw new GameLoadException("Entity is out of the grid in save file: " + cell);
+		}
+	}
+	
+	/**
+	 * Checks if the file starts with the binary save magic.
+	 * @param file File to check
+	 * @return true if it is a binary save.
+	 * @throws IOException Throws if file error happens.
+	 */
+	static boolean isBinary(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer head = ByteBuffer.allocate(4);
+			while (head.hasRemaining() && channel.read(head) >= 0) {
+				// dosyanın başını oku
+			}
+			return !head.hasRemaining() && head.getInt(0) == MAGIC;
+		}
+	}
+
+
+	/**
+	 * Creates an animal of the saved kind.
+	 * @param kind Saved kind of the animal
+	 * @param name Name of the animal
+	 * @param x Coordinate-X
+	 * @param y Coordinate-Y
+	 * @param mode Era of the game
+	 * @return The animal.
+	 * @throws GameLoadException Throws if the kind is unknown.
+	 */
+	private static Animal createAnimal(byte kind, String name, int x, int y, GameMode mode) throws GameLoadException {
+		switch (kind) {
+			case KIND_APEX:
+				return new ApexPredator(x, y, name, mode);
+			case KIND_PREDATOR:
+				return new Predator(x, y, name, mode);
+			case KIND_PREY:
+				return new Prey(x, y, name, mode);
+			default:
+				throw new GameLoadException("Unknown animal in save file: " + kind);
+		}
+	}
+
+	private static byte kindOf(Animal animal) {
+		if (animal instanceof ApexPredator) {
+			return KIND_APEX;
+		}
+		if (animal instanceof Predator) {
+			return KIND_PREDATOR;
+		}
+		return KIND_PREY;
+	}
+
+	/**
+	 * Gives the index of a name in the name table, adds it if it is new.
+	 * @param name The name
+	 * @param names Name table
+	 * @param index Name to index map
+	 * @return Index of the name.
+	 * @throws IOException Throws if the table is too large for the format.
+	 */
+	private static int indexOf(String name, List<String> names, Map<String, Integer> index) throws IOException {
+		Integer i = index.get(name);
+		if (i == null) {
+			if (names.size() > 0xFFFF || name.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+				throw new IOException("Too many or too long entity names to save: " + name);
+			}
+			i = names.size();
+			names.add(name);
+			index.put(name, i);
+		}
+		return i;
+	}
+
+	/**
+	 * Writes the buffer out if there is not enough room for the next bytes.
+	 * @param channel Channel to write to
+	 * @param buf The buffer
+	 * @param crc Checksum of the written bytes
+	 * @param bytes Number of bytes to be put next
+	 * @return Number of bytes written out, 0 if there was room.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	private static int ensure(WritableByteChannel channel, ByteBuffer buf, CRC32 crc, int bytes) throws IOException {
+		return buf.remaining() < bytes ? drain(channel, buf, crc) : 0;
+	}
+
+	/**
+	 * Writes the buffer out.
+	 * @param channel Channel to write to
+	 * @param buf The buffer
+	 * @param crc Checksum to update with the bytes, null for bytes out of the checksum
+	 * @return Number of bytes written.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	private static int drain(WritableByteChannel channel, ByteBuffer buf, CRC32 crc) throws IOException {
+		buf.flip();
+		int bytes = buf.remaining();
+		if (crc != null) {
+			crc.update(buf.duplicate());
+		}
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+		buf.clear();
+		return bytes;
+	}
+
+}
@@ -0,0 +1,591 @@
+package util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+import model.Animal;
+import model.Entity;
+import model.Food;
+import model.Grid;
+
+/**
+ * Append-only journal of game checkpoints.
+ * The first checkpoint is a full base record in the binary save format, the next ones are delta records
+ * with only the animals and foods that moved or changed score or cooldown since the previous checkpoint.
+ * A new base is written every few checkpoints, and old bases are dropped when there are twice as many as wanted,
+ * so replaying a round never needs more than one base and a few deltas and the file does not grow forever.
+ * Every record ends with a CRC32 of its payload, a damaged record is never replayed.
+ */
+public class CheckpointJournal implements Closeable {
+	// "FCTJ"
+	static final int MAGIC = 0x4643544A;
+	static final int FORMAT_VERSION = 2;
+
+	private static final byte BASE = 1;
+	private static final byte DELTA = 2;
+	// type(1) + round(4) + length(4)
+	private static final int RECORD_HEADER = 9;
+	private static final int FILE_HEADER = 6;
+	// animal(4) + flags(1) + en fazla cell(4) + score(4) + cooldown(4), sadece değişenler yazılıyor
+	private static final int ANIMAL_CHANGE = 17;
+	private static final int CELL_CHANGED = 1;
+	private static final int SCORE_CHANGED = 2;
+	private static final int COOLDOWN_CHANGED = 4;
+	// food(4) + cell(4)
+	private static final int FOOD_CHANGE = 8;
+
+	private final File file;
+	private FileChannel channel;
+	private int baseInterval = 20;
+	private int maxBases = 4;
+
+	// dosyadaki base kayıtlarının yerleri, sıkıştırma için
+	private final List<Long> baseOffsets = new ArrayList<>();
+	private int deltasSinceBase;
+
+	// son checkpoint'teki durum, delta bununla karşılaştırılıyor
+	private Grid trackedGrid;
+	private Animal[] animals;
+	private int[] animalCells;
+	private int[] animalScores;
+	private int[] animalCooldowns;
+	private Food[] foods;
+	private int[] foodCells;
+
+	private ByteBuffer record = ByteBuffer.allocate(1 << 12);
+
+
+	/**
+	 * Opens a journal to add checkpoints.
+	 * A new file is created if it does not exist, otherwise checkpoints are added to its end.
+	 * The first checkpoint after opening is always a base.
+	 * @param file Journal file
+	 * @throws IOException Throws if the file cannot be opened or is not a journal.
+	 */
+	public CheckpointJournal(File file) throws IOException {
+		this.file = file;
+		open();
+	}
+
+	/**
+	 * Opens the channel and finds the base records.
+	 * A record that was not written completely at the end is cut off.
+	 * @throws IOException Throws if the file is not a journal.
+	 */
+	private void open() throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		baseOffsets.clear();
+		deltasSinceBase = 0;
+
+		if (channel.size() == 0) {
+			ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+			header.putInt(MAGIC).putShort((short) FORMAT_VERSION).flip();
+			writeFully(header);
+			return;
+		}
+
+		List<long[]> records;
+		try {
+			records = scan(channel, file.getName());
+		}
+		catch (GameLoadException e) {
+			channel.close();
+			throw new IOException(e.getMessage());
+		}
+
+		long end = FILE_HEADER;
+		for (long[] r : records) {
+			if (r[0] == BASE) {
+				baseOffsets.add(r[2] - RECORD_HEADER);
+				deltasSinceBase = 0;
+			}
+			else {
+				deltasSinceBase++;
+			}
+			end = r[2] + r[3];
+		}
+		channel.truncate(end);
+		channel.position(end);
+	}
+
+
+	/**
+	 * Adds a checkpoint of the current round.
+	 * Writes a delta if the journal knows the previous state of this game, otherwise a base.
+	 * @param engine Current game engine.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	public void checkpoint(GameEngine engine) throws IOException {
+		if (deltasSinceBase >= baseInterval || !writeDelta(engine)) {
+			writeBase(engine);
+		}
+
+		// dosya kopyalanıyor, her base'de değil iki katına çıkınca sıkıştır
+		if (baseOffsets.size() >= 2 * maxBases) {
+			compact(maxBases);
+		}
+	}
+
+	/**
+	 * Writes a full base record and remembers the state.
+	 * @param engine Current game engine.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	private void writeBase(GameEngine engine) throws IOException {
+		long offset = channel.position();
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+		header.put(BASE).putInt(engine.getCurrentRaund()).putInt(0).flip();
+		writeFully(header);
+
+		long length = BinarySave.write(engine, channel);
+
+		// uzunluk sonradan belli oluyor, başlığa geri yaz
+		ByteBuffer size = ByteBuffer.allocate(4);
+		size.putInt((int) length).flip();
+		while (size.hasRemaining()) {
+			channel.write(size, offset + 5 + size.position());
+		}
+
+		baseOffsets.add(offset);
+		deltasSinceBase = 0;
+		remember(engine, null);
+	}
+
+	/**
+	 * Writes a delta record with the changes since the last checkpoint.
+	 * @param engine Current game engine.
+	 * @return false if a base must be written instead, because the game is not the tracked one
+	 * or a new entity appeared.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	private boolean writeDelta(GameEngine engine) throws IOException {
+		Grid grid = engine.getGrid();
+		List<Animal> current = engine.getAnimals();
+		if (grid != trackedGrid || animals == null || current.size() != animals.length) {
+			return false;
+		}
+
+		int[] cells = currentFoodCells(grid);
+		if (cells == null) {
+			return false;
+		}
+
+		// başlık: tür, raund, uzunluk (sonra yazılıyor), sonra toplam raund
+		record.clear();
+		ensureRoom(RECORD_HEADER + 8);
+		record.put(DELTA).putInt(engine.getCurrentRaund()).putInt(0);
+		record.putInt(engine.getTotalRaunds());
+
+		int countAt = record.position();
+		int changed = 0;
+		record.putInt(0);
+		for (int i = 0; i < animals.length; i++) {
+			Animal animal = current.get(i);
+			if (animal != animals[i]) {
+				return false;
+			}
+
+			int cell = cellOf(grid, animal);
+			int flags = 0;
+			if (cell != animalCells[i]) {
+				flags |= CELL_CHANGED;
+			}
+			if (animal.getScore() != animalScores[i]) {
+				flags |= SCORE_CHANGED;
+			}
+			if (animal.getAbilityCooldown() != animalCooldowns[i]) {
+				flags |= COOLDOWN_CHANGED;
+			}
+			if (flags == 0) {
+				continue;
+			}
+			
+			ensureRoom(ANIMAL_CHANGE);
+			record.putInt(i).put((byte) flags);
+			if ((flags & CELL_CHANGED) != 0) {
+				record.putInt(cell);
+			}
+			if ((flags & SCORE_CHANGED) != 0) {
+				record.putInt(animal.getScore());
+			}
+			if ((flags & COOLDOWN_CHANGED) != 0) {
+				record.putInt(animal.getAbilityCooldown());
+			}
+			changed++;
+		}
+		record.putInt(countAt, changed);
+
+		ensureRoom(4);
+		countAt = record.position();
+		changed = 0;
+		record.putInt(0);
+		for (int i = 0; i < cells.length; i++) {
+			if (cells[i] != foodCells[i]) {
+				ensureRoom(FOOD_CHANGE);
+				record.putInt(i).putInt(cells[i]);
+				changed++;
+			}
+		}
+		record.putInt(countAt, changed);
+
+		ensureRoom(4);
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), RECORD_HEADER, record.position() - RECORD_HEADER);
+		record.putInt((int) crc.getValue());
+
+		record.putInt(5, record.position() - RECORD_HEADER);
+		record.flip();
+		writeFully(record);
+
+		deltasSinceBase++;
+		remember(engine, cells);
+		return true;
+	}
+
+	/**
+	 * Remembers the state of the game to compare with the next checkpoint.
+	 * Foods are numbered in cell order, the same order the base record writes them.
+	 * @param engine Current game engine.
+	 * @param cells Cells of the known foods, null after a base to number the foods again
+	 */
+	private void remember(GameEngine engine, int[] cells) {
+		Grid grid = engine.getGrid();
+		List<Animal> current = engine.getAnimals();
+
+		if (trackedGrid != grid || animals == null || animals.length != current.size()) {
+			animals = new Animal[current.size()];
+			animalCells = new int[current.size()];
+			animalScores = new int[current.size()];
+			animalCooldowns = new int[current.size()];
+		}
+		for (int i = 0; i < animals.length; i++) {
+			Animal animal = current.get(i);
+			animals[i] = animal;
+			animalCells[i] = cellOf(grid, animal);
+			animalScores[i] = animal.getScore();
+			animalCooldowns[i] = animal.getAbilityCooldown();
+		}
+
+		if (cells == null) {
+			foods = FileManager.foodsInCellOrder(grid).toArray(new Food[0]);
+			foodCells = new int[foods.length];
+			for (int i = 0; i < foods.length; i++) {
+				foodCells[i] = cellOf(grid, foods[i]);
+			}
+		}
+		else {
+			foodCells = cells;
+		}
+		trackedGrid = grid;
+	}
+
+	/**
+	 * Finds the cell of every known food, -1 for foods not on the grid.
+	 * @param grid The game grid
+	 * @return Cells by food number, or null if there is a food the journal does not know.
+	 */
+	private int[] currentFoodCells(Grid grid) {
+		int[] cells = new int[foods.length];
+		int onGrid = 0;
+		for (int i = 0; i < foods.length; i++) {
+			cells[i] = cellOf(grid, foods[i]);
+			if (cells[i] >= 0) {
+				onGrid++;
+			}
+		}
+		
+		// grid'de bilinenden fazla food varsa yeni bir food gelmiş
+		return grid.countEntities(Food.class) == onGrid ? cells : null;
+	}
+
+	/**
+	 * Gives the cell of an entity, -1 if it is not on the grid.
+	 * @param grid The game grid
+	 * @param e The entity
+	 * @return Cell index.
+	 */
+	private static int cellOf(Grid grid, Entity e) {
+		if (grid.isValidPosition(e.getX(), e.getY()) && grid.getEntity(e.getX(), e.getY()) == e) {
+			return e.getY() * grid.getCols() + e.getX();
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Drops the records before the last given number of bases.
+	 * The rest of the file is copied to a new file, which then replaces the journal with an atomic rename.
+	 * @param keepBases Number of bases to keep, at least 1
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	public void compact(int keepBases) throws IOException {
+		keepBases = Math.max(1, keepBases);
+		if (baseOffsets.size() <= keepBases) {
+			return;
+		}
+
+		long from = baseOffsets.get(baseOffsets.size() - keepBases);
+		File temp = FileManager.tempFileOf(file);
+		try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+			header.putInt(MAGIC).putShort((short) FORMAT_VERSION).flip();
+			while (header.hasRemaining()) {
+				out.write(header);
+			}
+
+			long size = channel.size();
+			long position = from;
+			while (position < size) {
+				position += channel.transferTo(position, size - position, out);
+			}
+			out.force(true);
+		}
+
+		channel.close();
+		FileManager.replaceAtomically(temp, file);
+
+		// takip edilen durum değişmedi, sonraki checkpoint yine delta olabilir
+		open();
+	}
+
+
+	/**
+	 * Loads the state of a checkpointed round into the engine.
+	 * The engine is changed only after the whole round was read and checked.
+	 * @param engine Current game engine to set.
+	 * @param file Journal file
+	 * @param round Round to load, -1 for the last checkpoint
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if the journal is broken or the round was not checkpointed.
+	 */
+	public static void load(GameEngine engine, File file, int round) throws IOException, GameLoadException {
+		read(file, round).applyTo(engine);
+	}
+
+	/**
+	 * Reads the state of a checkpointed round without changing any engine.
+	 * The nearest base before the round is read and the deltas after it are replayed on it.
+	 * @param file Journal file
+	 * @param round Round to read, -1 for the last checkpoint
+	 * @return The game at that round.
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if the journal is broken or the round was not checkpointed.
+	 */
+	public static SaveData read(File file, int round) throws IOException, GameLoadException {
+		if (!file.exists()) {
+			throw new GameLoadException("File not found.");
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			List<long[]> records = scan(channel, file.getName());
+
+			int target = -1;
+			for (int i = 0; i < records.size(); i++) {
+				if (round < 0 || records.get(i)[1] == round) {
+					target = i;
+				}
+			}
+			if (target < 0) {
+				throw new GameLoadException("Round " + round + " is not in the journal " + file.getName());
+			}
+
+			int base = target;
+			while (base >= 0 && records.get(base)[0] != BASE) {
+				base--;
+			}
+			if (base < 0) {
+				throw new GameLoadException("No base checkpoint before round " + round + " in " + file.getName());
+			}
+
+			// sadece gereken kayıtlar okunuyor
+			SaveData data = BinarySave.read(payload(channel, records.get(base)), file.getName());
+			for (int i = base + 1; i <= target; i++) {
+				data.setCurrentRound((int) records.get(i)[1]);
+				applyDelta(data, payload(channel, records.get(i)), file.getName());
+			}
+			return data;
+		}
+	}
+
+	/**
+	 * Applies a delta record to the read game.
+	 * Foods are numbered like in the base record.
+	 * @param data Game read so far
+	 * @param buf Payload of the delta
+	 * @param source Name of the file for error messages
+	 * @throws GameLoadException Throws if the record is broken.
+	 */
+	private static void applyDelta(SaveData data, ByteBuffer buf, String source) throws GameLoadException {
+		try {
+			BinarySave.checkCrc(buf, source);
+			data.setTotalRounds(buf.getInt());
+
+			int animalChanges = buf.getInt();
+			for (int i = 0; i < animalChanges; i++) {
+				int index = buf.getInt();
+				int flags = buf.get();
+				if ((flags & CELL_CHANGED) != 0) {
+					data.moveAnimal(index, buf.getInt());
+				}
+				if ((flags & SCORE_CHANGED) != 0) {
+					data.getAnimal(index).setScore(buf.getInt());
+				}
+				if ((flags & COOLDOWN_CHANGED) != 0) {
+					data.getAnimal(index).setCooldown(buf.getInt());
+				}
+			}
+
+			int foodChanges = buf.getInt();
+			for (int i = 0; i < foodChanges; i++) {
+				int index = buf.getInt();
+				data.moveFood(index, buf.getInt());
+			}
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new GameLoadException("Journal is broken: " + source);
+		}
+	}
+
+
+	/**
+	 * Gives the rounds that can be loaded from a journal.
+	 * @param file Journal file
+	 * @return Checkpointed rounds in file order.
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if the file is not a journal.
+	 */
+	public static List<Integer> listRounds(File file) throws IOException, GameLoadException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			List<Integer> rounds = new ArrayList<>();
+			for (long[] r : scan(channel, file.getName())) {
+				rounds.add((int) r[1]);
+			}
+			return rounds;
+		}
+	}
+
+	/**
+	 * Reads the record headers of a journal, payloads are skipped.
+	 * Stops at a record that was not written completely.
+	 * @param channel Channel of the journal
+	 * @param source Name of the file for error messages
+	 * @return For every record {type, round, payload offset, payload length}.
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if the file is not a journal.
+	 */
+	private static List<long[]> scan(FileChannel channel, String source) throws IOException, GameLoadException {
+		long size = channel.size();
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+
+		if (size < FILE_HEADER || !readAt(channel, header.limit(FILE_HEADER), 0) || header.getInt(0) != MAGIC) {
+			throw new GameLoadException("Not a checkpoint journal: " + source);
+		}
+		int version = header.getShort(4);
+		if (version != FORMAT_VERSION) {
+			throw new GameLoadException("Unsupported journal version: " + version);
+		}
+
+		List<long[]> records = new ArrayList<>();
+		long position = FILE_HEADER;
+		while (position + RECORD_HEADER <= size) {
+			header.clear();
+			readAt(channel, header, position);
+			byte type = header.get(0);
+			int round = header.getInt(1);
+			int length = header.getInt(5);
+			if ((type != BASE && type != DELTA) || length <= 0 || position + RECORD_HEADER + length > size) {
+				// yarım kalmış son kayıt
+				break;
+			}
+
+			records.add(new long[]{type, round, position + RECORD_HEADER, length});
+			position += RECORD_HEADER + length;
+		}
+		return records;
+	}
+
+	/**
+	 * Reads the payload of a record.
+	 * @param channel Channel of the journal
+	 * @param r Record from scan()
+	 * @return Buffer with the payload.
+	 * @throws IOException Throws if file error happens.
+	 */
+	private static ByteBuffer payload(FileChannel channel, long[] r) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate((int) r[3]);
+		readAt(channel, buf, r[2]);
+		buf.flip();
+		return buf;
+	}
+
+	private static boolean readAt(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+		while (buf.hasRemaining()) {
+			int n = channel.read(buf, position + buf.position());
+			if (n < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Makes the record buffer bigger if there is not enough room.
+	 * @param bytes Number of bytes to be put next
+	 */
+	private void ensureRoom(int bytes) {
+		if (record.remaining() < bytes) {
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+			record.flip();
+			bigger.put(record);
+			record = bigger;
+		}
+	}
+
+	private void writeFully(ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+
+	/**
+	 * Forces the written checkpoints to the disk and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel.isOpen()) {
+			channel.force(false);
+			channel.close();
+		}
+	}
+
+
+	// getter-setters
+	public void setBaseInterval(int checkpoints) {
+		this.baseInterval = Math.max(1, checkpoints);
+	}
+
+	public void setMaxBases(int bases) {
+		this.maxBases = Math.max(1, bases);
+	}
+
+	public int getBaseCount() {
+		return baseOffsets.size();
+	}
+
+	public long getSize() throws IOException {
+		return channel.size();
+	}
+
+}
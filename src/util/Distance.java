@@ -0,0 +1,62 @@
+package util;
+
+/**
+ * Integer distance metrics between two grid cells.
+ * Comparing squared distances gives the same order as comparing real distances,
+ * so the AI loops do not need Math.pow or Math.sqrt.
+ */
+public final class Distance {
+	
+	private Distance() {
+	}
+	
+	
+	/**
+	 * Squared Euclidean distance.
+	 * @param x1 First X
+	 * @param y1 First Y
+	 * @param x2 Second X
+	 * @param y2 Second Y
+	 * @return dx * dx + dy * dy
+	 */
+	public static int squared(int x1, int y1, int x2, int y2) {
+		int dx = x2 - x1;
+		int dy = y2 - y1;
+		return dx * dx + dy * dy;
+	}
+	
+	/**
+	 * Chebyshev distance, number of king moves between two cells.
+	 * @param x1 First X
+	 * @param y1 First Y
+	 * @param x2 Second X
+	 * @param y2 Second Y
+	 * @return max(|dx|, |dy|)
+	 */
+	public static int chebyshev(int x1, int y1, int x2, int y2) {
+		return Math.max(Math.abs(x2 - x1), Math.abs(y2 - y1));
+	}
+	
+	/**
+	 * Manhattan distance.
+	 * @param x1 First X
+	 * @param y1 First Y
+	 * @param x2 Second X
+	 * @param y2 Second Y
+	 * @return |dx| + |dy|
+	 */
+	public static int manhattan(int x1, int y1, int x2, int y2) {
+		return Math.abs(x2 - x1) + Math.abs(y2 - y1);
+	}
+	
+	/**
+	 * Real Euclidean distance from a squared distance.
+	 * Gives exactly the same double as Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2)).
+	 * @param squared Squared distance
+	 * @return Euclidean distance.
+	 */
+	public static double euclidean(int squared) {
+		return Math.sqrt(squared);
+	}
+	
+}
@@ -0,0 +1,20 @@
+package util;
+/**
+ * Importance of a game event, a subscriber only gets events of its level and above.
+ */
+public enum EventLevel {
+	/**
+	 * Every move and placement, many per round.
+	 */
+	DEBUG,
+	
+	/**
+	 * Eats, abilities and round ends.
+	 */
+	INFO,
+	
+	/**
+	 * Things that went wrong, like a respawn on a full grid.
+	 */
+	WARN
+}
@@ -0,0 +1,460 @@
+package util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import logic.GameEngine;
+import model.Predator;
+
+/**
+ * Structured binary log of game events, written as numbered segment files in a folder.
+ * Every event is a fixed size record: game id, round, era, actor role, action, target role,
+ * from cell, to cell and score change of the actor. A segment starts with a small header
+ * (magic, format version, record size) and is rotated when it reaches the segment size.
+ * A closed segment gets an index file with its eras, roles, actions and ranges, used by EventQuery to skip it.
+ * Many engines can log to one EventLog from their own threads, each game buffers its records
+ * and appends them as one block, so records of a game are never cut between two segments.
+ */
+public class EventLog implements Closeable {
+	// gameId(8) + round(4) + era(1) + role(1) + action(1) + targetRole(1) + from(4) + to(4) + score(4)
+	public static final int RECORD_SIZE = 28;
+	public static final long DEFAULT_SEGMENT_SIZE = 16L << 20;
+
+	// "FCTE"
+	static final int MAGIC = 0x46435445;
+	static final int FORMAT_VERSION = 1;
+	static final int HEADER_SIZE = 8;
+	private static final String PREFIX = "events-";
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final String INDEX_SUFFIX = ".idx";
+	// bir oyun bu kadar kayıt biriktirip segmente yazıyor
+	private static final int GAME_BUFFER_RECORDS = 512;
+
+	private final File dir;
+	private final AtomicLong nextGame;
+	private final Set<GameLog> openGames = ConcurrentHashMap.newKeySet();
+	private long segmentSize = DEFAULT_SEGMENT_SIZE;
+	private int maxSegments; // 0 ise eski segmentler silinmiyor
+
+	private FileChannel segment;
+	private int segmentNumber;
+	private long segmentBytes;
+	private final EventSegmentIndex segmentIndex = new EventSegmentIndex();
+
+
+	/**
+	 * Opens the event log in a folder, the folder is created if needed.
+	 * New records go on at the end of the last segment, a record cut by a crash is dropped.
+	 * @param dir Folder of the segments
+	 * @throws IOException Throws if the folder or the last segment cannot be opened.
+	 */
+	public EventLog(File dir) throws IOException {
+		this.dir = dir;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Event log folder cannot be created: " + dir.getPath());
+		}
+
+		long maxGame = 0;
+		int[] numbers = segmentNumbers(dir);
+		for (int n : numbers) {
+			EventSegmentIndex index = EventSegmentIndex.read(indexFile(dir, n));
+			if (index != null && index.getRecords() > 0) {
+				maxGame = Math.max(maxGame, index.getMaxGame());
+			}
+		}
+		if (numbers.length > 0) {
+			reopen(numbers[numbers.length - 1]);
+			if (segmentIndex.getRecords() > 0) {
+				maxGame = Math.max(maxGame, segmentIndex.getMaxGame());
+			}
+		}
+		// oturumlar arasında id'ler hep büyüyor
+		this.nextGame = new AtomicLong(Math.max(maxGame + 1, System.currentTimeMillis() << 20));
+	}
+
+	/**
+	 * Starts logging the events of an engine from now on.
+	 * Attach before startGame() of an engine created with start = false, so the placements
+	 * and the first prey move are logged too.
+	 * @param engine The engine
+	 * @return Log of the game, close it when the game is not played anymore.
+	 */
+	public GameLog attach(GameEngine engine) {
+		GameLog game = new GameLog(engine, nextGame.getAndIncrement());
+		openGames.add(game);
+		engine.getEvents().subscribe(game, EventLevel.DEBUG);
+		return game;
+	}
+
+
+	/**
+	 * Appends a block of records of one game to the current segment, rotates first if it does not fit.
+	 * @param block Buffer with whole records between position and limit
+	 * @param index Summary of the records in the block
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	private synchronized void append(ByteBuffer block, EventSegmentIndex index) throws IOException {
+		if (segment == null || (segmentBytes > HEADER_SIZE && segmentBytes + block.remaining() > segmentSize)) {
+			rotate();
+		}
+		segmentBytes += block.remaining();
+		while (block.hasRemaining()) {
+			segment.write(block);
+		}
+		segmentIndex.merge(index);
+	}
+
+	/**
+	 * Finishes the current segment and starts the next one.
+	 * @throws IOException Throws if file error happens.
+	 */
+	private void rotate() throws IOException {
+		finishSegment();
+		segmentNumber++;
+		segment = FileChannel.open(segmentFile(dir, segmentNumber).toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort((short) FORMAT_VERSION);
+		header.putShort((short) RECORD_SIZE);
+		header.flip();
+		while (header.hasRemaining()) {
+			segment.write(header);
+		}
+		segmentBytes = HEADER_SIZE;
+		deleteOldSegments();
+	}
+
+	/**
+	 * Continues the last segment of the folder if it is valid, otherwise the next write rotates.
+	 * @param number Number of the last segment
+	 * @throws IOException Throws if file error happens.
+	 */
+	private void reopen(int number) throws IOException {
+		segmentNumber = number;
+		File file = segmentFile(dir, number);
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long records = readHeader(channel);
+			if (records < 0) {
+				// bozuk segmente dokunulmuyor, sonraki numaradan devam
+				channel.close();
+				return;
+			}
+
+			// yarım kalan son kayıt kesiliyor, index yeniden yazılacak
+			long end = HEADER_SIZE + records * RECORD_SIZE;
+			channel.truncate(end);
+			EventSegmentIndex index = EventSegmentIndex.read(indexFile(dir, number));
+			if (index != null && index.getRecords() == records) {
+				segmentIndex.merge(index);
+			}
+			else {
+				scan(channel, segmentIndex::add);
+			}
+			channel.position(end);
+			segment = channel;
+			segmentBytes = end;
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Forces the current segment to the disk, closes it and writes its index.
+	 * @throws IOException Throws if file error happens.
+	 */
+	private void finishSegment() throws IOException {
+		if (segment == null) {
+			return;
+		}
+		try {
+			segment.force(false);
+		}
+		finally {
+			segment.close();
+			segment = null;
+		}
+		segmentIndex.write(indexFile(dir, segmentNumber));
+		segmentIndex.reset();
+	}
+
+	private void deleteOldSegments() {
+		if (maxSegments <= 0) {
+			return;
+		}
+		int[] numbers = segmentNumbers(dir);
+		for (int i = 0; i < numbers.length - maxSegments; i++) {
+			indexFile(dir, numbers[i]).delete();
+			segmentFile(dir, numbers[i]).delete();
+		}
+	}
+
+	/**
+	 * Writes the buffered records of all open games and closes the current segment with its index.
+	 * Games can go on logging after it, their next records start a new segment.
+	 * @throws IOException Throws if file error happens.
+	 */
+	@Override
+	public void close() throws IOException {
+		for (GameLog game : new ArrayList<>(openGames)) {
+			game.flush();
+		}
+		synchronized (this) {
+			finishSegment();
+		}
+	}
+
+
+	/**
+	 * Reads every whole record of a segment without loading the file into memory.
+	 * @param channel Channel of the segment
+	 * @param consumer Gets the buffer and the position of every record
+	 * @return Number of records read, -1 if the segment header is not valid.
+	 * @throws IOException Throws if file error happens.
+	 */
+	static long scan(FileChannel channel, RecordConsumer consumer) throws IOException {
+		long records = readHeader(channel);
+		if (records < 0) {
+			return -1;
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 2048);
+		long position = HEADER_SIZE;
+		long left = records;
+		while (left > 0) {
+			buf.clear();
+			buf.limit((int) Math.min(buf.capacity(), left * RECORD_SIZE));
+			while (buf.hasRemaining()) {
+				if (channel.read(buf, position + buf.position()) < 0) {
+					break;
+				}
+			}
+			int count = buf.position() / RECORD_SIZE;
+			if (count == 0) {
+				break;
+			}
+			for (int i = 0; i < count; i++) {
+				consumer.accept(buf, i * RECORD_SIZE);
+			}
+			position += (long) count * RECORD_SIZE;
+			left -= count;
+		}
+		return records - left;
+	}
+
+	/**
+	 * Checks the header of a segment.
+	 * @param channel Channel of the segment
+	 * @return Number of whole records in the segment, -1 if the header is not valid.
+	 * @throws IOException Throws if file error happens.
+	 */
+	private static long readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+			// başlığı oku
+		}
+		if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getShort(4) != FORMAT_VERSION
+				|| header.getShort(6) != RECORD_SIZE) {
+			return -1;
+		}
+		return (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+	}
+
+	/**
+	 * Gives the numbers of the segments in a folder.
+	 * @param dir Folder of the segments
+	 * @return Numbers in ascending order.
+	 */
+	static int[] segmentNumbers(File dir) {
+		File[] files = dir.listFiles((d, name) -> name.startsWith(PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+		if (files == null) {
+			return new int[0];
+		}
+		List<Integer> numbers = new ArrayList<>();
+		for (File file : files) {
+			String name = file.getName();
+			try {
+				numbers.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+			}
+			catch (NumberFormatException e) {
+				// başka bir dosya
+			}
+		}
+		int[] sorted = numbers.stream().mapToInt(Integer::intValue).toArray();
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	static File segmentFile(File dir, int number) {
+		return new File(dir, String.format("%s%06d%s", PREFIX, number, SEGMENT_SUFFIX));
+	}
+
+	static File indexFile(File dir, int number) {
+		return new File(dir, String.format("%s%06d%s", PREFIX, number, INDEX_SUFFIX));
+	}
+
+
+	// kayıt alanları
+	static long gameOf(ByteBuffer buf, int pos) {
+		return buf.getLong(pos);
+	}
+
+	static int roundOf(ByteBuffer buf, int pos) {
+		return buf.getInt(pos + 8);
+	}
+
+	static int eraOf(ByteBuffer buf, int pos) {
+		return buf.get(pos + 12) & 0xFF;
+	}
+
+	static int roleOf(ByteBuffer buf, int pos) {
+		return buf.get(pos + 13) & 0xFF;
+	}
+
+	static int actionOf(ByteBuffer buf, int pos) {
+		return buf.get(pos + 14) & 0xFF;
+	}
+
+	static int targetRoleOf(ByteBuffer buf, int pos) {
+		return buf.get(pos + 15) & 0xFF;
+	}
+
+	static int fromOf(ByteBuffer buf, int pos) {
+		return buf.getInt(pos + 16);
+	}
+
+	static int toOf(ByteBuffer buf, int pos) {
+		return buf.getInt(pos + 20);
+	}
+
+	static int scoreOf(ByteBuffer buf, int pos) {
+		return buf.getInt(pos + 24);
+	}
+
+
+	/**
+	 * Gets the records of a segment one by one.
+	 */
+	interface RecordConsumer {
+		void accept(ByteBuffer buf, int pos);
+	}
+
+
+	/**
+	 * Event log of one game, subscribed to the event bus of its engine.
+	 * Records are buffered and appended to the segment when the buffer is full and when the last round ends.
+	 */
+	public final class GameLog implements GameEventListener, Closeable {
+		private final GameEngine engine;
+		private final long gameId;
+		private final ByteBuffer buf = ByteBuffer.allocate(GAME_BUFFER_RECORDS * RECORD_SIZE);
+		private final EventSegmentIndex index = new EventSegmentIndex();
+
+		GameLog(GameEngine engine, long gameId) {
+			this.engine = engine;
+			this.gameId = gameId;
+		}
+
+		@Override
+		public synchronized void onEvent(GameEvent e) {
+			if (!buf.hasRemaining()) {
+				flush();
+			}
+
+			int cols = engine.getGrid().getCols();
+			Predator player = engine.getPredatorPlayer();
+			int pos = buf.position();
+			buf.putLong(gameId);
+			buf.putInt(e.getRound());
+			buf.put((byte) engine.getCurrentMode().ordinal());
+			buf.put((byte) ActorRole.of(e.getActor(), player).ordinal());
+			buf.put((byte) e.getType().ordinal());
+			buf.put((byte) ActorRole.of(e.getTarget(), player).ordinal());
+			buf.putInt(e.getFromX() < 0 ? -1 : e.getFromY() * cols + e.getFromX());
+			buf.putInt(e.getX() < 0 ? -1 : e.getY() * cols + e.getX());
+			buf.putInt(e.getPoints());
+			index.add(buf, pos);
+
+			if (e.getType() == EventType.ROUND_END && e.getRound() >= engine.getTotalRaunds()) {
+				flush();
+			}
+		}
+
+		/**
+		 * Appends the buffered records to the event log.
+		 * A write error is logged and the records are dropped, the game goes on.
+		 */
+		public synchronized void flush() {
+			if (buf.position() == 0) {
+				return;
+			}
+			buf.flip();
+			try {
+				append(buf, index);
+			}
+			catch (IOException ex) {
+				GameLogger.log("Game events could not be written to the event log: " + ex.getMessage());
+			}
+			buf.clear();
+			index.reset();
+		}
+
+		/**
+		 * Stops logging the game and writes its buffered records.
+		 */
+		@Override
+		public void close() {
+			engine.getEvents().unsubscribe(this);
+			flush();
+			openGames.remove(this);
+		}
+
+		public long getGameId() {
+			return gameId;
+		}
+	}
+
+
+	// getter-setters
+	public File getDir() {
+		return dir;
+	}
+
+	/**
+	 * Sets the size a segment is rotated at.
+	 * @param bytes Size in bytes, at least one game buffer
+	 */
+	public synchronized void setSegmentSize(long bytes) {
+		this.segmentSize = Math.max(HEADER_SIZE + GAME_BUFFER_RECORDS * RECORD_SIZE, bytes);
+	}
+
+	public synchronized long getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Sets how many segments are kept, older ones are deleted when a new segment starts.
+	 * @param count Number of segments, 0 keeps all
+	 */
+	public synchronized void setMaxSegments(int count) {
+		this.maxSegments = Math.max(0, count);
+	}
+
+	public synchronized int getMaxSegments() {
+		return maxSegments;
+	}
+
+}
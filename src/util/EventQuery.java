@@ -0,0 +1,352 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+import logic.GameMode;
+
+/**
+ * Counts the records of an EventLog folder that match some filters, grouped by a field.
+ * Segments are read record by record through a small buffer, never loaded whole.
+ * A closed segment whose index shows that it cannot match is skipped without reading it.
+ * Round ends are counted next to the matches, so a count can be given per played round:
+ * "how often does the FUTURE prey ability fire" is era=FUTURE role=PREY action=ABILITY.
+ */
+public class EventQuery {
+	private static final GameMode[] ERAS = GameMode.values();
+	private static final ActorRole[] ROLES = ActorRole.values();
+	private static final EventType[] ACTIONS = EventType.values();
+	private static final int ROUND_END = EventType.ROUND_END.ordinal();
+
+	private final File dir;
+	private GameMode era;
+	private ActorRole role;
+	private EventType action;
+	private int fromRound = Integer.MIN_VALUE;
+	private int toRound = Integer.MAX_VALUE;
+	private long game = -1;
+
+
+	/**
+	 * Creates a query over every record of a folder.
+	 * @param dir Folder of an EventLog
+	 */
+	public EventQuery(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Fields a query result can be grouped by.
+	 */
+	public enum Group {
+		NONE, ERA, ROLE, ACTION, ROUND, GAME
+	}
+
+
+	/**
+	 * Runs the query over all segments of the folder.
+	 * @param group Field to group the matches by
+	 * @return Matches, score sums and rounds of every group.
+	 * @throws IOException Throws if a segment cannot be read.
+	 */
+	public Result run(Group group) throws IOException {
+		Result result = new Result(group);
+		// rol ve aksiyon filtresi round sonlarını etkilemiyor, index'ten sayılabiliyorlar
+		boolean roundsFromIndex = game < 0 && fromRound == Integer.MIN_VALUE && toRound == Integer.MAX_VALUE
+				&& group != Group.ROUND && group != Group.GAME;
+
+		for (int number : EventLog.segmentNumbers(dir)) {
+			File file = EventLog.segmentFile(dir, number);
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				EventSegmentIndex index = EventSegmentIndex.read(EventLog.indexFile(dir, number));
+				if (index != null && index.getRecords() != (channel.size() - EventLog.HEADER_SIZE) / EventLog.RECORD_SIZE) {
+					// segment index yazıldıktan sonra değişmiş
+					index = null;
+				}
+
+				if (index != null && !inContext(index)) {
+					result.skipped++;
+					continue;
+				}
+				if (index != null && roundsFromIndex && !hasMatches(index)) {
+					for (GameMode e : ERAS) {
+						if (era == null || era == e) {
+							result.addRounds(e.ordinal(), 0, 0, index.getRoundEnds(e.ordinal()));
+						}
+					}
+					result.skipped++;
+					continue;
+				}
+
+				long records = EventLog.scan(channel, (buf, pos) -> visit(buf, pos, result));
+				if (records < 0) {
+					throw new IOException("Not an event log segment: " + file.getPath());
+				}
+				result.scanned++;
+				result.records += records;
+			}
+		}
+		return result;
+	}
+
+	private void visit(ByteBuffer buf, int pos, Result result) {
+		int recordEra = EventLog.eraOf(buf, pos);
+		int round = EventLog.roundOf(buf, pos);
+		long recordGame = EventLog.gameOf(buf, pos);
+		if ((era != null && recordEra != era.ordinal()) || round < fromRound || round > toRound
+				|| (game >= 0 && recordGame != game)) {
+			return;
+		}
+
+		int recordAction = EventLog.actionOf(buf, pos);
+		if (recordAction == ROUND_END) {
+			result.addRounds(recordEra, round, recordGame, 1);
+		}
+
+		int recordRole = EventLog.roleOf(buf, pos);
+		if ((role != null && recordRole != role.ordinal()) || (action != null && recordAction != action.ordinal())) {
+			return;
+		}
+		result.add(recordEra, recordRole, recordAction, round, recordGame, EventLog.scoreOf(buf, pos));
+	}
+
+	/**
+	 * Checks the era, round and game filters against a segment index.
+	 * @param index Index of the segment
+	 * @return false if no record of the segment can pass them.
+	 */
+	private boolean inContext(EventSegmentIndex index) {
+		return (era == null || index.hasEra(era.ordinal()))
+				&& index.hasRounds(fromRound, toRound)
+				&& (game < 0 || index.hasGame(game));
+	}
+
+	private boolean hasMatches(EventSegmentIndex index) {
+		return (role == null || index.hasRole(role.ordinal()))
+				&& (action == null || index.hasAction(action.ordinal()));
+	}
+
+
+	/**
+	 * Matches of a query, grouped.
+	 */
+	public static final class Result {
+		private final Group group;
+		private final Map<Long, long[]> rows = new TreeMap<>();
+		private final Map<Long, Long> rounds = new TreeMap<>();
+		private long totalRounds;
+		private int scanned;
+		private int skipped;
+		private long records;
+
+		Result(Group group) {
+			this.group = group;
+		}
+
+		private long keyOf(int era, int role, int action, int round, long game) {
+			switch (group) {
+				case ERA:
+					return era;
+				case ROLE:
+					return role;
+				case ACTION:
+					return action;
+				case ROUND:
+					return round;
+				case GAME:
+					return game;
+				default:
+					return 0;
+			}
+		}
+
+		void add(int era, int role, int action, int round, long game, int score) {
+			long[] row = rows.computeIfAbsent(keyOf(era, role, action, round, game), k -> new long[2]);
+			row[0]++;
+			row[1] += score;
+		}
+
+		void addRounds(int era, int round, long game, long count) {
+			totalRounds += count;
+			if (group == Group.ERA || group == Group.ROUND || group == Group.GAME) {
+				rounds.merge(keyOf(era, 0, 0, round, game), count, Long::sum);
+			}
+		}
+
+		/**
+		 * Gives the name of a group key.
+		 * @param key The key
+		 * @return Name of the era, role or action, or the number.
+		 */
+		public String label(long key) {
+			switch (group) {
+				case ERA:
+					return key < ERAS.length ? ERAS[(int) key].name() : "era " + key;
+				case ROLE:
+					return key < ROLES.length ? ROLES[(int) key].name() : "role " + key;
+				case ACTION:
+					return key < ACTIONS.length ? ACTIONS[(int) key].name() : "action " + key;
+				case NONE:
+					return "all";
+				default:
+					return Long.toString(key);
+			}
+		}
+
+		/**
+		 * Gives the matching records of every group.
+		 * @return Group key to count.
+		 */
+		public Map<Long, Long> getCounts() {
+			Map<Long, Long> counts = new TreeMap<>();
+			rows.forEach((key, row) -> counts.put(key, row[0]));
+			return counts;
+		}
+
+		public long getCount(long key) {
+			long[] row = rows.get(key);
+			return row == null ? 0 : row[0];
+		}
+
+		public long getScore(long key) {
+			long[] row = rows.get(key);
+			return row == null ? 0 : row[1];
+		}
+
+		/**
+		 * Gives the rounds played in a group, only round ends that pass the era, round and game filters count.
+		 * Groups of roles or actions all share the total.
+		 * @param key Group key
+		 * @return Number of round ends.
+		 */
+		public long getRounds(long key) {
+			if (group == Group.ERA || group == Group.ROUND || group == Group.GAME) {
+				return rounds.getOrDefault(key, 0L);
+			}
+			return totalRounds;
+		}
+
+		public long getTotalRounds() {
+			return totalRounds;
+		}
+
+		public int getScannedSegments() {
+			return scanned;
+		}
+
+		public int getSkippedSegments() {
+			return skipped;
+		}
+
+		public long getScannedRecords() {
+			return records;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder s = new StringBuilder();
+			s.append(String.format("%-12s %12s %12s %12s %10s%n", group.name().toLowerCase(), "count", "score", "rounds", "per round"));
+			for (Map.Entry<Long, long[]> row : rows.entrySet()) {
+				long played = getRounds(row.getKey());
+				s.append(String.format("%-12s %12d %12d %12d %10.4f%n", label(row.getKey()), row.getValue()[0], row.getValue()[1],
+						played, played == 0 ? 0.0 : (double) row.getValue()[0] / played));
+			}
+			s.append(String.format("%d segments read (%d records), %d skipped by index%n", scanned, records, skipped));
+			return s.toString();
+		}
+	}
+
+
+	/**
+	 * Runs a query from the command line.
+	 * Usage: EventQuery folder [era=FUTURE] [role=PREY] [action=ABILITY] [rounds=1-50] [game=id] [group=era]
+	 * @param args Folder of the event log and the filters
+	 * @throws IOException Throws if a segment cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: EventQuery folder [era=FUTURE] [role=PREY] [action=ABILITY] [rounds=1-50] [game=id] [group=era]");
+			return;
+		}
+
+		EventQuery query = new EventQuery(new File(args[0]));
+		Group group = Group.NONE;
+		for (int i = 1; i < args.length; i++) {
+			int eq = args[i].indexOf('=');
+			String key = eq < 0 ? args[i] : args[i].substring(0, eq).toLowerCase();
+			String value = eq < 0 ? "" : args[i].substring(eq + 1).toUpperCase();
+			switch (key) {
+				case "era":
+					query.setEra(GameMode.valueOf(value));
+					break;
+				case "role":
+					query.setRole(ActorRole.valueOf(value));
+					break;
+				case "action":
+					query.setAction(EventType.valueOf(value));
+					break;
+				case "rounds":
+					int dash = value.indexOf('-');
+					if (dash < 0) {
+						query.setRounds(Integer.parseInt(value), Integer.parseInt(value));
+					}
+					else {
+						query.setRounds(Integer.parseInt(value.substring(0, dash)), Integer.parseInt(value.substring(dash + 1)));
+					}
+					break;
+				case "game":
+					query.setGame(Long.parseLong(value));
+					break;
+				case "group":
+					group = Group.valueOf(value);
+					break;
+				default:
+					System.out.println("Unknown filter: " + args[i]);
+					return;
+			}
+		}
+
+		long begin = System.nanoTime();
+		Result result = query.run(group);
+		System.out.print(result);
+		System.out.println("Query took " + (System.nanoTime() - begin) / 1_000_000 + " ms.");
+	}
+
+
+	// getter-setters
+	public void setEra(GameMode era) {
+		this.era = era;
+	}
+
+	public void setRole(ActorRole role) {
+		this.role = role;
+	}
+
+	public void setAction(EventType action) {
+		this.action = action;
+	}
+
+	/**
+	 * Keeps only records of some rounds.
+	 * @param from First round
+	 * @param to Last round
+	 */
+	public void setRounds(int from, int to) {
+		this.fromRound = from;
+		this.toRound = to;
+	}
+
+	/**
+	 * Keeps only records of one game.
+	 * @param game Game id from EventLog.GameLog, -1 for all games
+	 */
+	public void setGame(long game) {
+		this.game = game;
+	}
+
+}
@@ -0,0 +1,206 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import exception.GameLoadException;
+import logic.GameMode;
+
+/**
+ * Summary of the records of one event log segment, kept in a small file next to the segment.
+ * Holds which eras, roles and actions the segment has, its round and game id ranges
+ * and the number of round ends per era, so a query can skip a segment without reading it.
+ */
+final class EventSegmentIndex {
+	// "FCTI"
+	private static final int MAGIC = 0x46435449;
+	private static final int FORMAT_VERSION = 1;
+	private static final int ERAS = GameMode.values().length;
+
+	private long records;
+	private int eraMask;
+	private int roleMask;
+	private int actionMask;
+	private int minRound = Integer.MAX_VALUE;
+	private int maxRound = Integer.MIN_VALUE;
+	private long minGame = Long.MAX_VALUE;
+	private long maxGame = Long.MIN_VALUE;
+	private final long[] roundEnds = new long[ERAS];
+
+
+	/**
+	 * Adds one record.
+	 * @param buf Buffer with the record
+	 * @param pos Position of the record in the buffer
+	 */
+	void add(ByteBuffer buf, int pos) {
+		long game = EventLog.gameOf(buf, pos);
+		int round = EventLog.roundOf(buf, pos);
+		int era = EventLog.eraOf(buf, pos);
+		int action = EventLog.actionOf(buf, pos);
+
+		records++;
+		eraMask |= 1 << era;
+		roleMask |= 1 << EventLog.roleOf(buf, pos);
+		actionMask |= 1 << action;
+		minRound = Math.min(minRound, round);
+		maxRound = Math.max(maxRound, round);
+		minGame = Math.min(minGame, game);
+		maxGame = Math.max(maxGame, game);
+		if (action == EventType.ROUND_END.ordinal() && era < ERAS) {
+			roundEnds[era]++;
+		}
+	}
+
+	/**
+	 * Adds the records of another summary.
+	 * @param other The other summary
+	 */
+	void merge(EventSegmentIndex other) {
+		if (other.records == 0) {
+			return;
+		}
+		records += other.records;
+		eraMask |= other.eraMask;
+		roleMask |= other.roleMask;
+		actionMask |= other.actionMask;
+		minRound = Math.min(minRound, other.minRound);
+		maxRound = Math.max(maxRound, other.maxRound);
+		minGame = Math.min(minGame, other.minGame);
+		maxGame = Math.max(maxGame, other.maxGame);
+		for (int i = 0; i < ERAS; i++) {
+			roundEnds[i] += other.roundEnds[i];
+		}
+	}
+
+	void reset() {
+		records = 0;
+		eraMask = 0;
+		roleMask = 0;
+		actionMask = 0;
+		minRound = Integer.MAX_VALUE;
+		maxRound = Integer.MIN_VALUE;
+		minGame = Long.MAX_VALUE;
+		maxGame = Long.MIN_VALUE;
+		for (int i = 0; i < ERAS; i++) {
+			roundEnds[i] = 0;
+		}
+	}
+
+
+	/**
+	 * Writes the summary over the file, through a temp file.
+	 * @param file Index file of the segment
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	void write(File file) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(6 + 8 + 12 + 8 + 16 + 4 + ERAS * 8 + 4);
+		buf.putInt(MAGIC);
+		buf.putShort((short) FORMAT_VERSION);
+		buf.putLong(records);
+		buf.putInt(eraMask);
+		buf.putInt(roleMask);
+		buf.putInt(actionMask);
+		buf.putInt(minRound);
+		buf.putInt(maxRound);
+		buf.putLong(minGame);
+		buf.putLong(maxGame);
+		buf.putInt(ERAS);
+		for (long count : roundEnds) {
+			buf.putLong(count);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buf.array(), 0, buf.position());
+		buf.putInt((int) crc.getValue());
+		buf.flip();
+
+		File temp = FileManager.tempFileOf(file);
+		try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buf.hasRemaining()) {
+				channel.write(buf);
+			}
+			channel.force(true);
+		}
+		FileManager.replaceAtomically(temp, file);
+	}
+
+	/**
+	 * Reads an index file.
+	 * @param file Index file of a segment
+	 * @return The summary, null if the file is missing, damaged or of another version.
+	 */
+	static EventSegmentIndex read(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buf = BinarySave.readAll(channel);
+			if (buf.remaining() < 10 || buf.getInt() != MAGIC || buf.getShort() != FORMAT_VERSION) {
+				return null;
+			}
+			buf.position(0);
+			BinarySave.checkCrc(buf, file.getName());
+			buf.position(6);
+
+			EventSegmentIndex index = new EventSegmentIndex();
+			index.records = buf.getLong();
+			index.eraMask = buf.getInt();
+			index.roleMask = buf.getInt();
+			index.actionMask = buf.getInt();
+			index.minRound = buf.getInt();
+			index.maxRound = buf.getInt();
+			index.minGame = buf.getLong();
+			index.maxGame = buf.getLong();
+			if (buf.getInt() != ERAS) {
+				return null;
+			}
+			for (int i = 0; i < ERAS; i++) {
+				index.roundEnds[i] = buf.getLong();
+			}
+			return index;
+		}
+		catch (IOException | RuntimeException | GameLoadException e) {
+			// index yoksa segment baştan okunuyor
+			return null;
+		}
+	}
+
+
+	// getter-setters
+	long getRecords() {
+		return records;
+	}
+
+	boolean hasEra(int era) {
+		return (eraMask & (1 << era)) != 0;
+	}
+
+	boolean hasRole(int role) {
+		return (roleMask & (1 << role)) != 0;
+	}
+
+	boolean hasAction(int action) {
+		return (actionMask & (1 << action)) != 0;
+	}
+
+	boolean hasRounds(int from, int to) {
+		return records > 0 && minRound <= to && maxRound >= from;
+	}
+
+	boolean hasGame(long game) {
+		return records > 0 && minGame <= game && maxGame >= game;
+	}
+
+	long getMaxGame() {
+		return maxGame;
+	}
+
+	long getRoundEnds(int era) {
+		return roundEnds[era];
+	}
+
+}
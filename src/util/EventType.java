@@ -0,0 +1,50 @@
+package util;
+/**
+ * Kinds of game events.
+ */
+public enum EventType {
+	/**
+	 * An animal moved to (x, y).
+	 */
+	MOVE,
+	
+	/**
+	 * The actor ate the target at (x, y) and gained points.
+	 */
+	EAT,
+	
+	/**
+	 * The actor came back at (x, y) after being eaten, or could not (x and y are -1).
+	 */
+	RESPAWN,
+	
+	/**
+	 * The actor moved to (x, y) with its special ability.
+	 */
+	ABILITY,
+	
+	/**
+	 * The actor was placed at (x, y) when the game started.
+	 */
+	PLACE,
+	
+	/**
+	 * A round ended, there is no actor.
+	 */
+	ROUND_END,
+	
+	/**
+	 * The actor skipped its turn at (x, y).
+	 */
+	SKIP,
+	
+	/**
+	 * A move of the actor to (x, y) was not valid and was ignored.
+	 */
+	INVALID_MOVE,
+	
+	/**
+	 * The actor planned a move to (x, y) in the two-phase mode, but the cell was taken when the move was applied.
+	 */
+	CONFLICT
+}
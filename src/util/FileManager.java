@@ -1,12 +1,17 @@
 package util;
 
-import java.security.SecureRandom;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,7 +20,6 @@ import logic.GameEngine;
 import logic.GameMode;
 import model.Animal;
 import model.ApexPredator;
-import model.Entity;
 import model.Food;
 import model.Grid;
 import model.Predator;
@@ -28,53 +32,31 @@ public class FileManager {
 	private static final String PAST_FILE =  "past_animals.txt";
 	private static final String PRESENT_FILE = "present_animals.txt";  
 	private static final String FUTURE_FILE = "future_animals.txt";
-		
-	private static final SecureRandom random = new SecureRandom();
+	private static final String SAVE_FILE = "saved_game.bin";
+	private static final String TEXT_FILE = "saved_game.txt";
 	
 	
 	/**
-	 * Reads from the txt files and returns a random food chain.
+	 * Returns a random food chain of the era.
+	 * The chains come from the FoodChainCatalog, era files are not read again for every game.
 	 * @param mode Current game mode 
+	 * @param random Random generator of the game
 	 * @return A string array with names of characthers.
 	 * @throws GameLoadException throws this custom exception if file is missing.
 	 */
-	public static String[] loadRandomFoodChain(GameMode mode) throws GameLoadException{
-		String filename = getFileNameByMode(mode);
-		List<String[]> validChains = new ArrayList<>();
-		
-		File file = new File(filename);
-		if (!file.exists()) {
-			throw new GameLoadException("Configuration file not found: " + filename);
-		}
-		
-		try (BufferedReader buf = new BufferedReader(new FileReader(file))){
-			String line;
-			while ((line = buf.readLine()) != null) {
-				line = line.trim();
-				
-				if (line.startsWith("Food Chain")) {
-					String[] parts = parseLine(line);
-					if (parts != null) {
-						validChains.add(parts);	
-						
-					}
-					
-				}
-				
-			}
-			
-			
-		}
-		catch (IOException e) {
-			throw new GameLoadException("Error reading file: " + filename); 
-			
-		}
-		
-		if (validChains.isEmpty()) {
-			throw new GameLoadException("No valid food chains found in " + filename);
-		}
-		
-		return validChains.get(random.nextInt(validChains.size()));			  
+	public static String[] loadRandomFoodChain(GameMode mode, GameRandom random) throws GameLoadException{
+		return FoodChainCatalog.getDefault().randomChain(mode, random);
+	}
+	
+	/**
+	 * Gives the names of all characthers in the food chains of an era.
+	 * Used to load the icons of an era before the game screen is shown.
+	 * @param mode Game mode
+	 * @return Names without duplicates, in file order.
+	 * @throws GameLoadException throws this custom exception if file is missing.
+	 */
+	public static List<String> loadEraNames(GameMode mode) throws GameLoadException{
+		return FoodChainCatalog.getDefault().getEraNames(mode);
 	}
 	
 	
@@ -83,7 +65,7 @@ public class FileManager {
 	 * @param mode game mode to be played
 	 * @return File name.
 	 */
-	private static String getFileNameByMode(GameMode mode) {
+	static String getFileNameByMode(GameMode mode) {
 		switch (mode) {
 			case PAST:
 				return PAST_FILE;
@@ -96,48 +78,61 @@ public class FileManager {
 	
 	
 	/**
-	 * Takes a food chain line and extract names in a string array.
-	 * @param line The line to process.
-	 * @return returns the string array that contains names.
+	 * Saves the current game informations to the "saved_game.bin" file.
+	 * @param engine Current game engine.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	public static void saveGame(GameEngine engine) throws IOException{
+		saveGame(engine, new File(SAVE_FILE));
+	}
+	
+	/**
+	 * Saves the current game informations to the given file in the binary format.
+	 * The save is written to a temp file, forced to the disk and then renamed over the file,
+	 * so a crash while saving leaves the previous save as it was.
+	 * @param engine Current game engine.
+	 * @param file File to write.
+	 * @throws IOException Throws if file writing error happens.
 	 */
-	private static String[] parseLine(String line) {
+	public static void saveGame(GameEngine engine, File file) throws IOException{
+		File temp = tempFileOf(file);
 		try {
-			String[] splitCharacthers = line.split(":"); 
-			if (splitCharacthers.length < 2) {
-				return null; 
-				
+			try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				BinarySave.write(engine, channel);
+				channel.force(true);
 			}
-			
-			String Characthers = splitCharacthers[1].trim(); 
-			String[] names =  Characthers.split(",");
-			
-			if (names.length == 4) { 
-				for (int i = 0; i < names.length; i++) {
-					names[i] = names[i].trim();
-				}
-				
-				return names;
-			}
-			
-		} 
-		catch (Exception e) {
-			
+			replaceAtomically(temp, file);
+		}
+		catch (IOException e) {
+			Files.deleteIfExists(temp.toPath());
+			System.err.println("Kaydetme kısmında bi hata var " + e.getMessage());
+			throw e;
 		}
-		
-		return null;
 	}
 	
-	
+	/**
+	 * Exports the current game informations to the "saved_game.txt" file in the text format.
+	 * @param engine Current game engine.
+	 * @throws IOException Throws if file writing error happens.
+	 */
+	public static void exportText(GameEngine engine) throws IOException{
+		exportText(engine, new File(TEXT_FILE));
+	}
 	
 	/**
-	 * Saves the current game informations to the "saved_game.txt" file.
+	 * Exports the current game informations to the given file in the text format.
+	 * The text file is easy to read and can be loaded with loadGame() too.
+	 * It is written to a temp file and renamed like the binary save.
 	 * @param engine Current game engine.
+	 * @param file File to write.
 	 * @throws IOException Throws if file writing error happens.
 	 */
-	public static void saveGame(GameEngine engine) throws IOException{
-		File file = new File("saved_game.txt");
+	public static void exportText(GameEngine engine, File file) throws IOException{
+		File temp = tempFileOf(file);
 		
-		try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))){
+		try (FileOutputStream out = new FileOutputStream(temp);
+				BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out))){
 			
 			// GENEL OYUN BİLGİLERİ
 			writer.write("MODE:" + engine.getCurrentMode());
@@ -166,47 +161,151 @@ public class FileManager {
 			}
 			
 			// FOODLAR
-			Grid grid = engine.getGrid();
-			for (int y = 0; y < grid.getRows(); y++) {
-				for (int x = 0; x < grid.getCols(); x++) { 
-					
-					Entity e = grid.getEntity(x, y);
-					if (e instanceof Food) {
-						writer.write("FOOD:" + e.getName() + ";" + x + ";" + y);
-						writer.newLine();
-					}
-					
-				}
+			for (Food food : foodsInCellOrder(engine.getGrid())) {
+				writer.write("FOOD:" + food.getName() + ";" + food.getX() + ";" + food.getY());
+				writer.newLine();
 			}
 			
+			writer.flush();
+			out.getFD().sync();
 		}
 		catch (IOException e) {
+			Files.deleteIfExists(temp.toPath());
 			System.err.println("Kaydetme kısmında bi hata var " + e.getMessage());
 			throw e;
 		}
-				
+		
+		replaceAtomically(temp, file);
+	}
+	
+	
+	/**
+	 * Gives the temp file a save is written to before it replaces the file.
+	 * It is in the same folder, so the rename does not copy.
+	 * @param file The save file
+	 * @return The temp file.
+	 */
+	static File tempFileOf(File file) {
+		return new File(file.getPath() + ".tmp");
+	}
+	
+	/**
+	 * Renames a completely written temp file over the target.
+	 * Uses an atomic move, so the target is always either the old or the new file.
+	 * If the file system cannot move atomically, a normal replacing move is done.
+	 * @param temp Written and forced temp file
+	 * @param target File to replace
+	 * @throws IOException Throws if the file cannot be moved.
+	 */
+	static void replaceAtomically(File temp, File target) throws IOException {
+		try {
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		
+		// klasörü de diske yaz ki isim değişikliği kaybolmasın, Windows'ta klasör açılamıyor
+		File dir = target.getAbsoluteFile().getParentFile();
+		if (dir != null) {
+			try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+				channel.force(true);
+			}
+			catch (IOException e) {
+				// desteklenmiyor
+			}
+		}
 	}
 	
 	
 	/**
-	 * Loads the saved game by reading "saved_game.txt" file.
+	 * Gives the foods on the grid sorted by cell, found from the entity index of the grid.
+	 * @param grid The game grid
+	 * @return Foods in row order.
+	 */
+	static List<Food> foodsInCellOrder(Grid grid) {
+		int cols = grid.getCols();
+		List<Food> foods = new ArrayList<>();
+		grid.forEachEntity(e -> {
+			if (e instanceof Food) {
+				foods.add((Food) e);
+			}
+		});
+		foods.sort((a, b) -> Integer.compare(a.getY() * cols + a.getX(), b.getY() * cols + b.getX()));
+		return foods;
+	}
+	
+	
+	/**
+	 * Loads the saved game by reading "saved_game.bin" file.
+	 * Falls back to "saved_game.txt" if there is only an old text save.
 	 * @param engine Current game engine to set.
 	 * @throws IOException Throws if file error happens.
 	 * @throws GameLoadException Throws if file not found.
 	 */
 	public static void loadGame(GameEngine engine) throws IOException, GameLoadException{ 
-		File file = new File("saved_game.txt");
+		File file = new File(SAVE_FILE);
+		File text = new File(TEXT_FILE);
+		if (!file.exists() && text.exists()) {
+			file = text;
+		}
+		loadGame(engine, file);
+	}
+	
+	/**
+	 * Loads the saved game by reading the given file.
+	 * The format is found from the first bytes, binary saves and text exports are both read.
+	 * The whole file is read and checked before the engine is changed,
+	 * so the current game stays as it was if the file is broken.
+	 * @param engine Current game engine to set.
+	 * @param file File to read.
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if file not found or broken.
+	 */
+	public static void loadGame(GameEngine engine, File file) throws IOException, GameLoadException{ 
+		readGame(file).applyTo(engine);
+	}
+	
+	/**
+	 * Reads a saved game without changing any engine.
+	 * @param file File to read.
+	 * @return The game in the file.
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if file not found or broken.
+	 */
+	public static SaveData readGame(File file) throws IOException, GameLoadException{ 
 		
 		if (!file.exists()) {
 			throw new GameLoadException("File not found.");
 		}
 		
-		engine.resetGame();
+		if (BinarySave.isBinary(file)) {
+			return BinarySave.read(file);
+		}
+		return readText(file);
+	}
+	
+	/**
+	 * Reads a game from the text format.
+	 * @param file File to read.
+	 * @return The game in the file.
+	 * @throws GameLoadException Throws if the file cannot be read.
+	 */
+	private static SaveData readText(File file) throws GameLoadException{ 
+		
+		GameMode mode = null;
+		int currentRound = 0;
+		int totalRounds = 0;
+		int size = 0;
+		// mod dosyada önce gelmeyebilir, satırlar sonda çevriliyor
+		List<String> entities = new ArrayList<>();
+		List<String> foods = new ArrayList<>();
 		
 		try (BufferedReader reader = new BufferedReader(new FileReader(file))){
 			String line;
 			while ((line = reader.readLine()) != null) {
-				String[] parts = line.split(":");
+				// sadece ilk ':' anahtarı ayırıyor, isimlerde ':' olabilir
+				String[] parts = line.split(":", 2);
 				if (parts.length < 2) {
 					continue;
 				}
@@ -216,67 +315,71 @@ public class FileManager {
 				
 				switch (key) {
 					case "MODE":
-						engine.setCurrentMode(GameMode.valueOf(value)); 
+						mode = GameMode.valueOf(value); 
 						break;
 						
-							
 					case "ROUND":
 						String[] rounds = value.split("/");
-						engine.setCurrentRound(Integer.parseInt(rounds[0]));
-						engine.setTotalRounds(Integer.parseInt(rounds[1]));
+						currentRound = Integer.parseInt(rounds[0]);
+						totalRounds = Integer.parseInt(rounds[1]);
 						break; 
 						
 					case "GRID SIZE":
-						int size = Integer.parseInt(value);
-						engine.resetGrid(size, size);
+						size = Integer.parseInt(value);
 						break;
 					
 					case "ENTITY":
-						String[] data = value.split(";");
-						String type = data[0];
-						String name = data[1];
-						int x = Integer.parseInt(data[2]);
-						int y = Integer.parseInt(data[3]);
-						int score = Integer.parseInt(data[4]);
-						int cooldown = Integer.parseInt(data[5]);
-						
-						GameMode mode = engine.getCurrentMode();
-						
-						Animal animal = null;
-						if (type.equals("ApexPredator")) {
-							animal = new ApexPredator(x, y, name, mode);
-							animal.setCooldown(cooldown);
-						}
-						else if (type.equals("Predator")) {
-							animal = new Predator(x, y, name, mode);
-							animal.setCooldown(cooldown);
-						}
-						else if (type.equals("Prey")) {
-							animal = new Prey(x, y, name, mode);
-							animal.setCooldown(cooldown);
-						}
-						
-						if (animal != null) {
-							animal.setScore(score);
-							animal.setCooldown(cooldown);
-							engine.addLoadedAnimal(animal);
-						}
+						entities.add(value);
 						break;
 						
 					case "FOOD":
-						String[] foodData = value.split(";");
-						String foodName = foodData[0];
-						int foodX = Integer.parseInt(foodData[1]);
-						int foodY = Integer.parseInt(foodData[2]);
-						
-						Food food = new Food(foodX, foodY, foodName);
-						engine.addLoadedFood(food);
+						foods.add(value);
 						break;
 				}
+			}
+			
+			SaveData game = new SaveData(mode, currentRound, totalRounds, size, size);
+			
+			for (String value : entities) {
+				String[] data = value.split(";");
+				String type = data[0];
+				String name = data[1];
+				int x = Integer.parseInt(data[2]);
+				int y = Integer.parseInt(data[3]);
+				int score = Integer.parseInt(data[4]);
+				int cooldown = Integer.parseInt(data[5]);
+				
+				Animal animal = null;
+				if (type.equals("ApexPredator")) {
+					animal = new ApexPredator(x, y, name, mode);
+				}
+				else if (type.equals("Predator")) {
+					animal = new Predator(x, y, name, mode);
+				}
+				else if (type.equals("Prey")) {
+					animal = new Prey(x, y, name, mode);
+				}
 				
+				if (animal != null) {
+					animal.setScore(score);
+					animal.setCooldown(cooldown);
+					game.addAnimal(animal);
+				}
 			}
 			
+			for (String value : foods) {
+				String[] foodData = value.split(";");
+				String foodName = foodData[0];
+				int foodX = Integer.parseInt(foodData[1]);
+				int foodY = Integer.parseInt(foodData[2]);
+				
+				game.addFood(new Food(foodX, foodY, foodName));
+			}
 			
+			return game;
+		}
+		catch (GameLoadException e) {
+			throw e;
 		}
 		catch (Exception e) {
 			throw new GameLoadException("Load yaparken bir hata var. " + e.getMessage());	
@@ -290,4 +393,3 @@ public class FileManager {
 	
 	
 }
-
@@ -0,0 +1,319 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import exception.GameLoadException;
+import logic.GameMode;
+
+/**
+ * Food chains of all eras, kept in memory.
+ * An era file is read the first time a chain of that era is needed (or by preload()),
+ * then random chains are served from arrays without opening the file again.
+ * If a file is changed on the disk it is read again, at most once per check interval.
+ * Safe to use from many threads, readers never lock.
+ */
+public final class FoodChainCatalog {
+	/** apex, predator, prey, food */
+	public static final int CHAIN_LENGTH = 4;
+
+	private static final long DEFAULT_CHECK_MILLIS = 1000;
+	private static final FoodChainCatalog DEFAULT = new FoodChainCatalog();
+
+	private final Map<GameMode, File> files = new EnumMap<>(GameMode.class);
+	// yazılırken kopyalanıyor, okuyan thread kilit beklemiyor
+	private volatile Map<GameMode, Chains> eras = new EnumMap<>(GameMode.class);
+	private volatile long checkNanos = DEFAULT_CHECK_MILLIS * 1_000_000L;
+
+
+	/**
+	 * Creates a catalog of the era files in the working directory.
+	 */
+	public FoodChainCatalog() {
+		for (GameMode mode : GameMode.values()) {
+			files.put(mode, new File(FileManager.getFileNameByMode(mode)));
+		}
+	}
+
+	/**
+	 * Creates a catalog of given era files.
+	 * @param files File of every era
+	 */
+	public FoodChainCatalog(Map<GameMode, File> files) {
+		this.files.putAll(files);
+	}
+
+	/**
+	 * Gives the catalog used by the game.
+	 * @return The shared catalog.
+	 */
+	public static FoodChainCatalog getDefault() {
+		return DEFAULT;
+	}
+
+
+	/**
+	 * Reads the files of all eras now, so the first game does not wait for them.
+	 * All eras are tried even if one of them fails.
+	 * @throws GameLoadException Throws the first error if an era file is missing or has no chains.
+	 */
+	public void preload() throws GameLoadException {
+		GameLoadException error = null;
+		for (GameMode mode : files.keySet()) {
+			try {
+				chains(mode);
+			}
+			catch (GameLoadException e) {
+				if (error == null) {
+					error = e;
+				}
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Gives a random food chain of an era.
+	 * @param mode Game mode
+	 * @param random Random generator of the game
+	 * @return A new array with names {apex, predator, prey, food}.
+	 * @throws GameLoadException Throws if the era file is missing or has no chains.
+	 */
+	public String[] randomChain(GameMode mode, GameRandom random) throws GameLoadException {
+		Chains chains = chains(mode);
+		return chains.chain(random.nextInt(chains.count));
+	}
+
+	/**
+	 * Gives a food chain of an era.
+	 * @param mode Game mode
+	 * @param index Index of the chain in the file
+	 * @return A new array with names {apex, predator, prey, food}.
+	 * @throws GameLoadException Throws if the era file is missing or has no chains.
+	 */
+	public String[] getChain(GameMode mode, int index) throws GameLoadException {
+		return chains(mode).chain(index);
+	}
+
+	/**
+	 * Gives number of food chains of an era.
+	 * @param mode Game mode
+	 * @return Number of valid chains.
+	 * @throws GameLoadException Throws if the era file is missing or has no chains.
+	 */
+	public int getChainCount(GameMode mode) throws GameLoadException {
+		return chains(mode).count;
+	}
+
+	/**
+	 * Gives the names of all characthers in the food chains of an era.
+	 * @param mode Game mode
+	 * @return Names without duplicates, in file order.
+	 * @throws GameLoadException Throws if the era file is missing or has no chains.
+	 */
+	public List<String> getEraNames(GameMode mode) throws GameLoadException {
+		return chains(mode).eraNames;
+	}
+
+
+	/**
+	 * Gives the chains of an era, reads the file if it was not read or has changed.
+	 * @param mode Game mode
+	 * @return Chains of the era.
+	 * @throws GameLoadException Throws if the era file cannot be read the first time.
+	 */
+	private Chains chains(GameMode mode) throws GameLoadException {
+		Chains chains = eras.get(mode);
+		if (chains != null && System.nanoTime() - chains.checkedAt < checkNanos) {
+			return chains;
+		}
+		return reload(mode, chains);
+	}
+
+	/**
+	 * Reads the file of an era if it is new or its modification time or size changed.
+	 * A changed file that cannot be read is logged and the old chains are kept.
+	 * @param mode Game mode
+	 * @param seen Chains the caller found, null if there were none
+	 * @return Current chains of the era.
+	 * @throws GameLoadException Throws if the era file cannot be read the first time.
+	 */
+	private synchronized Chains reload(GameMode mode, Chains seen) throws GameLoadException {
+		Chains current = eras.get(mode);
+		if (current != null && current != seen) {
+			// başka bir thread okudu bile
+			return current;
+		}
+
+		File file = files.get(mode);
+		if (file == null) {
+			throw new GameLoadException("No food chain file for era: " + mode);
+		}
+
+		// okumadan önce al, okurken değişirse bir sonraki kontrolde yine okunur
+		long modified = file.lastModified();
+		long length = file.length();
+		if (current != null && current.modified == modified && current.length == length) {
+			current.checkedAt = System.nanoTime();
+			return current;
+		}
+
+		Chains chains;
+		try {
+			chains = read(file, modified, length);
+		}
+		catch (GameLoadException e) {
+			if (current == null) {
+				throw e;
+			}
+			GameLogger.log("Food chains of " + mode + " are not reloaded: " + e.getMessage());
+			current.checkedAt = System.nanoTime();
+			return current;
+		}
+
+		Map<GameMode, Chains> copy = new EnumMap<>(GameMode.class);
+		copy.putAll(eras);
+		copy.put(mode, chains);
+		eras = copy;
+		return chains;
+	}
+
+	/**
+	 * Reads and checks an era file.
+	 * Only "Food Chain N: apex, predator, prey, food" lines are used,
+	 * a chain line without four names is logged and skipped.
+	 * @param file Era file
+	 * @param modified Modification time of the file
+	 * @param length Size of the file
+	 * @return Chains of the file.
+	 * @throws GameLoadException Throws if the file is missing or has no valid chains.
+	 */
+	private static Chains read(File file, long modified, long length) throws GameLoadException {
+		if (!file.exists()) {
+			throw new GameLoadException("Configuration file not found: " + file.getPath());
+		}
+
+		List<String> names = new ArrayList<>();
+		// aynı isim tek String olarak tutuluyor
+		Map<String, String> unique = new HashMap<>();
+		List<String> eraNames = new ArrayList<>();
+		String[] chain = new String[CHAIN_LENGTH];
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (!line.startsWith("Food Chain")) {
+					continue;
+				}
+
+				if (!parseChain(line, chain)) {
+					GameLogger.log("Invalid food chain skipped at " + file.getName() + ":" + lineNumber + " " + line);
+					continue;
+				}
+				for (String name : chain) {
+					String known = unique.get(name);
+					if (known == null) {
+						known = name;
+						unique.put(name, name);
+						eraNames.add(name);
+					}
+					names.add(known);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new GameLoadException("Error reading file: " + file.getPath());
+		}
+
+		if (names.isEmpty()) {
+			throw new GameLoadException("No valid food chains found in " + file.getPath());
+		}
+		return new Chains(names.toArray(new String[0]), Collections.unmodifiableList(eraNames), modified, length);
+	}
+
+	/**
+	 * Takes the names after the first ':' of a chain line.
+	 * @param line Trimmed line
+	 * @param chain Array to fill with the names
+	 * @return true if there are exactly four names and none of them is empty.
+	 */
+	private static boolean parseChain(String line, String[] chain) {
+		int start = line.indexOf(':') + 1;
+		if (start == 0) {
+			return false;
+		}
+
+		for (int i = 0; i < CHAIN_LENGTH; i++) {
+			int end = line.indexOf(',', start);
+			if (i < CHAIN_LENGTH - 1 ? end < 0 : end >= 0) {
+				return false;
+			}
+			if (end < 0) {
+				end = line.length();
+			}
+
+			String name = line.substring(start, end).trim();
+			if (name.isEmpty()) {
+				return false;
+			}
+			chain[i] = name;
+			start = end + 1;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Chains of one era read from its file.
+	 * Names of chain i are at i * CHAIN_LENGTH of one flat array.
+	 */
+	private static final class Chains {
+		private final String[] names;
+		private final int count;
+		private final List<String> eraNames;
+		private final long modified;
+		private final long length;
+		private volatile long checkedAt;
+
+		Chains(String[] names, List<String> eraNames, long modified, long length) {
+			this.names = names;
+			this.count = names.length / CHAIN_LENGTH;
+			this.eraNames = eraNames;
+			this.modified = modified;
+			this.length = length;
+			this.checkedAt = System.nanoTime();
+		}
+
+		String[] chain(int index) {
+			if (index < 0 || index >= count) {
+				throw new IndexOutOfBoundsException("Food chain " + index + " of " + count);
+			}
+			return Arrays.copyOfRange(names, index * CHAIN_LENGTH, (index + 1) * CHAIN_LENGTH);
+		}
+	}
+
+
+	// getter-setters
+	public void setCheckInterval(long millis) {
+		this.checkNanos = Math.max(0, millis) * 1_000_000L;
+	}
+
+	public long getCheckInterval() {
+		return checkNanos / 1_000_000L;
+	}
+
+}
@@ -0,0 +1,92 @@
+package util;
+
+import model.Entity;
+
+/**
+ * One event of a game, given to the subscribers of a GameEventBus.
+ * The bus fills the same object for every event, so publishing does not allocate.
+ * Listeners should copy the fields they want to keep.
+ */
+public final class GameEvent {
+	private EventType type;
+	private EventLevel level;
+	private int round;
+	private Entity actor;
+	private Entity target;
+	private int fromX;
+	private int fromY;
+	private int x;
+	private int y;
+	private int points;
+
+	GameEvent() {
+	}
+
+	void set(EventType type, EventLevel level, int round, Entity actor, Entity target, int fromX, int fromY, int x, int y, int points) {
+		this.type = type;
+		this.level = level;
+		this.round = round;
+		this.actor = actor;
+		this.target = target;
+		this.fromX = fromX;
+		this.fromY = fromY;
+		this.x = x;
+		this.y = y;
+		this.points = points;
+	}
+
+	/**
+	 * Clears the entities so the event does not keep them alive.
+	 */
+	void clear() {
+		this.actor = null;
+		this.target = null;
+	}
+
+
+	// getter-setters
+	public EventType getType() {
+		return type;
+	}
+
+	public EventLevel getLevel() {
+		return level;
+	}
+
+	public int getRound() {
+		return round;
+	}
+
+	public Entity getActor() {
+		return actor;
+	}
+
+	public Entity getTarget() {
+		return target;
+	}
+
+	/**
+	 * Gives where the actor was before the event, for moves, eats and abilities.
+	 * @return Coordinate-X, -1 if the event has no start cell.
+	 */
+	public int getFromX() {
+		return fromX;
+	}
+
+	public int getFromY() {
+		return fromY;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getPoints() {
+		return points;
+	}
+
+}
@@ -0,0 +1,261 @@
+package util;
+
+import java.util.Arrays;
+
+import model.Entity;
+
+/**
+ * Typed stream of game events with level filtering.
+ * Animals and the engine publish events through the helper methods, which first check
+ * whether anybody listens to that type at that level. A disabled event builds no string
+ * and allocates nothing, so the moves cost almost nothing when no log is on.
+ * Events are published on the thread that plays the round, subscribing is safe from any thread.
+ */
+public class GameEventBus {
+	private static final EventType[] TYPES = EventType.values();
+	// bu seviyeyi kimse dinlemiyor
+	private static final int NOBODY = Integer.MAX_VALUE;
+
+	private volatile Subscription[] subscriptions = new Subscription[0];
+	// her tür için dinlenen en düşük seviye
+	private volatile int[] minLevels = filledMinLevels();
+
+	private final GameEvent event = new GameEvent();
+	private boolean publishing;
+	private int round;
+
+
+	/**
+	 * Subscribes a listener to all event types.
+	 * @param listener The listener
+	 * @param minLevel Lowest level the listener wants
+	 */
+	public void subscribe(GameEventListener listener, EventLevel minLevel) {
+		subscribe(listener, minLevel, TYPES);
+	}
+
+	/**
+	 * Subscribes a listener to some event types.
+	 * @param listener The listener
+	 * @param minLevel Lowest level the listener wants
+	 * @param types Event types the listener wants
+	 */
+	public synchronized void subscribe(GameEventListener listener, EventLevel minLevel, EventType... types) {
+		int mask = 0;
+		for (EventType type : types) {
+			mask |= 1 << type.ordinal();
+		}
+
+		Subscription[] more = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+		more[more.length - 1] = new Subscription(listener, minLevel.ordinal(), mask);
+		update(more);
+	}
+
+	/**
+	 * Removes every subscription of a listener.
+	 * @param listener The listener
+	 */
+	public synchronized void unsubscribe(GameEventListener listener) {
+		update(Arrays.stream(subscriptions).filter(s -> s.listener != listener).toArray(Subscription[]::new));
+	}
+
+	private void update(Subscription[] list) {
+		int[] levels = filledMinLevels();
+		for (Subscription s : list) {
+			for (EventType type : TYPES) {
+				if ((s.mask & (1 << type.ordinal())) != 0) {
+					levels[type.ordinal()] = Math.min(levels[type.ordinal()], s.minLevel);
+				}
+			}
+		}
+		subscriptions = list;
+		minLevels = levels;
+	}
+
+	private static int[] filledMinLevels() {
+		int[] levels = new int[TYPES.length];
+		Arrays.fill(levels, NOBODY);
+		return levels;
+	}
+
+	/**
+	 * Checks if anybody listens to an event.
+	 * @param type Event type
+	 * @param level Event level
+	 * @return true if publishing it would reach a listener.
+	 */
+	public boolean isEnabled(EventType type, EventLevel level) {
+		return level.ordinal() >= minLevels[type.ordinal()];
+	}
+
+
+	/**
+	 * Gives an event to the listeners that want it.
+	 * @param type Event type
+	 * @param level Event level
+	 * @param actor Entity that did it, can be null
+	 * @param target Entity it was done to, can be null
+	 * @param fromX Coordinate-X where the actor started, -1 if none
+	 * @param fromY Coordinate-Y where the actor started, -1 if none
+	 * @param x Coordinate-X of the event, -1 if none
+	 * @param y Coordinate-Y of the event, -1 if none
+	 * @param points Points gained by the actor
+	 */
+	public void publish(EventType type, EventLevel level, Entity actor, Entity target, int fromX, int fromY, int x, int y, int points) {
+		if (!isEnabled(type, level)) {
+			return;
+		}
+
+		// dinleyici içinden yayın yaparsa paylaşılan nesne bozulmasın
+		GameEvent e = publishing ? new GameEvent() : event;
+		boolean outer = !publishing;
+		publishing = true;
+		try {
+			e.set(type, level, round, actor, target, fromX, fromY, x, y, points);
+			int bit = 1 << type.ordinal();
+			for (Subscription s : subscriptions) {
+				if ((s.mask & bit) != 0 && level.ordinal() >= s.minLevel) {
+					s.listener.onEvent(e);
+				}
+			}
+		}
+		finally {
+			e.clear();
+			if (outer) {
+				publishing = false;
+			}
+		}
+	}
+
+	/**
+	 * An animal moved.
+	 * @param actor The animal
+	 * @param fromX Old coordinate-X
+	 * @param fromY Old coordinate-Y
+	 * @param x New coordinate-X
+	 * @param y New coordinate-Y
+	 */
+	public void move(Entity actor, int fromX, int fromY, int x, int y) {
+		publish(EventType.MOVE, EventLevel.DEBUG, actor, null, fromX, fromY, x, y, 0);
+	}
+
+	/**
+	 * An animal ate something, the eater has not moved yet.
+	 * @param actor The eater
+	 * @param victim The eaten animal or food
+	 * @param x Coordinate-X of the victim
+	 * @param y Coordinate-Y of the victim
+	 * @param points Points gained by the eater
+	 */
+	public void eat(Entity actor, Entity victim, int x, int y, int points) {
+		if (isEnabled(EventType.EAT, EventLevel.INFO)) {
+			publish(EventType.EAT, EventLevel.INFO, actor, victim, actor.getX(), actor.getY(), x, y, points);
+		}
+	}
+
+	/**
+	 * An eaten entity came back on the grid.
+	 * @param entity The entity, already at its new position
+	 */
+	public void respawn(Entity entity) {
+		if (isEnabled(EventType.RESPAWN, EventLevel.DEBUG)) {
+			publish(EventType.RESPAWN, EventLevel.DEBUG, entity, null, -1, -1, entity.getX(), entity.getY(), 0);
+		}
+	}
+
+	/**
+	 * An eaten entity could not come back because the grid is full.
+	 * @param entity The entity
+	 */
+	public void respawnFailed(Entity entity) {
+		publish(EventType.RESPAWN, EventLevel.WARN, entity, null, -1, -1, -1, -1, 0);
+	}
+
+	/**
+	 * An animal used its special ability.
+	 * @param actor The animal
+	 * @param fromX Coordinate-X it jumped from
+	 * @param fromY Coordinate-Y it jumped from
+	 * @param x Target coordinate-X
+	 * @param y Target coordinate-Y
+	 */
+	public void ability(Entity actor, int fromX, int fromY, int x, int y) {
+		publish(EventType.ABILITY, EventLevel.INFO, actor, null, fromX, fromY, x, y, 0);
+	}
+
+	/**
+	 * An entity was placed when the game started.
+	 * @param entity The entity, already at its position
+	 */
+	public void place(Entity entity) {
+		if (isEnabled(EventType.PLACE, EventLevel.DEBUG)) {
+			publish(EventType.PLACE, EventLevel.DEBUG, entity, null, -1, -1, entity.getX(), entity.getY(), 0);
+		}
+	}
+
+	/**
+	 * An animal skipped its turn.
+	 * @param actor The animal, at the cell it stays on
+	 */
+	public void skip(Entity actor) {
+		if (isEnabled(EventType.SKIP, EventLevel.INFO)) {
+			publish(EventType.SKIP, EventLevel.INFO, actor, null, actor.getX(), actor.getY(), actor.getX(), actor.getY(), 0);
+		}
+	}
+
+	/**
+	 * A move was not valid and was ignored.
+	 * @param actor The animal that was asked to move, can be null
+	 * @param x Target coordinate-X
+	 * @param y Target coordinate-Y
+	 */
+	public void invalidMove(Entity actor, int x, int y) {
+		publish(EventType.INVALID_MOVE, EventLevel.INFO, actor, null, -1, -1, x, y, 0);
+	}
+
+	/**
+	 * A planned move could not be applied because its cell was taken, the animal stays.
+	 * @param actor The animal, at the cell it stays on
+	 * @param x Planned coordinate-X
+	 * @param y Planned coordinate-Y
+	 */
+	public void conflict(Entity actor, int x, int y) {
+		if (isEnabled(EventType.CONFLICT, EventLevel.DEBUG)) {
+			publish(EventType.CONFLICT, EventLevel.DEBUG, actor, null, actor.getX(), actor.getY(), x, y, 0);
+		}
+	}
+
+	/**
+	 * The current round ended.
+	 */
+	public void roundEnd() {
+		publish(EventType.ROUND_END, EventLevel.INFO, null, null, -1, -1, -1, -1, 0);
+	}
+
+
+	/**
+	 * A listener with its level and types.
+	 */
+	private static final class Subscription {
+		private final GameEventListener listener;
+		private final int minLevel;
+		private final int mask;
+
+		Subscription(GameEventListener listener, int minLevel, int mask) {
+			this.listener = listener;
+			this.minLevel = minLevel;
+			this.mask = mask;
+		}
+	}
+
+
+	// getter-setters
+	public int getRound() {
+		return round;
+	}
+
+	public void setRound(int round) {
+		this.round = round;
+	}
+
+}
@@ -0,0 +1,15 @@
+package util;
+
+/**
+ * Subscriber of a GameEventBus.
+ */
+public interface GameEventListener {
+	
+	/**
+	 * Called for every event the listener subscribed to.
+	 * The event object is reused for the next event, it must not be kept.
+	 * @param event The event
+	 */
+	void onEvent(GameEvent event);
+	
+}
@@ -6,28 +6,130 @@ import java.io.IOException;
 
 /**
  * GameLogger class is for logging operations.
+ * By default every message opens and closes log.txt.
+ * After enableAsync() messages are queued and written by a background AsyncLogWriter.
  */
 public class GameLogger {
-	
+
 	private static final String LOG_FILE = "log.txt";
-	
+
+	private static volatile boolean fileEnabled = true;
+	private static volatile boolean consoleEnabled = true;
+	private static volatile AsyncLogWriter asyncWriter;
+	private static boolean shutdownHookAdded;
+	private static long closedDropped; // kapatılan writer'ların attığı mesajlar
+
 	/**
 	 * Appends the specified message to the log file.
 	 * @param message The text content to write to the log file.
 	 */
 	public static void log(String message) {
+		if (!fileEnabled) {
+			return;
+		}
 		
+		AsyncLogWriter async = asyncWriter;
+		if (async != null && async.submit(message)) {
+			return;
+		}
+		// writer bu arada kapandıysa mesaj doğrudan dosyaya yazılıyor
+
 		try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE, true))){
 			writer.write(message);
 			writer.newLine();
-			
+
 		}
 		catch (IOException e) {
 			System.out.println("Log'da bi hata var.");
 		}
+
+	}
+
+	/**
+	 * Switches the file log to asynchronous mode.
+	 * Messages are written in batches by a background thread that keeps log.txt open.
+	 * The current writer is also closed by a shutdown hook when the JVM exits.
+	 * @param capacity Capacity of the message queue
+	 * @param batchSize Maximum number of lines written at once
+	 * @param flushIntervalMillis Maximum time a message waits before it is written
+	 * @param policy What to do when the queue is full
+	 * @throws IOException Throws if log.txt cannot be opened.
+	 */
+	public static synchronized void enableAsync(int capacity, int batchSize, long flushIntervalMillis, BackPressure policy) throws IOException {
+		AsyncLogWriter old = asyncWriter;
+		asyncWriter = new AsyncLogWriter(LOG_FILE, capacity, batchSize, flushIntervalMillis, policy);
+		if (old != null) {
+			old.close();
+			closedDropped += old.getDroppedCount();
+		}
 		
+		if (!shutdownHookAdded) {
+			Runtime.getRuntime().addShutdownHook(new Thread(GameLogger::close, "game-log-close"));
+			shutdownHookAdded = true;
+		}
 	}
 	
+	/**
+	 * Waits until all queued messages are written to log.txt.
+	 * Does nothing in synchronous mode.
+	 */
+	public static void flush() {
+		AsyncLogWriter writer = asyncWriter;
+		if (writer != null) {
+			writer.flush();
+		}
+	}
 	
+	/**
+	 * Writes the queued messages and goes back to synchronous mode.
+	 */
+	public static synchronized void close() {
+		AsyncLogWriter writer = asyncWriter;
+		if (writer != null) {
+			asyncWriter = null;
+			writer.close();
+			closedDropped += writer.getDroppedCount();
+		}
+	}
 	
+	/**
+	 * Gives how many messages were dropped because the queue was full, since the program started.
+	 * @return Number of dropped messages.
+	 */
+	public static synchronized long getDroppedCount() {
+		AsyncLogWriter writer = asyncWriter;
+		if (writer != null) {
+			return closedDropped + writer.getDroppedCount();
+		}
+		return closedDropped;
+	}
+	
+	/**
+	 * Prints the specified message to the console if console output is enabled.
+	 * @param message The text to print.
+	 */
+	public static void print(String message) {
+		if (consoleEnabled) {
+			System.out.println(message);
+		}
+	}
+
+
+	// getter-setters
+	public static void setFileEnabled(boolean enabled) {
+		fileEnabled = enabled;
+	}
+
+	public static void setConsoleEnabled(boolean enabled) {
+		consoleEnabled = enabled;
+	}
+
+	public static boolean isFileEnabled() {
+		return fileEnabled;
+	}
+
+	public static boolean isConsoleEnabled() {
+		return consoleEnabled;
+	}
+
 }
@@ -0,0 +1,104 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fast seedable random number generator for the game.
+ * Uses the SplitMix64 algorithm (the one behind java.util.SplittableRandom).
+ * Every engine owns one instance, so a game can be replayed exactly from its seed.
+ * Not thread safe, each thread or engine should use its own stream (see split()).
+ */
+public class GameRandom {
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final AtomicLong seedUniquifier = new AtomicLong(System.nanoTime());
+	
+	private final long seed;
+	private long state;
+	
+	/**
+	 * Constructor for GameRandom class.
+	 * @param seed Seed of the stream, same seed gives the same numbers
+	 */
+	public GameRandom(long seed) {
+		this.seed = seed;
+		this.state = seed;
+	}
+	
+	/**
+	 * Creates a new seed that is different for every call.
+	 * Used when the player does not give a seed.
+	 * @return A new seed.
+	 */
+	public static long newSeed() {
+		return mix64(seedUniquifier.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime());
+	}
+	
+	
+	/**
+	 * Gives the next random long.
+	 * @return Random long value.
+	 */
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+		return mix64(state);
+	}
+	
+	/**
+	 * Gives a random int between 0 (inclusive) and bound (exclusive).
+	 * @param bound Upper bound, must be positive
+	 * @return Random int value.
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		
+		int r = (int) (nextLong() >>> 33);
+		int m = bound - 1;
+		
+		if ((bound & m) == 0) {
+			return (int) ((bound * (long) r) >>> 31);
+		}
+		
+		// eşit dağılım için fazla kalan değerleri reddet
+		for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+		}
+		return r;
+	}
+	
+	/**
+	 * Creates a new independent stream seeded from this one.
+	 * Same seed always gives the same sequence of split streams.
+	 * @return The new stream.
+	 */
+	public GameRandom split() {
+		return new GameRandom(nextLong());
+	}
+	
+	
+	/**
+	 * SplitMix64 output function.
+	 * @param z Value to mix
+	 * @return Mixed value.
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	
+	// getter-setters
+	public long getSeed() {
+		return seed;
+	}
+	
+	public long getState() {
+		return state;
+	}
+	
+	public void setState(long state) {
+		this.state = state;
+	}
+	
+}
@@ -0,0 +1,103 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue of log lines.
+ * Any number of threads may offer, only the writer thread of AsyncLogWriter polls.
+ * Every slot has a sequence number that tells if it is free or holds a published line.
+ */
+public class LogQueue {
+	private final AtomicReferenceArray<String> items;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	
+	private final AtomicLong enqueuePos = new AtomicLong();
+	private long dequeuePos; // sadece writer thread kullanır
+	
+	/**
+	 * Constructor for LogQueue class.
+	 * @param capacity Requested capacity, rounded up to a power of two.
+	 */
+	public LogQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		this.items = new AtomicReferenceArray<>(size);
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+	
+	/**
+	 * Adds the line to the queue if there is a free slot.
+	 * @param line Line to add
+	 * @return false if the queue is full.
+	 */
+	public boolean offer(String line) {
+		long pos = enqueuePos.get();
+		
+		while (true) {
+			int index = (int) (pos & mask);
+			long diff = sequences.get(index) - pos;
+			
+			if (diff == 0) {
+				if (enqueuePos.compareAndSet(pos, pos + 1)) {
+					items.lazySet(index, line);
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = enqueuePos.get();
+			}
+			else if (diff < 0) {
+				return false;
+			}
+			else {
+				pos = enqueuePos.get();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the oldest published line.
+	 * Must only be called by the single consumer thread.
+	 * @return The line or null if nothing is published yet.
+	 */
+	public String poll() {
+		int index = (int) (dequeuePos & mask);
+		if (sequences.get(index) != dequeuePos + 1) {
+			return null;
+		}
+		
+		String line = items.get(index);
+		items.lazySet(index, null);
+		sequences.set(index, dequeuePos + mask + 1);
+		dequeuePos++;
+		return line;
+	}
+	
+	/**
+	 * Gives how many lines have been claimed by producers so far.
+	 * @return Total number of accepted offers.
+	 */
+	public long getEnqueuedCount() {
+		return enqueuePos.get();
+	}
+	
+	/**
+	 * Gives how many lines the consumer has taken so far.
+	 * Must only be called by the single consumer thread.
+	 * @return Total number of polled lines.
+	 */
+	public long getDequeuedCount() {
+		return dequeuePos;
+	}
+	
+	public int getCapacity() {
+		return mask + 1;
+	}
+	
+}
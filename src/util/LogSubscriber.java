@@ -0,0 +1,141 @@
+package util;
+
+import model.ApexPredator;
+import model.Entity;
+import model.Food;
+import model.Predator;
+import model.Prey;
+
+/**
+ * Writes game events as text lines to the console or to log.txt through GameLogger.
+ * Strings are only built for the events the subscriber gets.
+ */
+public class LogSubscriber implements GameEventListener {
+	private static final String SEPARATOR = "------------------------------------------------------";
+
+	private final boolean console;
+	private final StringBuilder line = new StringBuilder(96);
+
+
+	private LogSubscriber(boolean console) {
+		this.console = console;
+	}
+
+	/**
+	 * Creates a subscriber that prints to the console.
+	 * @return The subscriber.
+	 */
+	public static LogSubscriber console() {
+		return new LogSubscriber(true);
+	}
+
+	/**
+	 * Creates a subscriber that writes to log.txt.
+	 * @return The subscriber.
+	 */
+	public static LogSubscriber file() {
+		return new LogSubscriber(false);
+	}
+
+
+	@Override
+	public void onEvent(GameEvent e) {
+		line.setLength(0);
+		Entity actor = e.getActor();
+
+		switch (e.getType()) {
+			case MOVE:
+				named(actor).append(" moved to ");
+				position(e);
+				break;
+
+			case EAT:
+				named(actor).append(" ATE ").append(e.getTarget().getName()).append(" at ");
+				position(e);
+				line.append(", +").append(e.getPoints()).append(e.getPoints() == 1 ? " point" : " points");
+				break;
+
+			case RESPAWN:
+				if (e.getX() < 0) {
+					line.append(actor.getName()).append(" could not respawn, grid is full.");
+				}
+				else {
+					line.append(actor.getName()).append(" respawned at ");
+					position(e);
+				}
+				break;
+
+			case ABILITY:
+				named(actor).append(" used its special move to ");
+				position(e);
+				break;
+
+			case PLACE:
+				line.append("Placed ").append(actor.getSymbol()).append(" at ");
+				position(e);
+				break;
+
+			case ROUND_END:
+				line.append("Round ").append(e.getRound()).append(" completed.");
+				break;
+
+			case SKIP:
+				named(actor).append(" skipped turn at ");
+				position(e);
+				break;
+
+			case INVALID_MOVE:
+				line.append("Invalid move to ");
+				position(e);
+				line.append(" ignored.");
+				break;
+
+			case CONFLICT:
+				named(actor).append(" could not move to ");
+				position(e);
+				line.append(", cell is taken.");
+				break;
+		}
+
+		write(line.toString());
+		if (e.getType() == EventType.ROUND_END && !console) {
+			GameLogger.log("");
+			GameLogger.log(SEPARATOR);
+			GameLogger.log("");
+		}
+	}
+
+	private StringBuilder named(Entity e) {
+		return line.append(e.getName()).append(" (").append(roleOf(e)).append(')');
+	}
+
+	private void position(GameEvent e) {
+		line.append('(').append(e.getX()).append(", ").append(e.getY()).append(')');
+	}
+
+	private void write(String text) {
+		if (console) {
+			GameLogger.print(text);
+		}
+		else {
+			GameLogger.log(text);
+		}
+	}
+
+	private static String roleOf(Entity e) {
+		if (e instanceof ApexPredator) {
+			return "Apex";
+		}
+		if (e instanceof Predator) {
+			return "Predator";
+		}
+		if (e instanceof Prey) {
+			return "Prey";
+		}
+		if (e instanceof Food) {
+			return "Food";
+		}
+		return "Entity";
+	}
+
+}
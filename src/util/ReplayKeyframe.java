@@ -0,0 +1,123 @@
+package util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+
+/**
+ * Whole state of a game between two rounds, enough to go on playing exactly the same game.
+ * Holds the board as a binary save, the state of the random generator and the order of the empty cells,
+ * since respawn cells are picked by that order and it depends on the history of the grid.
+ * Restoring creates new entities every time, so one keyframe can be restored many times.
+ */
+final class ReplayKeyframe {
+	// -1 sayısı boş hücre sırası olmadığını gösteriyor (SPARSE)
+	private static final int NO_ORDER = -1;
+
+	private final long randomState;
+	private final int[] freeOrder;
+	private final byte[] save;
+
+
+	private ReplayKeyframe(long randomState, int[] freeOrder, byte[] save) {
+		this.randomState = randomState;
+		this.freeOrder = freeOrder;
+		this.save = save;
+	}
+
+	/**
+	 * Takes the current state of the engine.
+	 * @param engine Engine between two rounds
+	 * @return The keyframe.
+	 * @throws IOException Throws if the game cannot be written as a binary save.
+	 */
+	static ReplayKeyframe capture(GameEngine engine) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinarySave.write(engine, Channels.newChannel(out));
+		return new ReplayKeyframe(engine.getRandom().getState(), engine.getGrid().getFreeCellOrder(), out.toByteArray());
+	}
+
+	/**
+	 * Puts the state back into an engine.
+	 * @param engine Engine to load into, its storage must be the same as the captured one
+	 * @param source Name of the replay for error messages
+	 * @throws GameLoadException Throws if the state does not fit the engine.
+	 */
+	void restore(GameEngine engine, String source) throws GameLoadException {
+		SaveData data = BinarySave.read(ByteBuffer.wrap(save), source);
+		data.applyTo(engine);
+		engine.getRandom().setState(randomState);
+		if (!engine.getGrid().restoreFreeCellOrder(freeOrder == null ? null : freeOrder.clone())) {
+			throw new GameLoadException("Empty cells of the replay do not match its board: " + source);
+		}
+	}
+
+
+	/**
+	 * Gives the number of bytes put() writes.
+	 * @return Size in bytes.
+	 */
+	int size() {
+		return 8 + 4 + (freeOrder == null ? 0 : freeOrder.length * 4) + 4 + save.length;
+	}
+
+	/**
+	 * Writes the keyframe: random state, empty cell count and cells, save length and save.
+	 * @param buf Buffer with at least size() bytes left
+	 */
+	void put(ByteBuffer buf) {
+		buf.putLong(randomState);
+		if (freeOrder == null) {
+			buf.putInt(NO_ORDER);
+		}
+		else {
+			buf.putInt(freeOrder.length);
+			for (int cell : freeOrder) {
+				buf.putInt(cell);
+			}
+		}
+		buf.putInt(save.length);
+		buf.put(save);
+	}
+
+	/**
+	 * Reads a keyframe written by put().
+	 * The save is checked when the keyframe is restored.
+	 * @param buf Buffer positioned at the keyframe
+	 * @param source Name of the replay for error messages
+	 * @return The keyframe.
+	 * @throws GameLoadException Throws if the keyframe is cut or its sizes are not valid.
+	 */
+	static ReplayKeyframe get(ByteBuffer buf, String source) throws GameLoadException {
+		try {
+			long randomState = buf.getLong();
+			int count = buf.getInt();
+			int[] freeOrder = null;
+			if (count != NO_ORDER) {
+				if (count < 0 || count > buf.remaining() / 4) {
+					throw new GameLoadException("Replay file is broken: " + source);
+				}
+				freeOrder = new int[count];
+				buf.asIntBuffer().get(freeOrder);
+				buf.position(buf.position() + count * 4);
+			}
+
+			int length = buf.getInt();
+			if (length < 0 || length > buf.remaining()) {
+				throw new GameLoadException("Replay file is broken: " + source);
+			}
+			byte[] save = new byte[length];
+			buf.get(save);
+			return new ReplayKeyframe(randomState, freeOrder, save);
+		}
+		catch (BufferUnderflowException e) {
+			throw new GameLoadException("Replay file is broken: " + source);
+		}
+	}
+
+}
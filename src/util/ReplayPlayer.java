@@ -0,0 +1,256 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+import logic.MatchResult;
+import model.GridStorage;
+
+/**
+ * Plays a replay file written by ReplayRecorder again by re-simulating its rounds.
+ * Runs headless at full speed: the engine publishes no snapshots and has no log subscribers.
+ * While playing forward a keyframe is kept every few rounds, so seeking back to any round
+ * starts from the nearest keyframe before it instead of the start of the replay.
+ */
+public class ReplayPlayer {
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 50;
+
+	private final String source;
+	private final long seed;
+	private final GridStorage storage;
+	private final boolean twoPhase;
+	private final String[] foodChain;
+	private final int[] clicks;
+	private final ReplayKeyframe start;
+
+	private final GameEngine engine;
+	private final int startRound;
+	private int played; // baştan beri oynanan tıklama sayısı
+	private int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+	private ReplayKeyframe[] keyframes;
+
+
+	/**
+	 * Reads a replay file and puts its engine at the start of the recording.
+	 * @param file Replay file
+	 * @throws IOException Throws if file error happens.
+	 * @throws GameLoadException Throws if the file is not a valid replay.
+	 */
+	public ReplayPlayer(File file) throws IOException, GameLoadException {
+		this.source = file.getName();
+		ByteBuffer buf;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			buf = BinarySave.readAll(channel);
+		}
+
+		try {
+			if (buf.remaining() < 6 || buf.getInt() != ReplayRecorder.MAGIC) {
+				throw new GameLoadException("Not a replay file: " + source);
+			}
+			int version = buf.getShort();
+			if (version != ReplayRecorder.FORMAT_VERSION) {
+				throw new GameLoadException("Unsupported replay version: " + version);
+			}
+
+			seed = buf.getLong();
+			int storageCode = buf.get();
+			storage = ReplayRecorder.storageOf(storageCode);
+			if (storage == null) {
+				throw new GameLoadException("Unknown grid storage in replay file: " + storageCode);
+			}
+			twoPhase = buf.get() != 0;
+
+			foodChain = new String[FoodChainCatalog.CHAIN_LENGTH];
+			for (int i = 0; i < foodChain.length; i++) {
+				byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+				buf.get(bytes);
+				foodChain[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			start = ReplayKeyframe.get(buf, source);
+		}
+		catch (BufferUnderflowException e) {
+			throw new GameLoadException("Replay file is broken: " + source);
+		}
+
+		// yarım kalan son tıklama yok sayılıyor
+		clicks = new int[buf.remaining() / 4];
+		buf.asIntBuffer().get(clicks);
+
+		engine = newEngine();
+		start.restore(engine, source);
+		startRound = engine.getCurrentRaund();
+		checkClicks();
+		keyframes = new ReplayKeyframe[clicks.length / keyframeInterval + 1];
+		keyframes[0] = start;
+	}
+
+	private GameEngine newEngine() {
+		GameEngine e = new GameEngine(storage, seed);
+		e.setSnapshotsEnabled(false);
+		if (twoPhase) {
+			e.setDecisionPool(ForkJoinPool.commonPool());
+		}
+		return e;
+	}
+
+	private void checkClicks() throws GameLoadException {
+		int cells = engine.getGrid().getRows() * engine.getGrid().getCols();
+		for (int cell : clicks) {
+			if (cell < 0 || cell >= cells) {
+				throw new GameLoadException("Click is out of the grid in replay file: " + cell);
+			}
+		}
+	}
+
+
+	/**
+	 * Plays the next recorded round.
+	 * @return false if the replay is at its end.
+	 * @throws GameLoadException Throws if the engine does not accept the recorded click,
+	 * which means the replay does not belong to this version of the game.
+	 */
+	public boolean step() throws GameLoadException {
+		if (played >= clicks.length) {
+			return false;
+		}
+
+		int cols = engine.getGrid().getCols();
+		int cell = clicks[played];
+		if (!engine.processTurnWhenCliked(cell % cols, cell / cols)) {
+			throw new GameLoadException("Replay does not match the game at round " + engine.getCurrentRaund() + ": " + source);
+		}
+		played++;
+
+		if (played % keyframeInterval == 0 && keyframes[played / keyframeInterval] == null) {
+			try {
+				keyframes[played / keyframeInterval] = ReplayKeyframe.capture(engine);
+			}
+			catch (IOException e) {
+				// anahtar kare olmadan da oynanıyor, sadece geri sarmak yavaşlar
+				GameLogger.log("Replay keyframe could not be kept: " + e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Puts the engine at the start of a round, as it was before the player clicked in that round.
+	 * Goes forward from the current round, or from the nearest keyframe if that is closer or the round is behind.
+	 * @param round Round number of the game, kept between the first recorded round and the end
+	 * @throws GameLoadException Throws if the replay does not match the game.
+	 */
+	public void seek(int round) throws GameLoadException {
+		int target = Math.max(0, Math.min(clicks.length, round - startRound));
+
+		int k = target / keyframeInterval;
+		while (keyframes[k] == null) {
+			k--;
+		}
+		if (target < played || k * keyframeInterval > played) {
+			keyframes[k].restore(engine, source);
+			played = k * keyframeInterval;
+		}
+
+		while (played < target) {
+			step();
+		}
+	}
+
+	/**
+	 * Plays all remaining rounds at full speed.
+	 * @throws GameLoadException Throws if the replay does not match the game.
+	 */
+	public void fastForward() throws GameLoadException {
+		seek(startRound + clicks.length);
+	}
+
+
+	/**
+	 * Plays a replay from the command line and prints the result.
+	 * Usage: ReplayPlayer file [round]
+	 * @param args Replay file and the round to seek, the end of the replay by default
+	 */
+	public static void main(String[] args) throws IOException, GameLoadException {
+		if (args.length == 0) {
+			System.out.println("Usage: ReplayPlayer file [round]");
+			return;
+		}
+		GameLogger.setConsoleEnabled(false);
+		GameLogger.setFileEnabled(false);
+
+		ReplayPlayer player = new ReplayPlayer(new File(args[0]));
+		int round = args.length > 1 ? Integer.parseInt(args[1]) : player.getEndRound();
+
+		long begin = System.nanoTime();
+		player.seek(round);
+		long millis = (System.nanoTime() - begin) / 1_000_000;
+
+		GameEngine engine = player.getEngine();
+		System.out.println("Seed: " + player.getSeed() + ", Food chain: " + String.join(" -> ", player.getFoodChain()));
+		System.out.println((player.getEndRound() - player.getStartRound()) + " rounds recorded from round " + player.getStartRound()
+				+ ", at round " + engine.getCurrentRaund() + " after " + millis + " ms.");
+		if (engine.isGameOver()) {
+			System.out.println(engine.getGameResult());
+		}
+		else {
+			MatchResult result = engine.getMatchResult();
+			System.out.println("Scores: Apex " + result.getApexScore() + ", Predator " + result.getPredatorScore() + ", Prey " + result.getPreyScore());
+		}
+	}
+
+
+	// getter-setters
+	/**
+	 * Gives the engine of the replay.
+	 * Restoring a keyframe gives the engine a new grid, so get the grid again after seeking.
+	 * Turn snapshots on to show it in the GUI.
+	 * @return The engine.
+	 */
+	public GameEngine getEngine() {
+		return engine;
+	}
+
+	public int getStartRound() {
+		return startRound;
+	}
+
+	public int getEndRound() {
+		return startRound + clicks.length;
+	}
+
+	public int getRound() {
+		return startRound + played;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public String[] getFoodChain() {
+		return foodChain.clone();
+	}
+
+	/**
+	 * Sets how many rounds are played between two keyframes.
+	 * Keyframes kept until now are dropped, except the start.
+	 * @param rounds Rounds between keyframes
+	 */
+	public void setKeyframeInterval(int rounds) {
+		this.keyframeInterval = Math.max(1, rounds);
+		this.keyframes = new ReplayKeyframe[clicks.length / keyframeInterval + 1];
+		this.keyframes[0] = start;
+	}
+
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+
+}
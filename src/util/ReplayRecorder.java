@@ -0,0 +1,208 @@
+package util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import logic.GameEngine;
+import model.Food;
+import model.GridStorage;
+
+/**
+ * Records a game into a compact binary replay file.
+ * Layout: header (magic, format version, seed, grid storage, round mode), the food chain,
+ * the whole game at the start of the recording as a keyframe, then one int per played round:
+ * the cell the player clicked. Bots are not recorded, ReplayPlayer finds their moves again
+ * by playing the clicks on the same state, since the engine is deterministic.
+ * Clicks are buffered and written in blocks or by flush(), a cut file only loses the clicks after the last write.
+ */
+public class ReplayRecorder implements Closeable {
+	// "FCTR", kayıt dosyalarından ayırmak için
+	static final int MAGIC = 0x46435452;
+	static final int FORMAT_VERSION = 1;
+	// bu kadar tıklama birikince dosyaya yazılıyor
+	private static final int CLICK_BLOCK = 256;
+	// 1 eski FLAT saklamasıydı, boş hücre sırası DENSE ile aynı olduğu için DENSE okunuyor
+	private static final int STORAGE_DENSE = 0;
+	private static final int STORAGE_OLD_FLAT = 1;
+	private static final int STORAGE_SPARSE = 2;
+
+	private final GameEngine engine;
+	private final FileChannel channel;
+	private final int cols;
+	private final ByteBuffer clicks = ByteBuffer.allocate(CLICK_BLOCK * 4);
+	private int clickCount;
+	private IOException error;
+
+
+	private ReplayRecorder(GameEngine engine, File file) throws IOException {
+		this.engine = engine;
+		this.cols = engine.getGrid().getCols();
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			writeHeader();
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Starts recording the game of an engine from its current round.
+	 * Must be called between two rounds, like right after the engine is created.
+	 * @param engine Engine to record
+	 * @param file Replay file, overwritten if it exists
+	 * @return The recorder, close it when the game is over or another game is started.
+	 * @throws IOException Throws if the file cannot be written.
+	 */
+	public static ReplayRecorder start(GameEngine engine, File file) throws IOException {
+		ReplayRecorder recorder = new ReplayRecorder(engine, file);
+		engine.setReplayRecorder(recorder);
+		return recorder;
+	}
+
+	private void writeHeader() throws IOException {
+		ReplayKeyframe start = ReplayKeyframe.capture(engine);
+		byte[][] chain = new byte[FoodChainCatalog.CHAIN_LENGTH][];
+		String[] names = foodChainOf(engine);
+		int size = 4 + 2 + 8 + 1 + 1 + start.size();
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = names[i].getBytes(StandardCharsets.UTF_8);
+			size += 2 + chain[i].length;
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(size);
+		buf.putInt(MAGIC);
+		buf.putShort((short) FORMAT_VERSION);
+		buf.putLong(engine.getSeed());
+		buf.put((byte) (engine.getGrid().getStorage() == GridStorage.SPARSE ? STORAGE_SPARSE : STORAGE_DENSE));
+		buf.put((byte) (engine.getDecisionPool() != null ? 1 : 0));
+		for (byte[] name : chain) {
+			buf.putShort((short) name.length);
+			buf.put(name);
+		}
+		start.put(buf);
+
+		buf.flip();
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+	}
+
+	/**
+	 * Gives the grid storage of a code in the replay header.
+	 * @param code Storage code
+	 * @return The storage, null for an unknown code.
+	 */
+	static GridStorage storageOf(int code) {
+		switch (code) {
+			case STORAGE_DENSE:
+			case STORAGE_OLD_FLAT:
+				return GridStorage.DENSE;
+			case STORAGE_SPARSE:
+				return GridStorage.SPARSE;
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Gives the names of the food chain that is being played.
+	 * @param engine The engine
+	 * @return Names {apex, predator, prey, food}, empty for a role with nobody left.
+	 */
+	private static String[] foodChainOf(GameEngine engine) {
+		List<Food> foods = FileManager.foodsInCellOrder(engine.getGrid());
+		return new String[] {
+				engine.getApexes().isEmpty() ? "" : engine.getApexes().get(0).getName(),
+				engine.getPredators().isEmpty() ? "" : engine.getPredators().get(0).getName(),
+				engine.getPreys().isEmpty() ? "" : engine.getPreys().get(0).getName(),
+				foods.isEmpty() ? "" : foods.get(0).getName()
+		};
+	}
+
+
+	/**
+	 * Records a click that was played as a round.
+	 * Called by the engine. A write error stops the recording and is kept for close().
+	 * @param x Clicked coordinate-X
+	 * @param y Clicked coordinate-Y
+	 */
+	public synchronized void recordClick(int x, int y) {
+		if (error != null || !channel.isOpen()) {
+			return;
+		}
+		clicks.putInt(y * cols + x);
+		clickCount++;
+		if (!clicks.hasRemaining()) {
+			writeClicks();
+		}
+	}
+
+	/**
+	 * Writes the buffered clicks to the file now.
+	 * The GUI calls it after every round, since the window can be closed any time.
+	 */
+	public synchronized void flush() {
+		if (error == null && channel.isOpen() && clicks.position() > 0) {
+			writeClicks();
+		}
+	}
+
+	private void writeClicks() {
+		clicks.flip();
+		try {
+			while (clicks.hasRemaining()) {
+				channel.write(clicks);
+			}
+		}
+		catch (IOException e) {
+			error = e;
+			GameLogger.log("Replay recording stopped: " + e.getMessage());
+		}
+		clicks.clear();
+	}
+
+	/**
+	 * Writes the remaining clicks and closes the file.
+	 * The engine stops giving clicks to this recorder.
+	 * @throws IOException Throws if a click could not be written, the replay ends before it then.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (engine.getReplayRecorder() == this) {
+			engine.setReplayRecorder(null);
+		}
+		if (!channel.isOpen()) {
+			return;
+		}
+
+		try {
+			if (error == null) {
+				writeClicks();
+			}
+			if (error == null) {
+				channel.force(false);
+			}
+		}
+		finally {
+			channel.close();
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+
+	// getter-setters
+	public synchronized int getClickCount() {
+		return clickCount;
+	}
+
+}
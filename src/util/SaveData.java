@@ -0,0 +1,181 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import exception.GameLoadException;
+import logic.GameEngine;
+import logic.GameMode;
+import model.Animal;
+import model.Entity;
+import model.Food;
+
+/**
+ * A game read from a save file, not yet given to the engine.
+ * Loaders fill it completely and check it first, then applyTo() swaps it into the engine,
+ * so a broken or half written file never leaves the engine half loaded or empty.
+ */
+public final class SaveData {
+	private final GameMode mode;
+	private int currentRound;
+	private int totalRounds;
+	private final int rows;
+	private final int cols;
+
+	private final List<Animal> animals = new ArrayList<>();
+	private final List<Food> foods = new ArrayList<>();
+	// journal'da grid dışına çıkmış olanlar, listede kalıyorlar ama grid'e konmuyorlar
+	private final BitSet animalsOffGrid = new BitSet();
+	private final BitSet foodsOffGrid = new BitSet();
+
+
+	/**
+	 * Creates an empty game of given size.
+	 * @param mode Era of the game
+	 * @param currentRound Current round
+	 * @param totalRounds Total rounds
+	 * @param rows Number of rows
+	 * @param cols Number of columns
+	 * @throws GameLoadException Throws if the size is not valid.
+	 */
+	SaveData(GameMode mode, int currentRound, int totalRounds, int rows, int cols) throws GameLoadException {
+		if (mode == null) {
+			throw new GameLoadException("Era is missing in save file.");
+		}
+		if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+			throw new GameLoadException("Invalid grid size in save file: " + rows + "x" + cols);
+		}
+		this.mode = mode;
+		this.currentRound = currentRound;
+		this.totalRounds = totalRounds;
+		this.rows = rows;
+		this.cols = cols;
+	}
+
+	/**
+	 * Adds an animal at its own position.
+	 * @param animal The animal
+	 * @throws GameLoadException Throws if the animal is out of the grid.
+	 */
+	void addAnimal(Animal animal) throws GameLoadException {
+		checkPosition(animal);
+		animals.add(animal);
+	}
+
+	/**
+	 * Adds a food at its own position.
+	 * @param food The food
+	 * @throws GameLoadException Throws if the food is out of the grid.
+	 */
+	void addFood(Food food) throws GameLoadException {
+		checkPosition(food);
+		foods.add(food);
+	}
+
+	/**
+	 * Moves an animal to a cell.
+	 * @param index Index of the animal in load order
+	 * @param cell Cell index, -1 takes it off the grid
+	 * @throws GameLoadException Throws if the cell is out of the grid.
+	 */
+	void moveAnimal(int index, int cell) throws GameLoadException {
+		move(animals.get(index), cell);
+		animalsOffGrid.set(index, cell < 0);
+	}
+
+	/**
+	 * Moves a food to a cell.
+	 * @param index Index of the food in load order
+	 * @param cell Cell index, -1 takes it off the grid
+	 * @throws GameLoadException Throws if the cell is out of the grid.
+	 */
+	void moveFood(int index, int cell) throws GameLoadException {
+		move(foods.get(index), cell);
+		foodsOffGrid.set(index, cell < 0);
+	}
+
+	private void move(Entity e, int cell) throws GameLoadException {
+		if (cell >= rows * cols) {
+			throw new GameLoadException("Entity is out of the grid in save file: " + cell);
+		}
+		if (cell >= 0) {
+			e.setPosition(cell % cols, cell / cols);
+		}
+	}
+
+	private void checkPosition(Entity e) throws GameLoadException {
+		if (e.getX() < 0 || e.getX() >= cols || e.getY() < 0 || e.getY() >= rows) {
+			throw new GameLoadException("Entity is out of the grid in save file: " + e.getX() + "," + e.getY());
+		}
+	}
+
+
+	/**
+	 * Replaces the game in the engine with this one and publishes a snapshot.
+	 * Nothing here can fail, everything was checked while the data was read.
+	 * Entities are put in load order, a later one wins if two are saved on the same cell.
+	 * @param engine Current game engine to set.
+	 */
+	public void applyTo(GameEngine engine) {
+		engine.resetGame();
+		engine.setCurrentMode(mode);
+		engine.setCurrentRound(currentRound);
+		engine.setTotalRounds(totalRounds);
+		engine.setGameOver(currentRound > totalRounds);
+		engine.resetGrid(cols, rows);
+
+		for (int i = 0; i < animals.size(); i++) {
+			engine.addLoadedAnimal(animals.get(i), !animalsOffGrid.get(i));
+		}
+		for (int i = 0; i < foods.size(); i++) {
+			if (!foodsOffGrid.get(i)) {
+				engine.addLoadedFood(foods.get(i));
+			}
+		}
+		engine.publishSnapshot();
+	}
+
+
+	// getter-setters
+	public GameMode getMode() {
+		return mode;
+	}
+
+	public int getCurrentRound() {
+		return currentRound;
+	}
+
+	void setCurrentRound(int currentRound) {
+		this.currentRound = currentRound;
+	}
+
+	public int getTotalRounds() {
+		return totalRounds;
+	}
+
+	void setTotalRounds(int totalRounds) {
+		this.totalRounds = totalRounds;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getCols() {
+		return cols;
+	}
+
+	public int getAnimalCount() {
+		return animals.size();
+	}
+
+	public int getFoodCount() {
+		return foods.size();
+	}
+
+	Animal getAnimal(int index) {
+		return animals.get(index);
+	}
+
+}